@@ -0,0 +1,41 @@
+package com.message.node.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${batch.executor.core-pool-size:4}")
+    private int corePoolSize;
+
+    @Value("${batch.executor.max-pool-size:8}")
+    private int maxPoolSize;
+
+    @Value("${batch.executor.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${batch.executor.thread-name-prefix:batch-worker-}")
+    private String threadNamePrefix;
+
+    /**
+     * Renders and publishes batch chunks. When the queue is full the submitting request thread
+     * runs the chunk itself, which throttles how fast a large upload is read.
+     */
+    @Bean(name = "batchTaskExecutor")
+    public ThreadPoolTaskExecutor batchTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
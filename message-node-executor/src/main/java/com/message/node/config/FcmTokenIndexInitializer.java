@@ -0,0 +1,98 @@
+package com.message.node.config;
+
+import com.notification.common.model.FcmDevice;
+import com.notification.common.model.FcmTokenEntity;
+import com.notification.common.repository.FcmTokenRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings fcm_tokens into the one-document-per-phone shape and creates its indexes: unique on
+ * {@code phone} (directory lookups) and on {@code devices.fcmToken} (pruning stale tokens).
+ * Older registrations appended a document per call, so duplicates are merged into a single
+ * entry with one device per distinct token before the unique index is built.
+ */
+@Component
+public class FcmTokenIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(FcmTokenIndexInitializer.class);
+
+    private final FcmTokenRepository tokenRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public FcmTokenIndexInitializer(FcmTokenRepository tokenRepository, MongoTemplate mongoTemplate) {
+        this.tokenRepository = tokenRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            migrateLegacyTokens();
+            mongoTemplate.indexOps(FcmTokenEntity.class)
+                    .ensureIndex(new Index().on("phone", Sort.Direction.ASC).unique().named("phone_unique"));
+            mongoTemplate.indexOps(FcmTokenEntity.class)
+                    .ensureIndex(new Index().on("devices.fcmToken", Sort.Direction.ASC).named("devices_fcmToken"));
+            log.info("✅ fcm_tokens indexes ensured");
+        } catch (Exception e) {
+            log.error("❌ Failed to prepare fcm_tokens indexes", e);
+        }
+    }
+
+    private void migrateLegacyTokens() {
+        // only pre-directory documents carry the top-level token; once they are gone there is nothing to merge
+        Query legacy = Query.query(Criteria.where("fcmToken").ne(null));
+        if (!mongoTemplate.exists(legacy, FcmTokenEntity.class)) return;
+
+        Map<String, List<FcmTokenEntity>> byPhone = new LinkedHashMap<>();
+        for (FcmTokenEntity entity : tokenRepository.findAll()) {
+            if (StringUtils.isBlank(entity.getPhone())) continue;
+            byPhone.computeIfAbsent(entity.getPhone(), phone -> new ArrayList<>()).add(entity);
+        }
+
+        int merged = 0;
+        for (List<FcmTokenEntity> entries : byPhone.values()) {
+            boolean hasLegacy = entries.stream().anyMatch(entity -> StringUtils.isNotBlank(entity.getFcmToken()));
+            if (entries.size() == 1 && !hasLegacy) continue;
+
+            entries.sort(Comparator.comparingLong(FcmTokenEntity::getCreatedAt));
+            FcmTokenEntity keep = entries.get(0);
+            Map<String, FcmDevice> devices = new LinkedHashMap<>();
+            for (FcmTokenEntity entity : entries) {
+                if (entity.getDevices() != null) {
+                    entity.getDevices().forEach(device -> devices.put(device.getFcmToken(), device));
+                }
+                if (StringUtils.isNotBlank(entity.getFcmToken())) {
+                    devices.putIfAbsent(entity.getFcmToken(),
+                            new FcmDevice(entity.getFcmToken(), entity.getFcmToken(), entity.getCreatedAt()));
+                }
+            }
+
+            keep.setDevices(new ArrayList<>(devices.values()));
+            keep.setFcmToken(null);
+            keep.setUpdatedAt(System.currentTimeMillis());
+            tokenRepository.save(keep);
+            tokenRepository.deleteAll(entries.subList(1, entries.size()));
+            merged++;
+        }
+
+        if (merged > 0) {
+            log.info("🔀 Migrated {} phone(s) in fcm_tokens to the multi-device layout", merged);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.message.node.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.message.node.rate.limiter.RateLimiterService;
+import com.message.node.service.BatchNotificationService;
+import com.message.node.service.NotificationConfigService;
+import com.message.node.service.RecipientListService;
+import com.message.node.service.ScheduledNotificationService;
+import com.message.node.service.TemplateService;
+import com.notification.common.dto.BatchJobStatusDTO;
+import com.notification.common.dto.BatchNotificationRequestDTO;
+import com.notification.common.dto.BatchRecipientDTO;
+import com.notification.common.dto.RecipientListDTO;
+import com.notification.common.dto.ScheduledBatchRequestDTO;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.ScheduledNotification;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.utils.JsonUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/config")
+@RequiredArgsConstructor
+public class BatchNotificationController {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchNotificationController.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final NotificationConfigService configService;
+
+    private final TemplateService templateService;
+
+    private final RateLimiterService rateLimiterService;
+
+    private final BatchNotificationService batchNotificationService;
+
+    private final RecipientListService recipientListService;
+
+    private final ScheduledNotificationService scheduledNotificationService;
+
+    /**
+     * Batch send with the recipient list inline in a JSON body.
+     */
+    @PostMapping(value = "/send-batch/{channel}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> sendBatch(@PathVariable String channel,
+                                       @Valid @RequestBody BatchNotificationRequestDTO requestDTO) {
+        log.info("📦 Received batch send request: channel={}, configId={}, templateId={}, recipients={}",
+                channel, requestDTO.getNotificationConfigId(), requestDTO.getTemplateId(), requestDTO.getRecipients().size());
+
+        return startBatch(channel, requestDTO.getNotificationConfigId(), requestDTO.getTemplateId(),
+                requestDTO.getEmailSubject(), requestDTO, requestDTO.getRecipients().iterator());
+    }
+
+    /**
+     * Batch send streaming one {@link BatchRecipientDTO} per line, so very large campaigns
+     * never have to be held in memory as a single request object.
+     */
+    @PostMapping(value = "/send-batch/{channel}", consumes = NDJSON)
+    public ResponseEntity<?> sendBatchStream(@PathVariable String channel,
+                                             @RequestParam String notificationConfigId,
+                                             @RequestParam String templateId,
+                                             @RequestParam(required = false) String emailSubject,
+                                             HttpServletRequest request) throws IOException {
+        log.info("📦 Received streamed batch send request: channel={}, configId={}, templateId={}",
+                channel, notificationConfigId, templateId);
+
+        try (MappingIterator<BatchRecipientDTO> recipients = JsonUtil.defaultMapper()
+                .readerFor(BatchRecipientDTO.class)
+                .readValues(request.getInputStream())) {
+            return startBatch(channel, notificationConfigId, templateId, emailSubject, null, recipients);
+        }
+    }
+
+    @GetMapping("/send-batch/jobs/{jobId}")
+    public ResponseEntity<BatchJobStatusDTO> getBatchJob(@PathVariable String jobId) {
+        BatchJobStatusDTO status = batchNotificationService.getJobStatus(jobId);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    /**
+     * Stores a recipient list for scheduled batch sends, or appends to {@code listId}.
+     */
+    @PostMapping(value = "/recipient-lists", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RecipientListDTO> storeRecipientList(@RequestParam(required = false) String listId,
+                                                               @RequestBody List<@Valid BatchRecipientDTO> recipients) {
+        log.info("📋 Received recipient list upload: listId={}, recipients={}", listId, recipients.size());
+        return ResponseEntity.ok(recipientListService.append(listId, recipients.iterator()));
+    }
+
+    /**
+     * Recipient list upload streaming one {@link BatchRecipientDTO} per line.
+     */
+    @PostMapping(value = "/recipient-lists", consumes = NDJSON)
+    public ResponseEntity<?> storeRecipientListStream(@RequestParam(required = false) String listId,
+                                                      HttpServletRequest request) throws IOException {
+        log.info("📋 Received streamed recipient list upload: listId={}", listId);
+
+        try (MappingIterator<BatchRecipientDTO> recipients = JsonUtil.defaultMapper()
+                .readerFor(BatchRecipientDTO.class)
+                .readValues(request.getInputStream())) {
+            RecipientListDTO result = recipientListService.append(listId, recipients);
+            // a bad line part way through still leaves the earlier recipients stored under listId
+            return result.getError() != null ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            log.error("❌ Failed to read recipient list", e);
+            return ResponseEntity.badRequest().body("❌ Invalid recipient list: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/recipient-lists/{listId}")
+    public ResponseEntity<Void> deleteRecipientList(@PathVariable String listId) {
+        recipientListService.delete(listId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Recurring batch send: stores a job that references the config, template and recipient
+     * list by id; the scheduler expands and renders the list each time the cron fires.
+     */
+    @PostMapping("/schedule-batch/{channel}")
+    public ResponseEntity<String> scheduleBatch(@PathVariable String channel,
+                                                @Valid @RequestBody ScheduledBatchRequestDTO requestDTO) {
+        log.info("📦 Received scheduled batch request: channel={}, configId={}, templateId={}, listId={}",
+                channel, requestDTO.getNotificationConfigId(), requestDTO.getTemplateId(), requestDTO.getRecipientListId());
+
+        String queueName = batchNotificationService.queueFor(channel);
+        if (queueName == null) {
+            return ResponseEntity.badRequest().body("❌ Unsupported batch channel: " + channel);
+        }
+
+        NotificationConfig config = configService.findById(requestDTO.getNotificationConfigId());
+        if (config == null || !config.isActive()) {
+            return ResponseEntity.badRequest().body("❌ Invalid or inactive NotificationConfig ID");
+        }
+
+        if (templateService.getTemplateById(requestDTO.getTemplateId()).isEmpty()) {
+            return ResponseEntity.badRequest().body("❌ Invalid Template ID: Template not found");
+        }
+
+        if (!recipientListService.exists(requestDTO.getRecipientListId())) {
+            return ResponseEntity.badRequest().body("❌ Recipient list is empty or does not exist");
+        }
+
+        ScheduledNotification scheduled = ScheduledNotification.builder()
+                .configId(config.getId())
+                .templateId(requestDTO.getTemplateId())
+                .recipientListId(requestDTO.getRecipientListId())
+                .emailSubject(requestDTO.getEmailSubject())
+                .customParams(requestDTO.getCustomParams())
+                .queueName(queueName)
+                .scheduleCron(requestDTO.getScheduleCron())
+                .timeZone(requestDTO.getTimeZone())
+                .active(true)
+                .build();
+        scheduledNotificationService.saveScheduledNotification(scheduled);
+        return ResponseEntity.ok("✅ Scheduled batch stored for recipient list " + requestDTO.getRecipientListId());
+    }
+
+    private ResponseEntity<?> startBatch(String channel,
+                                         String notificationConfigId,
+                                         String templateId,
+                                         String emailSubject,
+                                         BatchNotificationRequestDTO requestDTO,
+                                         Iterator<BatchRecipientDTO> recipients) {
+        String queueName = batchNotificationService.queueFor(channel);
+        if (queueName == null) {
+            return ResponseEntity.badRequest().body("❌ Unsupported batch channel: " + channel);
+        }
+
+        // permits are taken per chunk as recipients are published; this only rejects an exhausted queue
+        if (!rateLimiterService.hasCapacity(queueName)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body("🚫 Rate limit exceeded for " + channel + " channel");
+        }
+
+        NotificationConfig config = configService.findById(notificationConfigId);
+        if (config == null || !config.isActive()) {
+            return ResponseEntity.badRequest().body("❌ Invalid or inactive NotificationConfig ID");
+        }
+
+        TemplateEntity template = templateService.getTemplateById(templateId).orElse(null);
+        if (template == null) {
+            return ResponseEntity.badRequest().body("❌ Invalid Template ID: Template not found");
+        }
+
+        try {
+            BatchJobStatusDTO status = batchNotificationService.submit(channel, config, template, emailSubject,
+                    requestDTO != null ? requestDTO.getCustomParams() : null, recipients);
+            // a bad line part way through still leaves the recipients before it sending under jobId
+            return ResponseEntity.status(status.getError() != null ? HttpStatus.BAD_REQUEST : HttpStatus.ACCEPTED).body(status);
+        } catch (RuntimeException e) {
+            log.error("❌ Failed to read batch recipients", e);
+            return ResponseEntity.badRequest().body("❌ Invalid batch recipients: " + e.getMessage());
+        }
+    }
+}
@@ -1,21 +1,52 @@
 package com.message.node.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.message.node.service.FcmTokenService;
-import com.notification.common.model.FcmTokenEntity;
-import lombok.RequiredArgsConstructor;
+import com.message.node.service.OutboxService;
+import com.notification.common.dto.FcmTokenRequestDTO;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/fcm")
-@RequiredArgsConstructor
 public class FcmTokenController {
 
     private final FcmTokenService fcmTokenService;
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${email.cache.eviction}")
+    private String cacheEvictionTopic;
+
+    public FcmTokenController(FcmTokenService fcmTokenService, OutboxService outboxService) {
+        this.fcmTokenService = fcmTokenService;
+        this.outboxService = outboxService;
+    }
 
     @PostMapping("/register")
-    public ResponseEntity<String> registerToken(@RequestBody FcmTokenEntity token) {
+    public ResponseEntity<String> registerToken(@Valid @RequestBody FcmTokenRequestDTO token) throws JsonProcessingException {
         fcmTokenService.registerToken(token);
+        publishEviction(token.getPhone());
         return ResponseEntity.ok("✅ FCM token registered successfully");
     }
+
+    @DeleteMapping("/{phone}")
+    public ResponseEntity<String> unregisterToken(@PathVariable String phone,
+                                                  @RequestParam String fcmToken) throws JsonProcessingException {
+        if (!fcmTokenService.unregisterToken(phone, fcmToken)) {
+            return ResponseEntity.notFound().build();
+        }
+        publishEviction(phone);
+        return ResponseEntity.ok("✅ FCM token removed");
+    }
+
+    // senders cache tokens per phone; tell them to drop this one
+    private void publishEviction(String phone) throws JsonProcessingException {
+        outboxService.submitMessage(cacheEvictionTopic, objectMapper.writeValueAsString(Map.of("fcmTokenPhone", phone)), true);
+    }
 }
@@ -3,7 +3,7 @@ package com.message.node.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.notification.common.model.FileStorageConfig;
-import com.message.node.producer.MessageProducer;
+import com.message.node.service.OutboxService;
 import com.message.node.service.FileStorageConfigService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +28,7 @@ public class FileStorageConfigController {
     private FileStorageConfigService configService;
 
     @Autowired
-    private MessageProducer messageProducer;
+    private OutboxService outboxService;
 
     @Value("${storage.cache.eviction}")
     private String storageCacheEvictionQueueName;
@@ -58,7 +58,7 @@ public class FileStorageConfigController {
         Map<String, String> payloadMap = new HashMap<>();
         payloadMap.put("fileStorageConfigId", id);
         String messagePayload = objectMapper.writeValueAsString(payloadMap);
-        messageProducer.sendMessage(storageCacheEvictionQueueName,messagePayload,true);
+        outboxService.submitMessage(storageCacheEvictionQueueName,messagePayload,true);
         return ResponseEntity.ok(update);
     }
 
@@ -69,7 +69,7 @@ public class FileStorageConfigController {
         Map<String, String> payloadMap = new HashMap<>();
         payloadMap.put("fileStorageConfigId", id);
         String messagePayload = objectMapper.writeValueAsString(payloadMap);
-        messageProducer.sendMessage(storageCacheEvictionQueueName,messagePayload,true);
+        outboxService.submitMessage(storageCacheEvictionQueueName,messagePayload,true);
         return ResponseEntity.ok("Deleted successfully");
     }
 }
\ No newline at end of file
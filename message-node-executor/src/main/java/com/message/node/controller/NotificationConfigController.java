@@ -9,15 +9,15 @@ import com.notification.common.dto.NotificationRequestDTO;
 import com.notification.common.model.NotificationConfig;
 import com.notification.common.model.ScheduledNotification;
 import com.notification.common.model.TemplateEntity;
-import com.message.node.producer.MessageProducer;
+import com.message.node.service.OutboxService;
 import com.message.node.service.NotificationConfigService;
 import com.message.node.service.ScheduledNotificationService;
 import com.message.node.service.TemplateService;
+import com.notification.common.service.payload.NotificationPayloadFactory;
+import com.notification.common.service.template.TemplateRenderService;
 import com.notification.common.service.upload.HtmlCdnUploader;
-import com.notification.common.utils.JsonUtil;
-import com.notification.common.utils.TemplateUtil;
+import com.notification.common.utils.CompiledTemplate;
 import jakarta.validation.Valid;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -42,7 +42,7 @@ public class NotificationConfigController {
 
     private final NotificationConfigService configService;
 
-    private final MessageProducer messageProducer;
+    private final OutboxService outboxService;
 
     private final TemplateService templateService;
 
@@ -52,6 +52,10 @@ public class NotificationConfigController {
 
     private final RateLimiterService rateLimiterService;
 
+    private final TemplateRenderService templateRenderService;
+
+    private final NotificationPayloadFactory payloadFactory;
+
     @Value("${email.queue.name}")
     private String emailQueueName;
 
@@ -80,13 +84,15 @@ public class NotificationConfigController {
     private String publishQueueName;
 
 
-    public NotificationConfigController(NotificationConfigService configService, MessageProducer messageProducer, TemplateService templateService, ScheduledNotificationService scheduledNotificationService, HtmlCdnUploader htmlCdnUploader, RateLimiterService rateLimiterService) {
+    public NotificationConfigController(NotificationConfigService configService, OutboxService outboxService, TemplateService templateService, ScheduledNotificationService scheduledNotificationService, HtmlCdnUploader htmlCdnUploader, RateLimiterService rateLimiterService, TemplateRenderService templateRenderService, NotificationPayloadFactory payloadFactory) {
         this.configService = configService;
-        this.messageProducer = messageProducer;
+        this.outboxService = outboxService;
         this.templateService = templateService;
         this.scheduledNotificationService = scheduledNotificationService;
         this.htmlCdnUploader = htmlCdnUploader;
         this.rateLimiterService = rateLimiterService;
+        this.templateRenderService = templateRenderService;
+        this.payloadFactory = payloadFactory;
     }
 
     @PostMapping
@@ -119,7 +125,7 @@ public class NotificationConfigController {
         Map<String, String> payloadMap = new HashMap<>();
         payloadMap.put("notificationConfigId", id);
         String messagePayload = objectMapper.writeValueAsString(payloadMap);
-        messageProducer.sendMessage(emailCacheEvictionQueueName,messagePayload,true);
+        outboxService.submitMessage(emailCacheEvictionQueueName,messagePayload,true);
         return ResponseEntity.ok(dto);
     }
 
@@ -130,7 +136,7 @@ public class NotificationConfigController {
         Map<String, String> payloadMap = new HashMap<>();
         payloadMap.put("notificationConfigId", id);
         String messagePayload = objectMapper.writeValueAsString(payloadMap);
-        messageProducer.sendMessage(emailCacheEvictionQueueName,messagePayload,true);
+        outboxService.submitMessage(emailCacheEvictionQueueName,messagePayload,true);
         return ResponseEntity.noContent().build();
     }
 
@@ -167,8 +173,8 @@ public class NotificationConfigController {
 
         if (requestDTO.isScheduled()) {
                 ScheduledNotification scheduled = ScheduledNotification.builder()
-                        .notificationConfig(config)
-                        .template(template)
+                        .configId(config.getId())
+                        .templateId(template.getId())
                         .to(requestDTO.getTo())
                         .cc(requestDTO.getCc())
                         .bcc(requestDTO.getBcc())
@@ -182,22 +188,27 @@ public class NotificationConfigController {
             return ResponseEntity.ok("✅ Scheduled emails stored for all recipients.");
         }
 
+        if (payloadFactory.isReferenceMode()) {
+            NotificationPayloadDTO payload = payloadFactory.reference(config, template, requestDTO.getTo(),
+                    requestDTO.getCc(), requestDTO.getBcc(), requestDTO.getEmailSubject(), requestDTO.getCustomParams());
+            outboxService.submit(emailQueueName, payload);
+            return ResponseEntity.accepted().body("✅ Email request processed for all recipients.");
+        }
+
         try {
             int maxInlineChars = maxInlineKb * 1024;
-            String resolvedHtml = template.getContent();
-            resolvedHtml = TemplateUtil.resolveTemplateWithParams(resolvedHtml, requestDTO.getCustomParams());
+            CompiledTemplate compiledHtml = templateRenderService.compileContent(template);
 
-            if (resolvedHtml != null && resolvedHtml.length() > maxInlineChars) {
-                String cdnUrl = htmlCdnUploader.uploadHtmlAsFile(resolvedHtml);
+            if (compiledHtml.renderedLength(requestDTO.getCustomParams()) > maxInlineChars) {
+                String cdnUrl = htmlCdnUploader.uploadHtmlAsFile(compiledHtml, requestDTO.getCustomParams());
                 template.setCdnUrl(cdnUrl);
                 template.setContent(null);
             } else {
-                template.setContent(resolvedHtml);
+                template.setContent(compiledHtml.render(requestDTO.getCustomParams()));
             }
 
-            String resolvedSubject = TemplateUtil.resolveTemplateWithParams(
-                    StringUtils.defaultIfBlank(requestDTO.getEmailSubject(), template.getEmailSubject()),
-                    requestDTO.getCustomParams());
+            String resolvedSubject = templateRenderService.renderSubject(
+                    template, requestDTO.getEmailSubject(), requestDTO.getCustomParams());
 
                 NotificationPayloadDTO payload = new NotificationPayloadDTO();
                 payload.setTo(requestDTO.getTo());
@@ -207,15 +218,14 @@ public class NotificationConfigController {
                 payload.setSnapshotConfig(config);
                 payload.setSnapshotTemplate(template);
 
-                String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-                messageProducer.sendMessage(emailQueueName, jsonPayload, false);
+                outboxService.submit(emailQueueName, payload);
 
         } catch (IOException e) {
             log.error("Failed to serialize or upload NotificationPayloadDTO", e);
             return ResponseEntity.internalServerError().body("❌ Failed to send notification");
         }
 
-        return ResponseEntity.ok("✅ Email request processed for all recipients.");
+        return ResponseEntity.accepted().body("✅ Email request processed for all recipients.");
     }
 
     @PostMapping("/send-sms")
@@ -241,8 +251,8 @@ public class NotificationConfigController {
 
         if (requestDTO.isScheduled()) {
             ScheduledNotification scheduled = ScheduledNotification.builder()
-                    .notificationConfig(config)
-                    .template(template)
+                    .configId(config.getId())
+                    .templateId(template.getId())
                     .to(requestDTO.getTo())
                     .emailSubject(requestDTO.getEmailSubject())
                     .customParams(requestDTO.getCustomParams())
@@ -254,7 +264,14 @@ public class NotificationConfigController {
             return ResponseEntity.ok("✅ Scheduled SMS stored for processing.");
         }
 
-        String resolvedMessage = TemplateUtil.resolveTemplateWithParams(template.getContent(), requestDTO.getCustomParams());
+        if (payloadFactory.isReferenceMode()) {
+            NotificationPayloadDTO payload = payloadFactory.reference(config, template, requestDTO.getTo(),
+                    null, null, null, requestDTO.getCustomParams());
+            outboxService.submit(smsQueueName, payload);
+            return ResponseEntity.accepted().body("✅ SMS request processed successfully.");
+        }
+
+        String resolvedMessage = templateRenderService.renderContent(template, requestDTO.getCustomParams());
 
         NotificationPayloadDTO payload = new NotificationPayloadDTO();
         payload.setTo(requestDTO.getTo());
@@ -262,10 +279,9 @@ public class NotificationConfigController {
         payload.setSnapshotConfig(config);
         payload.setSnapshotTemplate(template);
 
-        String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-        messageProducer.sendMessage(smsQueueName, jsonPayload, false);
+        outboxService.submit(smsQueueName, payload);
 
-        return ResponseEntity.ok("✅ SMS request processed successfully.");
+        return ResponseEntity.accepted().body("✅ SMS request processed successfully.");
     }
 
     @PostMapping("/send-whatsapp")
@@ -290,8 +306,8 @@ public class NotificationConfigController {
 
         if (requestDTO.isScheduled()) {
             ScheduledNotification scheduled = ScheduledNotification.builder()
-                    .notificationConfig(config)
-                    .template(template)
+                    .configId(config.getId())
+                    .templateId(template.getId())
                     .to(requestDTO.getTo())
                     .emailSubject(null)
                     .customParams(requestDTO.getCustomParams())
@@ -303,9 +319,16 @@ public class NotificationConfigController {
             return ResponseEntity.ok("✅ Scheduled WhatsApp message stored.");
         }
 
+        if (payloadFactory.isReferenceMode()) {
+            NotificationPayloadDTO payload = payloadFactory.reference(config, template, requestDTO.getTo(),
+                    null, null, null, requestDTO.getCustomParams());
+            outboxService.submit(whatsappQueueName, payload);
+            return ResponseEntity.accepted().body("✅ WhatsApp request processed successfully.");
+        }
+
         try {
             int maxInlineChars = maxInlineKb * 1024;
-            String resolvedMessage = TemplateUtil.resolveTemplateWithParams(template.getContent(), requestDTO.getCustomParams());
+            String resolvedMessage = templateRenderService.renderContent(template, requestDTO.getCustomParams());
 
             if (resolvedMessage != null && resolvedMessage.length() > maxInlineChars) {
                 String cdnUrl = htmlCdnUploader.uploadHtmlAsFile(resolvedMessage);
@@ -321,15 +344,14 @@ public class NotificationConfigController {
             payload.setSnapshotConfig(config);
             payload.setSnapshotTemplate(template);
 
-            String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-            messageProducer.sendMessage(whatsappQueueName, jsonPayload, false);
+            outboxService.submit(whatsappQueueName, payload);
 
         } catch (IOException e) {
             log.error("❌ Failed to serialize or upload WhatsApp payload", e);
             return ResponseEntity.internalServerError().body("❌ Failed to send WhatsApp notification");
         }
 
-        return ResponseEntity.ok("✅ WhatsApp request processed successfully.");
+        return ResponseEntity.accepted().body("✅ WhatsApp request processed successfully.");
     }
 
     @PostMapping("/send-push")
@@ -355,8 +377,8 @@ public class NotificationConfigController {
 
         if (requestDTO.isScheduled()) {
             ScheduledNotification scheduled = ScheduledNotification.builder()
-                    .notificationConfig(config)
-                    .template(template)
+                    .configId(config.getId())
+                    .templateId(template.getId())
                     .to(requestDTO.getTo())
                     .emailSubject(null)
                     .customParams(requestDTO.getCustomParams())
@@ -368,7 +390,14 @@ public class NotificationConfigController {
             return ResponseEntity.ok("✅ Scheduled push notification stored.");
         }
 
-        String resolvedMessage = TemplateUtil.resolveTemplateWithParams(template.getContent(), requestDTO.getCustomParams());
+        if (payloadFactory.isReferenceMode()) {
+            NotificationPayloadDTO payload = payloadFactory.reference(config, template, requestDTO.getTo(),
+                    null, null, null, requestDTO.getCustomParams());
+            outboxService.submit(pushQueueName, payload);
+            return ResponseEntity.accepted().body("✅ Push notification request queued successfully.");
+        }
+
+        String resolvedMessage = templateRenderService.renderContent(template, requestDTO.getCustomParams());
 
         template.setContent(resolvedMessage);
         NotificationPayloadDTO payload = new NotificationPayloadDTO();
@@ -377,10 +406,9 @@ public class NotificationConfigController {
         payload.setSnapshotConfig(config);
         payload.setSnapshotTemplate(template);
 
-        String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-        messageProducer.sendMessage(pushQueueName, jsonPayload, false);
+        outboxService.submit(pushQueueName, payload);
 
-        return ResponseEntity.ok("✅ Push notification request queued successfully.");
+        return ResponseEntity.accepted().body("✅ Push notification request queued successfully.");
     }
 
     @PostMapping("/send-voice")
@@ -407,8 +435,8 @@ public class NotificationConfigController {
 
         if (requestDTO.isScheduled()) {
             ScheduledNotification scheduled = ScheduledNotification.builder()
-                    .notificationConfig(config)
-                    .template(template)
+                    .configId(config.getId())
+                    .templateId(template.getId())
                     .to(requestDTO.getTo())
                     .customParams(requestDTO.getCustomParams())
                     .queueName(voiceQueueName)
@@ -419,17 +447,23 @@ public class NotificationConfigController {
             return ResponseEntity.ok("✅ Scheduled voice call stored.");
         }
 
+        if (payloadFactory.isReferenceMode()) {
+            NotificationPayloadDTO payload = payloadFactory.reference(config, template, requestDTO.getTo(),
+                    null, null, null, requestDTO.getCustomParams());
+            outboxService.submit(voiceQueueName, payload);
+            return ResponseEntity.accepted().body("✅ Voice call request processed successfully.");
+        }
+
         try {
             int maxInlineChars = maxInlineKb * 1024;
-            String resolvedTwiML = template.getContent();
-            resolvedTwiML = TemplateUtil.resolveTemplateWithParams(resolvedTwiML, requestDTO.getCustomParams());
+            CompiledTemplate compiledTwiML = templateRenderService.compileContent(template);
 
-            if (resolvedTwiML != null && resolvedTwiML.length() > maxInlineChars) {
-                String cdnUrl = htmlCdnUploader.uploadHtmlAsFile(resolvedTwiML);
+            if (compiledTwiML.renderedLength(requestDTO.getCustomParams()) > maxInlineChars) {
+                String cdnUrl = htmlCdnUploader.uploadHtmlAsFile(compiledTwiML, requestDTO.getCustomParams());
                 template.setCdnUrl(cdnUrl);
                 template.setContent(null);
             } else {
-                template.setContent(resolvedTwiML);
+                template.setContent(compiledTwiML.render(requestDTO.getCustomParams()));
             }
 
             NotificationPayloadDTO payload = new NotificationPayloadDTO();
@@ -437,15 +471,14 @@ public class NotificationConfigController {
             payload.setSnapshotConfig(config);
             payload.setSnapshotTemplate(template);
 
-            String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-            messageProducer.sendMessage(voiceQueueName, jsonPayload, false);
+            outboxService.submit(voiceQueueName, payload);
 
         } catch (IOException e) {
             log.error("❌ Failed to serialize or upload voice payload", e);
             return ResponseEntity.internalServerError().body("❌ Failed to send voice call");
         }
 
-        return ResponseEntity.ok("✅ Voice call request processed successfully.");
+        return ResponseEntity.accepted().body("✅ Voice call request processed successfully.");
     }
 
     @PostMapping("/send-webhook")
@@ -465,8 +498,8 @@ public class NotificationConfigController {
 
         if (requestDTO.isScheduled()) {
             ScheduledNotification scheduled = ScheduledNotification.builder()
-                    .notificationConfig(config)
-                    .template(template)
+                    .configId(config.getId())
+                    .templateId(template.getId())
                     .to(requestDTO.getTo())
                     .customParams(requestDTO.getCustomParams())
                     .queueName(webhookQueueName)
@@ -477,7 +510,14 @@ public class NotificationConfigController {
             return ResponseEntity.ok("✅ Scheduled voice call stored.");
         }
 
-        String resolvedJson = TemplateUtil.resolveTemplateWithParams(template.getContent(), requestDTO.getCustomParams());
+        if (payloadFactory.isReferenceMode()) {
+            NotificationPayloadDTO payload = payloadFactory.reference(config, template, requestDTO.getTo(),
+                    null, null, null, requestDTO.getCustomParams());
+            outboxService.submit(webhookQueueName, payload);
+            return ResponseEntity.accepted().body("✅ Webhook queued successfully.");
+        }
+
+        String resolvedJson = templateRenderService.renderContent(template, requestDTO.getCustomParams());
         template.setContent(resolvedJson);
         NotificationPayloadDTO payload = new NotificationPayloadDTO();
         payload.setTo(requestDTO.getTo());
@@ -485,10 +525,9 @@ public class NotificationConfigController {
         payload.setSnapshotConfig(config);
         payload.setSnapshotTemplate(template);
 
-        String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-        messageProducer.sendMessage(webhookQueueName, jsonPayload, false);
+        outboxService.submit(webhookQueueName, payload);
 
-        return ResponseEntity.ok("✅ Webhook queued successfully.");
+        return ResponseEntity.accepted().body("✅ Webhook queued successfully.");
     }
 
     @PostMapping("/send-queue")
@@ -513,8 +552,8 @@ public class NotificationConfigController {
 
         if (requestDTO.isScheduled()) {
             ScheduledNotification scheduled = ScheduledNotification.builder()
-                    .notificationConfig(config)
-                    .template(template)
+                    .configId(config.getId())
+                    .templateId(template.getId())
                     .to(requestDTO.getTo())
                     .cc(requestDTO.getCc())
                     .bcc(requestDTO.getBcc())
@@ -529,22 +568,28 @@ public class NotificationConfigController {
             return ResponseEntity.ok("✅ Scheduled notification saved for future dispatch.");
         }
 
+        if (payloadFactory.isReferenceMode()) {
+            NotificationPayloadDTO payload = payloadFactory.reference(config, template, requestDTO.getTo(),
+                    requestDTO.getCc(), requestDTO.getBcc(), requestDTO.getEmailSubject(), requestDTO.getCustomParams());
+            outboxService.submit(publishQueueName, payload);
+            return ResponseEntity.accepted().body("✅ Message published to queue: " + requestDTO.getTo());
+        }
+
         try {
             // Resolve template content
             int maxInlineChars = maxInlineKb * 1024;
-            String resolvedHtml = TemplateUtil.resolveTemplateWithParams(template.getContent(), requestDTO.getCustomParams());
+            CompiledTemplate compiledHtml = templateRenderService.compileContent(template);
 
-            if (resolvedHtml != null && resolvedHtml.length() > maxInlineChars) {
-                String cdnUrl = htmlCdnUploader.uploadHtmlAsFile(resolvedHtml);
+            if (compiledHtml.renderedLength(requestDTO.getCustomParams()) > maxInlineChars) {
+                String cdnUrl = htmlCdnUploader.uploadHtmlAsFile(compiledHtml, requestDTO.getCustomParams());
                 template.setCdnUrl(cdnUrl);
                 template.setContent(null);
             } else {
-                template.setContent(resolvedHtml);
+                template.setContent(compiledHtml.render(requestDTO.getCustomParams()));
             }
 
-            String resolvedSubject = TemplateUtil.resolveTemplateWithParams(
-                    StringUtils.defaultIfBlank(requestDTO.getEmailSubject(), template.getEmailSubject()),
-                    requestDTO.getCustomParams());
+            String resolvedSubject = templateRenderService.renderSubject(
+                    template, requestDTO.getEmailSubject(), requestDTO.getCustomParams());
 
             NotificationPayloadDTO payload = new NotificationPayloadDTO();
             payload.setTo(requestDTO.getTo());
@@ -554,16 +599,14 @@ public class NotificationConfigController {
             payload.setSnapshotConfig(config);
             payload.setSnapshotTemplate(template);
 
-            String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-
-            messageProducer.sendMessage(publishQueueName, jsonPayload, false);
+            outboxService.submit(publishQueueName, payload);
 
         } catch (Exception e) {
             log.error("❌ Failed to process and send message", e);
             return ResponseEntity.internalServerError().body("❌ Notification failed: " + e.getMessage());
         }
 
-        return ResponseEntity.ok("✅ Message published to queue: " + requestDTO.getTo());
+        return ResponseEntity.accepted().body("✅ Message published to queue: " + requestDTO.getTo());
     }
 
 }
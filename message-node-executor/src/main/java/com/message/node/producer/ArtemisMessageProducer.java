@@ -1,20 +1,40 @@
 package com.message.node.producer;
 
+import com.notification.common.codec.PayloadCodec;
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.dto.NotificationPayloadDTO;
 import com.notification.common.enums.MessagingMode;
 import com.notification.common.model.UnsentMessage;
 import com.notification.common.repository.UnsentMessageRepository;
+import com.notification.common.service.routing.RoutingKeyResolver;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.BytesMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMS sends block, so {@link #sendPayloadAsync} runs them on a small bounded pool
+ * ({@code artemis.producer.async-threads} / {@code async-queue-capacity}); when that backs up the
+ * caller runs the send itself, which is the backpressure.
+ */
 @Service("artemisMessageProducer")
 @ConditionalOnExpression("'${messaging.mode}'=='activemq' or '${messaging.mode}'=='both'")
 @ConditionalOnClass(name = "org.springframework.jms.core.JmsTemplate")
@@ -22,30 +42,46 @@ public class ArtemisMessageProducer implements MessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(ArtemisMessageProducer.class);
     private final JmsTemplate jmsTemplate;
+    // separate template for topics: flipping pubSubDomain on a shared template races with concurrent sends
+    private final JmsTemplate topicTemplate;
+    private final ThreadPoolExecutor asyncExecutor;
     private final Retry retry;
     private final CircuitBreaker circuitBreaker;
     private final UnsentMessageRepository unsentRepo;
+    private final PayloadCodec codec;
+    private final RoutingKeyResolver routingKeyResolver;
 
     @Autowired
     public ArtemisMessageProducer(JmsTemplate jmsTemplate,
                                   RetryRegistry retryRegistry,
                                   CircuitBreakerRegistry circuitBreakerRegistry,
-                                  UnsentMessageRepository unsentRepo) {
+                                  UnsentMessageRepository unsentRepo,
+                                  RoutingKeyResolver routingKeyResolver,
+                                  @Value("${notification.payload.codec:json}") String codecName,
+                                  @Value("${artemis.producer.async-threads:8}") int asyncThreads,
+                                  @Value("${artemis.producer.async-queue-capacity:1000}") int asyncQueueCapacity) {
         this.jmsTemplate = jmsTemplate;
+        this.jmsTemplate.setPubSubDomain(false);
+        this.topicTemplate = new JmsTemplate(jmsTemplate.getConnectionFactory());
+        this.topicTemplate.setMessageConverter(jmsTemplate.getMessageConverter());
+        this.topicTemplate.setPubSubDomain(true);
+        this.asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(asyncQueueCapacity), r -> {
+                    Thread t = new Thread(r, "artemis-producer-async");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.codec = PayloadCodecs.get(codecName);
         this.retry = retryRegistry.retry("artemis-retry");
         this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("artemis-cb");
         this.unsentRepo = unsentRepo;
+        this.routingKeyResolver = routingKeyResolver;
     }
 
     @Override
     public void sendMessage(String queueName, String message, boolean isPubSub) {
-        jmsTemplate.setPubSubDomain(isPubSub);
-        Runnable sendLogic = () -> jmsTemplate.convertAndSend(queueName, message);
-
         try {
-            Retry.decorateRunnable(retry,
-                    CircuitBreaker.decorateRunnable(circuitBreaker, sendLogic)
-            ).run();
+            doSendMessage(queueName, message, isPubSub);
             log.info("[Artemis] Sent: " + message);
         } catch (Exception e) {
             log.error("[Artemis] Failed after retries, saving to DB");
@@ -53,4 +89,100 @@ public class ArtemisMessageProducer implements MessageProducer {
             unsentRepo.save(fallbackMsg);
         }
     }
+
+    @Override
+    public void sendPayload(String queueName, NotificationPayloadDTO payload) {
+        sendPayload(queueName, routingKeyResolver.keyFor(queueName, payload), payload);
+    }
+
+    @Override
+    public List<NotificationPayloadDTO> sendPayloads(String queueName, List<NotificationPayloadDTO> payloads) {
+        List<NotificationPayloadDTO> unsent = new ArrayList<>();
+        for (NotificationPayloadDTO payload : payloads) {
+            if (!sendPayload(queueName, routingKeyResolver.keyFor(queueName, payload), payload)) {
+                unsent.add(payload);
+            }
+        }
+        return unsent;
+    }
+
+    /**
+     * @return true if the payload is on the broker, false if it went to the unsent store
+     */
+    private boolean sendPayload(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        byte[] data;
+        try {
+            data = codec.encode(payload);
+        } catch (Exception e) {
+            log.error("[Artemis] Failed to encode payload for {}, saving to DB", queueName, e);
+            saveUnsent(queueName, payload);
+            return false;
+        }
+
+        try {
+            doSendPayload(queueName, routingKey, data);
+            log.info("[Artemis] Sent {} payload ({} bytes) to {}", codec.name(), data.length, queueName);
+            return true;
+        } catch (Exception e) {
+            log.error("[Artemis] Failed after retries, saving to DB");
+            saveUnsent(queueName, payload);
+            return false;
+        }
+    }
+
+    // The unsent store and its replay stay on plain JSON text
+    private void saveUnsent(String queueName, NotificationPayloadDTO payload) {
+        String json = new String(PayloadCodecs.json().encode(payload), StandardCharsets.UTF_8);
+        unsentRepo.save(new UnsentMessage(queueName, json, MessagingMode.ACTIVEMQ));
+    }
+
+    private void doSendMessage(String queueName, String message, boolean isPubSub) {
+        JmsTemplate template = isPubSub ? topicTemplate : jmsTemplate;
+        Runnable sendLogic = () -> template.convertAndSend(queueName, message);
+        Retry.decorateRunnable(retry,
+                CircuitBreaker.decorateRunnable(circuitBreaker, sendLogic)
+        ).run();
+    }
+
+    private void doSendPayload(String queueName, String routingKey, byte[] data) {
+        Runnable sendLogic = () -> jmsTemplate.send(queueName, session -> {
+            BytesMessage message = session.createBytesMessage();
+            message.writeBytes(data);
+            message.setStringProperty(PayloadCodecs.HEADER_CODEC, codec.name());
+            message.setIntProperty(PayloadCodecs.HEADER_VERSION, PayloadCodecs.WIRE_VERSION);
+            if (routingKey != null) {
+                // Artemis message groups: one consumer at a time per group, so the key stays in order
+                message.setStringProperty("JMSXGroupID", routingKey);
+            }
+            return message;
+        });
+        Retry.decorateRunnable(retry,
+                CircuitBreaker.decorateRunnable(circuitBreaker, sendLogic)
+        ).run();
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPayloadAsync(String queueName, NotificationPayloadDTO payload) {
+        return sendPayloadAsync(queueName, routingKeyResolver.keyFor(queueName, payload), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPayloadAsync(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        return CompletableFuture.runAsync(() -> sendPayload(queueName, routingKey, payload), asyncExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> trySendPayloadAsync(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        return CompletableFuture.runAsync(() -> doSendPayload(queueName, routingKey, codec.encode(payload)), asyncExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> trySendMessageAsync(String queueName, String message, boolean isPubSub) {
+        return CompletableFuture.runAsync(() -> doSendMessage(queueName, message, isPubSub), asyncExecutor);
+    }
+
+    @PreDestroy
+    public void close() {
+        asyncExecutor.shutdown();
+    }
 }
@@ -1,10 +1,18 @@
 package com.message.node.producer;
 
+import com.notification.common.dto.NotificationPayloadDTO;
 import com.notification.common.repository.UnsentMessageRepository;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 @Service("dualMessageProducer")
 @ConditionalOnProperty(name = "messaging.mode", havingValue = "both")
 @Primary
@@ -28,4 +36,47 @@ public class DualMessageProducer implements MessageProducer {
         artemisProducer.sendMessage(queueName, message, isPubSub);
     }
 
+    @Override
+    public void sendPayload(String queueName, NotificationPayloadDTO payload) {
+        kafkaProducer.sendPayload(queueName, payload);
+        artemisProducer.sendPayload(queueName, payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPayloadAsync(String queueName, NotificationPayloadDTO payload) {
+        return CompletableFuture.allOf(
+                kafkaProducer.sendPayloadAsync(queueName, payload),
+                artemisProducer.sendPayloadAsync(queueName, payload));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPayloadAsync(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        return CompletableFuture.allOf(
+                kafkaProducer.sendPayloadAsync(queueName, routingKey, payload),
+                artemisProducer.sendPayloadAsync(queueName, routingKey, payload));
+    }
+
+    @Override
+    public CompletableFuture<Void> trySendPayloadAsync(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        return CompletableFuture.allOf(
+                kafkaProducer.trySendPayloadAsync(queueName, routingKey, payload),
+                artemisProducer.trySendPayloadAsync(queueName, routingKey, payload));
+    }
+
+    @Override
+    public CompletableFuture<Void> trySendMessageAsync(String queueName, String message, boolean isPubSub) {
+        return CompletableFuture.allOf(
+                kafkaProducer.trySendMessageAsync(queueName, message, isPubSub),
+                artemisProducer.trySendMessageAsync(queueName, message, isPubSub));
+    }
+
+    @Override
+    public List<NotificationPayloadDTO> sendPayloads(String queueName, List<NotificationPayloadDTO> payloads) {
+        // unsent on either broker counts once; it is replayed to that broker later
+        Set<NotificationPayloadDTO> unsent = Collections.newSetFromMap(new IdentityHashMap<>());
+        unsent.addAll(kafkaProducer.sendPayloads(queueName, payloads));
+        unsent.addAll(artemisProducer.sendPayloads(queueName, payloads));
+        return new ArrayList<>(unsent);
+    }
+
 }
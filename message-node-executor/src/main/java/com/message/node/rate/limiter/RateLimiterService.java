@@ -83,6 +83,41 @@ public class RateLimiterService {
         return limiter.acquirePermission();
     }
 
+    /**
+     * True if the queue has any budget left in the current period. Does not take a permit; batch
+     * requests check this up front and then pay per recipient through {@link #acquire}.
+     */
+    public boolean hasCapacity(String queueName) {
+        if (!isRateLimiterEnabled) return true;
+
+        var limiter = limiters.computeIfAbsent(queueName, this::createRateLimiter);
+        return limiter.getMetrics().getAvailablePermissions() > 0;
+    }
+
+    /**
+     * Takes up to {@code permits} permits, waiting at most {@code maxWaitMs} for the limit to
+     * refresh when the current period runs out. Returns how many were granted; less than asked
+     * means the queue's budget did not cover the rest in time.
+     */
+    public int acquire(String queueName, int permits, long maxWaitMs) throws InterruptedException {
+        if (!isRateLimiterEnabled) return permits;
+
+        var limiter = limiters.computeIfAbsent(queueName, this::createRateLimiter);
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        int granted = 0;
+        while (granted < permits) {
+            int step = Math.min(permits - granted, limiter.getMetrics().getAvailablePermissions());
+            if (step > 0 && limiter.acquirePermission(step)) {
+                granted += step;
+                continue;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) break;
+            Thread.sleep(Math.min(remaining, 1000));
+        }
+        return granted;
+    }
+
     private RateLimiter createRateLimiter(String queueName) {
         int limit = queueLimitMap.getOrDefault(queueName, 60);
 
@@ -0,0 +1,304 @@
+package com.message.node.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.message.node.producer.MessageProducer;
+import com.message.node.rate.limiter.RateLimiterService;
+import com.notification.common.dto.BatchJobStatusDTO;
+import com.notification.common.dto.BatchRecipientDTO;
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.service.payload.NotificationPayloadFactory;
+import com.notification.common.service.template.TemplateRenderService;
+import com.notification.common.utils.CompiledTemplate;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans one config + template out to many recipients. Config and template are resolved and
+ * compiled once per job; recipients are rendered in parallel chunks and each chunk is handed
+ * to {@link MessageProducer#sendPayloads} in one go.
+ * <p>
+ * Each chunk takes one rate-limiter permit per payload before publishing, waiting up to
+ * {@code batch.rate-limit.max-wait-ms} for the queue's limit to refresh; payloads still without
+ * a permit then are counted as failed. Payloads the producer had to park in the unsent store
+ * are counted as unsent, not published.
+ */
+@Service
+public class BatchNotificationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchNotificationService.class);
+
+    private final MessageProducer messageProducer;
+    private final TemplateRenderService templateRenderService;
+    private final ThreadPoolTaskExecutor batchTaskExecutor;
+    private final NotificationPayloadFactory payloadFactory;
+    private final RateLimiterService rateLimiterService;
+
+    private final Cache<String, BatchJob> jobs = Caffeine.newBuilder()
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .maximumSize(10_000)
+            .build();
+
+    private final Map<String, String> channelQueueMap = new HashMap<>();
+
+    @Value("${batch.chunk.size:500}")
+    private int chunkSize;
+
+    @Value("${batch.rate-limit.max-wait-ms:60000}")
+    private long rateLimitMaxWaitMs;
+
+    @Value("${email.queue.name}")
+    private String emailQueueName;
+
+    @Value("${sms.queue.name}")
+    private String smsQueueName;
+
+    @Value("${whatsapp.queue.name}")
+    private String whatsappQueueName;
+
+    @Value("${push.queue.name}")
+    private String pushQueueName;
+
+    @Value("${voice.queue.name}")
+    private String voiceQueueName;
+
+    @Value("${webhook.queue.name}")
+    private String webhookQueueName;
+
+    @Value("${publish.queue.name}")
+    private String publishQueueName;
+
+    public BatchNotificationService(MessageProducer messageProducer,
+                                    TemplateRenderService templateRenderService,
+                                    @Qualifier("batchTaskExecutor") ThreadPoolTaskExecutor batchTaskExecutor,
+                                    NotificationPayloadFactory payloadFactory,
+                                    RateLimiterService rateLimiterService) {
+        this.messageProducer = messageProducer;
+        this.templateRenderService = templateRenderService;
+        this.batchTaskExecutor = batchTaskExecutor;
+        this.payloadFactory = payloadFactory;
+        this.rateLimiterService = rateLimiterService;
+    }
+
+    @PostConstruct
+    public void initChannels() {
+        channelQueueMap.put("email", emailQueueName);
+        channelQueueMap.put("sms", smsQueueName);
+        channelQueueMap.put("whatsapp", whatsappQueueName);
+        channelQueueMap.put("push", pushQueueName);
+        channelQueueMap.put("voice", voiceQueueName);
+        channelQueueMap.put("webhook", webhookQueueName);
+        channelQueueMap.put("queue", publishQueueName);
+    }
+
+    /**
+     * Queue backing the given batch channel, or null if the channel is unknown.
+     */
+    public String queueFor(String channel) {
+        return channel == null ? null : channelQueueMap.get(channel.toLowerCase());
+    }
+
+    /**
+     * Reads recipients from the iterator on the calling thread and submits them in chunks.
+     * The iterator may be backed by the request body (NDJSON), so it is fully drained before
+     * this returns; rendering and publishing continue in the background. If reading fails part
+     * way, everything read so far is still sent and the returned status carries the error.
+     */
+    public BatchJobStatusDTO submit(String channel,
+                                    NotificationConfig config,
+                                    TemplateEntity template,
+                                    String subjectOverride,
+                                    Map<String, Object> sharedParams,
+                                    Iterator<BatchRecipientDTO> recipients) {
+        String normalizedChannel = channel.toLowerCase();
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), normalizedChannel, queueFor(normalizedChannel));
+        jobs.put(job.jobId, job);
+
+        BatchContext context = new BatchContext(
+                job,
+                config,
+                template,
+                templateRenderService.compileContent(template),
+                templateRenderService.compileSubject(template, subjectOverride),
+                subjectOverride,
+                sharedParams);
+
+        log.info("📦 Batch job {} started for channel={}, configId={}, templateId={}",
+                job.jobId, normalizedChannel, config.getId(), template.getId());
+
+        List<BatchRecipientDTO> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (recipients.hasNext()) {
+                chunk.add(recipients.next());
+                job.accepted.incrementAndGet();
+                if (chunk.size() >= chunkSize) {
+                    List<BatchRecipientDTO> full = chunk;
+                    chunk = new ArrayList<>(chunkSize);
+                    dispatch(context, full);
+                }
+            }
+        } catch (RuntimeException e) {
+            // earlier chunks are already on their way, so report how far intake got instead of failing
+            job.error = e.getMessage();
+            log.error("❌ Batch job {}: reading recipients failed after {}, intake stopped", job.jobId, job.accepted.get(), e);
+        }
+
+        try {
+            if (!chunk.isEmpty()) {
+                dispatch(context, chunk);
+            }
+        } finally {
+            job.intakeComplete = true;
+            job.completeIfDone();
+        }
+
+        return job.toDTO();
+    }
+
+    public BatchJobStatusDTO getJobStatus(String jobId) {
+        BatchJob job = jobs.getIfPresent(jobId);
+        return job == null ? null : job.toDTO();
+    }
+
+    private void dispatch(BatchContext context, List<BatchRecipientDTO> chunk) {
+        context.job.pendingChunks.incrementAndGet();
+        batchTaskExecutor.execute(() -> {
+            try {
+                processChunk(context, chunk);
+            } finally {
+                context.job.pendingChunks.decrementAndGet();
+                context.job.completeIfDone();
+            }
+        });
+    }
+
+    private void processChunk(BatchContext context, List<BatchRecipientDTO> chunk) {
+        BatchJob job = context.job;
+        List<NotificationPayloadDTO> payloads = new ArrayList<>(chunk.size());
+
+        for (BatchRecipientDTO recipient : chunk) {
+            if (recipient == null || StringUtils.isBlank(recipient.getTo())) {
+                job.failed.incrementAndGet();
+                continue;
+            }
+            try {
+                payloads.add(buildPayload(context, recipient));
+            } catch (Exception e) {
+                job.failed.incrementAndGet();
+                log.error("❌ Batch job {}: failed to render payload for {}", job.jobId, recipient.getTo(), e);
+            }
+        }
+
+        if (payloads.isEmpty()) return;
+
+        try {
+            int permitted = rateLimiterService.acquire(job.queueName, payloads.size(), rateLimitMaxWaitMs);
+            if (permitted < payloads.size()) {
+                job.failed.addAndGet(payloads.size() - permitted);
+                log.warn("🚫 Batch job {}: rate limit for {} left {} of {} payloads unpublished",
+                        job.jobId, job.queueName, payloads.size() - permitted, payloads.size());
+                payloads = payloads.subList(0, permitted);
+                if (payloads.isEmpty()) return;
+            }
+
+            List<NotificationPayloadDTO> unsent = messageProducer.sendPayloads(job.queueName, payloads);
+            job.published.addAndGet(payloads.size() - unsent.size());
+            job.unsent.addAndGet(unsent.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.failed.addAndGet(payloads.size());
+            log.warn("⚠️ Batch job {}: interrupted waiting for rate-limit permits, {} payloads not published",
+                    job.jobId, payloads.size());
+        } catch (Exception e) {
+            job.failed.addAndGet(payloads.size());
+            log.error("❌ Batch job {}: failed to publish chunk of {} to {}", job.jobId, payloads.size(), job.queueName, e);
+        }
+    }
+
+    private NotificationPayloadDTO buildPayload(BatchContext context, BatchRecipientDTO recipient) throws IOException {
+        return payloadFactory.build(context.job.channel, context.config, context.template, context.content,
+                context.subject, context.subjectOverride, recipient.getTo(), recipient.getCc(), recipient.getBcc(),
+                mergeParams(context.sharedParams, recipient.getCustomParams()));
+    }
+
+    private Map<String, Object> mergeParams(Map<String, Object> shared, Map<String, Object> own) {
+        if (own == null || own.isEmpty()) return shared;
+        if (shared == null || shared.isEmpty()) return own;
+        Map<String, Object> merged = new HashMap<>(shared);
+        merged.putAll(own);
+        return merged;
+    }
+
+    private record BatchContext(BatchJob job,
+                                NotificationConfig config,
+                                TemplateEntity template,
+                                CompiledTemplate content,
+                                CompiledTemplate subject,
+                                String subjectOverride,
+                                Map<String, Object> sharedParams) {
+    }
+
+    private static class BatchJob {
+        private final String jobId;
+        private final String channel;
+        private final String queueName;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong unsent = new AtomicLong();
+        private final AtomicInteger pendingChunks = new AtomicInteger();
+        private volatile boolean intakeComplete;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        private BatchJob(String jobId, String channel, String queueName) {
+            this.jobId = jobId;
+            this.channel = channel;
+            this.queueName = queueName;
+        }
+
+        private synchronized void completeIfDone() {
+            if (completedAt == null && intakeComplete && pendingChunks.get() == 0) {
+                completedAt = LocalDateTime.now();
+                log.info("✅ Batch job {} completed: accepted={}, published={}, unsent={}, failed={}",
+                        jobId, accepted.get(), published.get(), unsent.get(), failed.get());
+            }
+        }
+
+        private BatchJobStatusDTO toDTO() {
+            return BatchJobStatusDTO.builder()
+                    .jobId(jobId)
+                    .channel(channel)
+                    .status(completedAt == null ? "RUNNING" : "COMPLETED")
+                    .accepted(accepted.get())
+                    .published(published.get())
+                    .unsent(unsent.get())
+                    .failed(failed.get())
+                    .error(error)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
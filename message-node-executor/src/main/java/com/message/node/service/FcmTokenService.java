@@ -1,33 +1,120 @@
 package com.message.node.service;
 
+import com.notification.common.dto.FcmTokenRequestDTO;
 import com.notification.common.model.FcmTokenEntity;
 import com.notification.common.repository.FcmTokenRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FcmTokenService {
 
     private final FcmTokenRepository tokenRepository;
+    private final MongoTemplate mongoTemplate;
 
     public String resolveFcmToken(String phone) {
        if (StringUtils.isNotBlank(phone)) {
             return tokenRepository.findByPhone(phone)
-                    .map(FcmTokenEntity::getFcmToken)
+                    .map(FcmTokenEntity::activeTokens)
+                    .filter(tokens -> !tokens.isEmpty())
+                    .map(tokens -> tokens.get(0))
                     .orElse(null);
         }
         return null;
     }
 
-    public FcmTokenEntity registerToken(FcmTokenEntity tokenEntity) {
-        return tokenRepository.save(tokenEntity);
+    /**
+     * Adds or refreshes a device token on the phone's directory entry. A device re-registering
+     * under the same deviceId replaces its previous token; the same token is never stored twice.
+     */
+    public FcmTokenEntity registerToken(FcmTokenRequestDTO request) {
+        try {
+            return upsert(request);
+        } catch (DuplicateKeyException e) {
+            // another registration created the phone's entry first; ours now updates it
+            return upsert(request);
+        }
+    }
+
+    /**
+     * @return whether the token was registered for the phone
+     */
+    public boolean unregisterToken(String phone, String fcmToken) {
+        long now = System.currentTimeMillis();
+        long pulled = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("phone").is(phone).and("devices.fcmToken").is(fcmToken)),
+                new Update().pull("devices", new Document("fcmToken", fcmToken)).set("updatedAt", now),
+                FcmTokenEntity.class).getModifiedCount();
+        long legacy = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("phone").is(phone).and("fcmToken").is(fcmToken)),
+                new Update().unset("fcmToken").set("updatedAt", now),
+                FcmTokenEntity.class).getModifiedCount();
+        return pulled + legacy > 0;
     }
 
     public Optional<FcmTokenEntity> findByPhone(String phone) {
         return tokenRepository.findByPhone(phone);
     }
+
+    /**
+     * One atomic pipeline update, so concurrent registrations for the same phone can't overwrite
+     * each other's devices: drop any device with this deviceId or token, append the new one, and
+     * clear a legacy top-level copy of the token. Creates the phone's entry when missing.
+     */
+    private FcmTokenEntity upsert(FcmTokenRequestDTO request) {
+        String deviceId = StringUtils.defaultIfBlank(request.getDeviceId(), request.getFcmToken());
+        String fcmToken = request.getFcmToken();
+        long now = System.currentTimeMillis();
+
+        Document keptDevices = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$devices", List.of())))
+                .append("as", "d")
+                .append("cond", new Document("$and", List.of(
+                        new Document("$ne", List.of("$$d.deviceId", literal(deviceId))),
+                        new Document("$ne", List.of("$$d.fcmToken", literal(fcmToken)))))));
+        Document device = new Document("deviceId", literal(deviceId))
+                .append("fcmToken", literal(fcmToken))
+                .append("updatedAt", now);
+
+        AggregationUpdate update = AggregationUpdate.update()
+                .set(SetOperation.set("devices").toValue(expression(new Document("$concatArrays", List.of(keptDevices, List.of(device))))))
+                .set(SetOperation.set("fcmToken").toValue(expression(new Document("$cond", Arrays.asList(
+                        new Document("$eq", List.of("$fcmToken", literal(fcmToken))), null, "$fcmToken")))))
+                .set(SetOperation.set("createdAt").toValue(expression(new Document("$ifNull", List.of("$createdAt", now)))))
+                .set(SetOperation.set("updatedAt").toValue(now));
+
+        FcmTokenEntity saved = mongoTemplate.update(FcmTokenEntity.class)
+                .matching(Query.query(Criteria.where("phone").is(request.getPhone())))
+                .apply(update)
+                .withOptions(FindAndModifyOptions.options().upsert(true).returnNew(true))
+                .findAndModifyValue();
+        log.info("📲 Registered FCM device {} for {} ({} device(s))", deviceId, request.getPhone(),
+                saved == null ? 1 : saved.getDevices().size());
+        return saved;
+    }
+
+    private static Document literal(String value) {
+        return new Document("$literal", value);
+    }
+
+    private static AggregationExpression expression(Document document) {
+        return context -> document;
+    }
 }
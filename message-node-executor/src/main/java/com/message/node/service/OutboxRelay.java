@@ -0,0 +1,334 @@
+package com.message.node.service;
+
+import com.message.node.producer.MessageProducer;
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.enums.OutboxStatus;
+import com.notification.common.model.OutboxMessage;
+import com.notification.common.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains {@code notification_outbox} to the broker. Each round claims up to
+ * {@code outbox.relay.batch-size} due entries, oldest first, under a lease of
+ * {@code outbox.relay.lease-ms}; several executor instances can relay side by side because
+ * the claim is a conditional update. Entries sharing a destination and routing key are sent one
+ * after another in creation order, and a failure holds back the rest of that key until the
+ * failed entry has gone out; different keys go out concurrently.
+ * <p>
+ * Sent entries are deleted. Failed ones go back to PENDING with exponential backoff
+ * ({@code outbox.relay.backoff-ms} doubling up to {@code outbox.relay.max-backoff-ms}). An entry
+ * whose lease runs out before its send is confirmed is claimed again, so delivery is
+ * at-least-once; payloads carry the outbox id as messageId for consumers to de-duplicate on.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxMessageRepository outboxRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MessageProducer messageProducer;
+
+    private final String relayId = UUID.randomUUID().toString();
+    private final BlockingQueue<Boolean> wakeups = new ArrayBlockingQueue<>(1);
+    private volatile boolean running;
+    private Thread worker;
+
+    @Value("${outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.interval-ms:500}")
+    private long intervalMs;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${outbox.relay.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${outbox.relay.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    public OutboxRelay(OutboxMessageRepository outboxRepository,
+                       MongoTemplate mongoTemplate,
+                       MessageProducer messageProducer) {
+        this.outboxRepository = outboxRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.messageProducer = messageProducer;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("📤 Outbox disabled, sends go straight to the broker");
+            return;
+        }
+        ensureIndexes();
+        running = true;
+        worker = new Thread(this::loop, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("📤 Outbox relay {} started (batch {}, lease {} ms)", relayId, batchSize, leaseMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Nudges the relay after a local write so it doesn't wait out the poll interval.
+     */
+    public void wake() {
+        wakeups.offer(Boolean.TRUE);
+    }
+
+    private void loop() {
+        while (running) {
+            int relayed = 0;
+            try {
+                relayed = relayBatch();
+            } catch (Exception e) {
+                log.error("❌ Outbox relay round failed", e);
+            }
+
+            // a full batch means there is likely more waiting; otherwise idle until poked or polled
+            if (relayed < batchSize) {
+                try {
+                    wakeups.poll(intervalMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int relayBatch() throws InterruptedException {
+        List<OutboxMessage> claimed = claim();
+        if (claimed.isEmpty()) return 0;
+
+        // per destination + key, in creation order
+        Map<String, List<OutboxMessage>> ordered = new LinkedHashMap<>();
+        for (OutboxMessage message : claimed) {
+            String key = message.getRoutingKey() == null ? message.getId() : message.getRoutingKey();
+            ordered.computeIfAbsent(message.getQueueName() + "|" + key, k -> new ArrayList<>()).add(message);
+        }
+
+        ConcurrentLinkedQueue<String> sent = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> chains = new ArrayList<>(ordered.size());
+        for (List<OutboxMessage> group : ordered.values()) {
+            chains.add(sendInOrder(group, 0, sent));
+        }
+
+        try {
+            CompletableFuture.allOf(chains.toArray(new CompletableFuture[0])).get(leaseMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // unconfirmed entries stay claimed until the lease expires, then get relayed again
+            log.warn("⚠️ Outbox batch not confirmed within lease of {} ms", leaseMs);
+        } catch (Exception e) {
+            log.error("❌ Outbox batch failed", e);
+        }
+
+        if (!sent.isEmpty()) {
+            outboxRepository.deleteAllById(new ArrayList<>(sent));
+        }
+        log.info("📤 Outbox relayed {}/{} messages", sent.size(), claimed.size());
+        return claimed.size();
+    }
+
+    private CompletableFuture<Void> sendInOrder(List<OutboxMessage> group, int index, ConcurrentLinkedQueue<String> sent) {
+        if (index >= group.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        OutboxMessage message = group.get(index);
+        return send(message).handle((result, error) -> error).thenCompose(error -> {
+            if (error == null) {
+                sent.add(message.getId());
+                return sendInOrder(group, index + 1, sent);
+            }
+            // later entries for this key must not overtake the failed one
+            for (OutboxMessage held : group.subList(index, group.size())) {
+                release(held, error);
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private CompletableFuture<Void> send(OutboxMessage message) {
+        try {
+            if (message.isPayload()) {
+                return messageProducer.trySendPayloadAsync(message.getQueueName(), message.getRoutingKey(),
+                        PayloadCodecs.json().decode(message.getBody().getBytes(StandardCharsets.UTF_8)));
+            }
+            return messageProducer.trySendMessageAsync(message.getQueueName(), message.getBody(), message.isPubSub());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Claims due entries: PENDING ones whose backoff has passed, plus IN_FLIGHT ones whose lease
+     * expired. The claim token is unique per round, so re-reading by it returns exactly what this
+     * round won even when another relay raced for the same candidates.
+     * <p>
+     * Keyed entries are only claimed while nothing older for the same key is outstanding: keys
+     * with an entry backing off or leased elsewhere are skipped, and entries that lost a race to
+     * another relay for an older entry of their key are handed straight back.
+     */
+    private List<OutboxMessage> claim() {
+        long now = System.currentTimeMillis();
+
+        List<String> blockedKeys = mongoTemplate.findDistinct(
+                new Query(new Criteria().andOperator(Criteria.where("orderKey").ne(null), notDue(now))),
+                "orderKey", OutboxMessage.class, String.class);
+
+        Criteria claimable = blockedKeys.isEmpty() ? due(now)
+                : new Criteria().andOperator(due(now), Criteria.where("orderKey").nin(blockedKeys));
+        Query candidates = new Query(claimable)
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, OutboxMessage.class).stream()
+                .map(OutboxMessage::getId)
+                .toList();
+        if (ids.isEmpty()) return List.of();
+
+        String claimToken = relayId + ":" + UUID.randomUUID();
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), due(now))),
+                new Update()
+                        .set("status", OutboxStatus.IN_FLIGHT)
+                        .set("claimedBy", claimToken)
+                        .set("claimedUntil", now + leaseMs),
+                OutboxMessage.class);
+
+        List<OutboxMessage> claimed = outboxRepository.findByIdInAndClaimedByOrderByCreatedAtAsc(ids, claimToken);
+        return dropOvertaking(claimed, claimToken);
+    }
+
+    /**
+     * Hands back claimed keyed entries that have an older entry for the same key outside this
+     * claim, e.g. one another relay claimed between our candidate read and our update.
+     */
+    private List<OutboxMessage> dropOvertaking(List<OutboxMessage> claimed, String claimToken) {
+        Set<String> keys = new HashSet<>();
+        long newest = 0;
+        for (OutboxMessage message : claimed) {
+            if (message.getOrderKey() != null) {
+                keys.add(message.getOrderKey());
+                newest = Math.max(newest, message.getCreatedAt());
+            }
+        }
+        if (keys.isEmpty()) return claimed;
+
+        Query others = Query.query(Criteria.where("orderKey").in(keys)
+                .and("claimedBy").ne(claimToken)
+                .and("createdAt").lte(newest));
+        others.fields().include("orderKey").include("createdAt");
+        Map<String, Long> oldestElsewhere = new HashMap<>();
+        for (OutboxMessage other : mongoTemplate.find(others, OutboxMessage.class)) {
+            oldestElsewhere.merge(other.getOrderKey(), other.getCreatedAt(), Math::min);
+        }
+        if (oldestElsewhere.isEmpty()) return claimed;
+
+        List<OutboxMessage> kept = new ArrayList<>(claimed.size());
+        List<String> handedBack = new ArrayList<>();
+        for (OutboxMessage message : claimed) {
+            Long older = message.getOrderKey() == null ? null : oldestElsewhere.get(message.getOrderKey());
+            if (older != null && older <= message.getCreatedAt()) {
+                handedBack.add(message.getId());
+            } else {
+                kept.add(message);
+            }
+        }
+        if (!handedBack.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(handedBack).and("claimedBy").is(claimToken)),
+                    new Update().set("status", OutboxStatus.PENDING).unset("claimedBy").set("claimedUntil", 0L),
+                    OutboxMessage.class);
+            log.debug("📤 Outbox handed back {} entries queued behind an older entry of their key", handedBack.size());
+        }
+        return kept;
+    }
+
+    private Criteria due(long now) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(OutboxStatus.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(OutboxStatus.IN_FLIGHT).and("claimedUntil").lt(now));
+    }
+
+    // backing off, or leased to a relay that may still be sending it
+    private Criteria notDue(long now) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(OutboxStatus.PENDING).and("nextAttemptAt").gt(now),
+                Criteria.where("status").is(OutboxStatus.IN_FLIGHT).and("claimedUntil").gte(now));
+    }
+
+    private void release(OutboxMessage message, Throwable error) {
+        int attempts = message.getAttempts() + 1;
+        long delay = Math.min(maxBackoffMs, backoffMs << Math.min(attempts - 1, 20));
+        String reason = error.getCause() != null ? error.getCause().getMessage() : error.getMessage();
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(message.getId()).and("claimedBy").is(message.getClaimedBy())),
+                new Update()
+                        .set("status", OutboxStatus.PENDING)
+                        .unset("claimedBy")
+                        .set("attempts", attempts)
+                        .set("nextAttemptAt", System.currentTimeMillis() + delay)
+                        .set("lastError", reason),
+                OutboxMessage.class);
+        log.warn("⚠️ Outbox message {} to {} failed (attempt {}), retrying in {} ms: {}",
+                message.getId(), message.getQueueName(), attempts, delay, reason);
+    }
+
+    private void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(OutboxMessage.class)
+                    .ensureIndex(new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC)
+                            .named("status_nextAttemptAt"));
+            mongoTemplate.indexOps(OutboxMessage.class)
+                    .ensureIndex(new Index().on("createdAt", Sort.Direction.ASC).named("createdAt"));
+            mongoTemplate.indexOps(OutboxMessage.class)
+                    .ensureIndex(new Index().on("orderKey", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC)
+                            .sparse().named("orderKey_createdAt"));
+        } catch (Exception e) {
+            log.warn("⚠️ Could not create notification_outbox indexes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.message.node.service;
+
+import com.message.node.producer.MessageProducer;
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.model.OutboxMessage;
+import com.notification.common.repository.OutboxMessageRepository;
+import com.notification.common.service.routing.RoutingKeyResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Request-path side of the outbox: a send is accepted once it is written to
+ * {@code notification_outbox}, whatever the broker is doing. {@link OutboxRelay} hands it to
+ * Kafka / Artemis afterwards. With {@code outbox.enabled=false} sends go straight to the
+ * producer as before.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxMessageRepository outboxRepository;
+    private final MessageProducer messageProducer;
+    private final RoutingKeyResolver routingKeyResolver;
+    private final OutboxRelay relay;
+
+    @Value("${outbox.enabled:true}")
+    private boolean enabled;
+
+    public OutboxService(OutboxMessageRepository outboxRepository,
+                         MessageProducer messageProducer,
+                         RoutingKeyResolver routingKeyResolver,
+                         OutboxRelay relay) {
+        this.outboxRepository = outboxRepository;
+        this.messageProducer = messageProducer;
+        this.routingKeyResolver = routingKeyResolver;
+        this.relay = relay;
+    }
+
+    /**
+     * Stores a channel payload for delivery. The outbox id becomes the payload's messageId,
+     * so a payload relayed twice (lease expired mid-send) carries the same id both times.
+     */
+    public void submit(String queueName, NotificationPayloadDTO payload) {
+        if (!enabled) {
+            messageProducer.sendPayloadAsync(queueName, payload);
+            return;
+        }
+
+        String id = UUID.randomUUID().toString();
+        payload.setMessageId(id);
+        String routingKey = routingKeyResolver.keyFor(queueName, payload);
+        append(OutboxMessage.builder()
+                .id(id)
+                .queueName(queueName)
+                .routingKey(routingKey)
+                .orderKey(routingKey == null ? null : queueName + "|" + routingKey)
+                .body(new String(PayloadCodecs.json().encode(payload), StandardCharsets.UTF_8))
+                .payload(true));
+    }
+
+    /**
+     * Stores a plain text message (cache evictions) for delivery.
+     */
+    public void submitMessage(String queueName, String message, boolean isPubSub) {
+        if (!enabled) {
+            messageProducer.sendMessage(queueName, message, isPubSub);
+            return;
+        }
+
+        append(OutboxMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .queueName(queueName)
+                .body(message)
+                .pubSub(isPubSub));
+    }
+
+    private void append(OutboxMessage.OutboxMessageBuilder builder) {
+        long now = System.currentTimeMillis();
+        OutboxMessage message = outboxRepository.insert(builder.createdAt(now).nextAttemptAt(now).build());
+        log.debug("📥 Outbox accepted {} for {}", message.getId(), message.getQueueName());
+        relay.wake();
+    }
+}
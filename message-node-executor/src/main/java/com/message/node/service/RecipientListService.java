@@ -0,0 +1,114 @@
+package com.message.node.service;
+
+import com.notification.common.dto.BatchRecipientDTO;
+import com.notification.common.dto.RecipientListDTO;
+import com.notification.common.model.RecipientListEntry;
+import com.notification.common.repository.RecipientListEntryRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stores recipient lists (segments) that scheduled jobs can target by id. Recipients are read
+ * from the iterator and inserted in chunks of {@code batch.chunk.size}, so a streamed upload is
+ * never held in memory as a whole.
+ */
+@Service
+public class RecipientListService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipientListService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final RecipientListEntryRepository repository;
+
+    @Value("${batch.chunk.size:500}")
+    private int chunkSize;
+
+    public RecipientListService(MongoTemplate mongoTemplate, RecipientListEntryRepository repository) {
+        this.mongoTemplate = mongoTemplate;
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            mongoTemplate.indexOps(RecipientListEntry.class)
+                    .ensureIndex(new Index().on("listId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("listId_id"));
+        } catch (Exception e) {
+            log.warn("⚠️ Could not create recipient list index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the recipients to {@code listId}, or to a new list when it is null. If reading fails
+     * part way, the recipients read so far stay stored and the result carries the error.
+     */
+    public RecipientListDTO append(String listId, Iterator<BatchRecipientDTO> recipients) {
+        String targetList = listId != null ? listId : new ObjectId().toHexString();
+        long added = 0;
+        long skipped = 0;
+
+        String error = null;
+
+        List<RecipientListEntry> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (recipients.hasNext()) {
+                BatchRecipientDTO recipient = recipients.next();
+                if (recipient == null || StringUtils.isBlank(recipient.getTo())) {
+                    skipped++;
+                    continue;
+                }
+                chunk.add(RecipientListEntry.builder()
+                        .listId(targetList)
+                        .to(recipient.getTo())
+                        .cc(recipient.getCc())
+                        .bcc(recipient.getBcc())
+                        .customParams(recipient.getCustomParams())
+                        .build());
+                if (chunk.size() >= chunkSize) {
+                    mongoTemplate.insert(chunk, RecipientListEntry.class);
+                    added += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (RuntimeException e) {
+            // earlier chunks are already stored; report them so the client resumes instead of re-sending
+            error = e.getMessage();
+            log.error("❌ Recipient list {}: reading recipients failed after {}, upload stopped", targetList, added + chunk.size(), e);
+        }
+        if (!chunk.isEmpty()) {
+            mongoTemplate.insert(chunk, RecipientListEntry.class);
+            added += chunk.size();
+        }
+
+        long total = repository.countByListId(targetList);
+        log.info("📋 Recipient list {}: {} added, {} skipped, {} total", targetList, added, skipped, total);
+        return RecipientListDTO.builder()
+                .listId(targetList)
+                .added(added)
+                .skipped(skipped)
+                .total(total)
+                .error(error)
+                .build();
+    }
+
+    public boolean exists(String listId) {
+        return repository.countByListId(listId) > 0;
+    }
+
+    public void delete(String listId) {
+        repository.deleteByListId(listId);
+        log.info("🗑️ Recipient list {} deleted", listId);
+    }
+}
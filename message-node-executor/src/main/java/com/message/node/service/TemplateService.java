@@ -44,6 +44,7 @@ public class TemplateService {
         }
 
         template.setCreatedAt(LocalDateTime.now());
+        template.setVersion(1L);
         log.info("Saving new template with name={}", template.getTemplateName());
         return repository.save(template);
     }
@@ -100,6 +101,7 @@ public class TemplateService {
         updated.setId(templateId);
         updated.setCreatedAt(existing.getCreatedAt()); // preserve original creation time
         updated.setUpdatedAt(LocalDateTime.now());     // update modified time
+        updated.setVersion(existing.getVersion() == null ? 2L : existing.getVersion() + 1);
         log.info("Updating template with id={}, name={}", templateId, updated.getTemplateName());
         return repository.save(updated);
     }
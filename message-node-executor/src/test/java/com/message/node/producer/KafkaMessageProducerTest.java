@@ -0,0 +1,134 @@
+package com.message.node.producer;
+
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.model.UnsentMessage;
+import com.notification.common.repository.UnsentMessageRepository;
+import com.notification.common.service.routing.RoutingKeyResolver;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KafkaMessageProducerTest {
+
+    private static final int MESSAGES = 20;
+    private static final int ATTEMPTS = 3;
+
+    private final UnsentMessageRepository unsentRepo = mock(UnsentMessageRepository.class);
+    private KafkaMessageProducer producer;
+
+    @AfterEach
+    void tearDown() {
+        if (producer != null) producer.close();
+    }
+
+    /**
+     * Broker down and Mongo stalled: every unsent write blocks, yet every send still gets all of
+     * its retry attempts, because retries are scheduled on their own pool.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void retriesKeepRunningWhileUnsentWritesAreBlocked() throws Exception {
+        producer = newProducer(MESSAGES);
+
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch allAttempts = new CountDownLatch(MESSAGES * ATTEMPTS);
+        KafkaTemplate<String, byte[]> brokerDown = mock(KafkaTemplate.class);
+        when(brokerDown.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            attempts.incrementAndGet();
+            allAttempts.countDown();
+            return CompletableFuture.failedFuture(new TimeoutException("broker unavailable"));
+        });
+        ReflectionTestUtils.setField(producer, "payloadTemplate", brokerDown);
+
+        CountDownLatch mongoBack = new CountDownLatch(1);
+        when(unsentRepo.save(any(UnsentMessage.class))).thenAnswer(invocation -> {
+            mongoBack.await();
+            return invocation.getArgument(0);
+        });
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            sends.add(producer.sendPayloadAsync("sms-queue", null, payload(i)));
+        }
+
+        assertTrue(allAttempts.await(10, TimeUnit.SECONDS),
+                "retries starved behind blocked unsent writes: " + attempts.get() + " of " + MESSAGES * ATTEMPTS + " attempts");
+        assertFalse(sends.stream().allMatch(CompletableFuture::isDone), "sends completed before their fallback was stored");
+
+        mongoBack.countDown();
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        verify(unsentRepo, times(MESSAGES)).save(any(UnsentMessage.class));
+        assertEquals(MESSAGES * ATTEMPTS, attempts.get());
+    }
+
+    /**
+     * With the unsent queue full, the overflow is written by the completing thread rather than dropped.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullUnsentQueueWritesOnTheCallerInsteadOfDropping() throws Exception {
+        producer = newProducer(1);
+
+        KafkaTemplate<String, byte[]> brokerDown = mock(KafkaTemplate.class);
+        when(brokerDown.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker unavailable")));
+        ReflectionTestUtils.setField(producer, "payloadTemplate", brokerDown);
+        when(unsentRepo.save(any(UnsentMessage.class))).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return invocation.getArgument(0);
+        });
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            sends.add(producer.sendPayloadAsync("sms-queue", null, payload(i)));
+        }
+
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        verify(unsentRepo, times(MESSAGES)).save(any(UnsentMessage.class));
+    }
+
+    private KafkaMessageProducer newProducer(int unsentQueueCapacity) {
+        RetryRegistry retries = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(ATTEMPTS)
+                .waitDuration(Duration.ofMillis(20))
+                .build());
+        // keep the breaker closed so every attempt reaches the (failing) broker
+        CircuitBreakerRegistry breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .minimumNumberOfCalls(10_000)
+                .build());
+        return new KafkaMessageProducer(mock(KafkaTemplate.class), new KafkaProperties(), retries, breakers,
+                unsentRepo, mock(RoutingKeyResolver.class), "json", 10_000, 5_000,
+                2, 1, unsentQueueCapacity);
+    }
+
+    private static NotificationPayloadDTO payload(int i) {
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setTo("+1555000" + String.format("%04d", i));
+        return payload;
+    }
+}
@@ -0,0 +1,126 @@
+package com.message.node.service;
+
+import com.message.node.producer.MessageProducer;
+import com.message.node.rate.limiter.RateLimiterService;
+import com.notification.common.dto.BatchJobStatusDTO;
+import com.notification.common.dto.BatchRecipientDTO;
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.enums.PayloadMode;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.service.payload.NotificationPayloadFactory;
+import com.notification.common.service.template.TemplateRenderService;
+import com.notification.common.service.upload.HtmlCdnUploader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchNotificationServiceTest {
+
+    private static final String QUEUE = "sms-queue";
+
+    private final MessageProducer messageProducer = mock(MessageProducer.class);
+    private final RateLimiterService rateLimiterService = mock(RateLimiterService.class);
+    private final ThreadPoolTaskExecutor batchTaskExecutor = new ThreadPoolTaskExecutor();
+    private BatchNotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        batchTaskExecutor.setCorePoolSize(2);
+        batchTaskExecutor.initialize();
+
+        NotificationPayloadFactory payloadFactory = new NotificationPayloadFactory(mock(HtmlCdnUploader.class));
+        ReflectionTestUtils.setField(payloadFactory, "payloadMode", PayloadMode.SNAPSHOT);
+        ReflectionTestUtils.setField(payloadFactory, "maxInlineKb", 100);
+
+        service = new BatchNotificationService(messageProducer, new TemplateRenderService(), batchTaskExecutor,
+                payloadFactory, rateLimiterService);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "rateLimitMaxWaitMs", 0L);
+        ReflectionTestUtils.setField(service, "smsQueueName", QUEUE);
+        service.initChannels();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchTaskExecutor.shutdown();
+    }
+
+    @Test
+    void takesOnePermitPerPayloadForEachChunk() throws Exception {
+        when(rateLimiterService.acquire(eq(QUEUE), anyInt(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(messageProducer.sendPayloads(eq(QUEUE), anyList())).thenReturn(List.of());
+
+        BatchJobStatusDTO status = run(5);
+
+        verify(rateLimiterService, times(2)).acquire(QUEUE, 2, 0L);
+        verify(rateLimiterService).acquire(QUEUE, 1, 0L);
+        assertEquals(5, status.getPublished());
+        assertEquals(0, status.getFailed());
+    }
+
+    @Test
+    void payloadsWithoutAPermitAreFailedNotPublished() throws Exception {
+        when(rateLimiterService.acquire(eq(QUEUE), anyInt(), anyLong())).thenReturn(1);
+        when(messageProducer.sendPayloads(eq(QUEUE), anyList())).thenReturn(List.of());
+
+        BatchJobStatusDTO status = run(4);
+
+        assertEquals(2, status.getPublished());
+        assertEquals(2, status.getFailed());
+    }
+
+    @Test
+    void unsentPayloadsAreCountedSeparately() throws Exception {
+        when(rateLimiterService.acquire(eq(QUEUE), anyInt(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(messageProducer.sendPayloads(eq(QUEUE), anyList())).thenAnswer(invocation -> {
+            List<NotificationPayloadDTO> chunk = invocation.getArgument(1);
+            return List.of(chunk.get(0));
+        });
+
+        BatchJobStatusDTO status = run(4);
+
+        assertEquals(2, status.getPublished());
+        assertEquals(2, status.getUnsent());
+        assertEquals(0, status.getFailed());
+    }
+
+    private BatchJobStatusDTO run(int recipients) throws InterruptedException {
+        NotificationConfig config = new NotificationConfig();
+        config.setId("config-1");
+        TemplateEntity template = new TemplateEntity();
+        template.setId("template-1");
+        template.setContent("Your code is {{code}}");
+
+        List<BatchRecipientDTO> list = new ArrayList<>();
+        IntStream.range(0, recipients).forEach(i -> {
+            BatchRecipientDTO recipient = new BatchRecipientDTO();
+            recipient.setTo("+1555000000" + i);
+            list.add(recipient);
+        });
+
+        String jobId = service.submit("sms", config, template, null, null, list.iterator()).getJobId();
+        for (int i = 0; i < 500; i++) {
+            BatchJobStatusDTO status = service.getJobStatus(jobId);
+            if ("COMPLETED".equals(status.getStatus())) return status;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("batch job did not complete");
+    }
+}
@@ -0,0 +1,204 @@
+package com.message.node.service;
+
+import com.message.node.producer.MessageProducer;
+import com.notification.common.enums.OutboxStatus;
+import com.notification.common.model.OutboxMessage;
+import com.notification.common.repository.OutboxMessageRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final String QUEUE = "sms-queue";
+
+    private final OutboxMessageRepository outboxRepository = mock(OutboxMessageRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final MessageProducer messageProducer = mock(MessageProducer.class);
+    private final OutboxRelay relay = new OutboxRelay(outboxRepository, mongoTemplate, messageProducer);
+
+    // what the store holds for the round: due candidates, and entries of the same keys claimed elsewhere
+    private final List<OutboxMessage> due = new ArrayList<>();
+    private final List<OutboxMessage> claimedElsewhere = new ArrayList<>();
+    private final Map<String, CompletableFuture<Void>> sends = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "leaseMs", 5_000L);
+        ReflectionTestUtils.setField(relay, "backoffMs", 1_000L);
+        ReflectionTestUtils.setField(relay, "maxBackoffMs", 300_000L);
+
+        when(mongoTemplate.findDistinct(any(Query.class), eq("orderKey"), eq(OutboxMessage.class), eq(String.class)))
+                .thenReturn(List.of());
+        when(mongoTemplate.find(any(Query.class), eq(OutboxMessage.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            return query.getQueryObject().containsKey("claimedBy") ? claimedElsewhere : due;
+        });
+        when(outboxRepository.findByIdInAndClaimedByOrderByCreatedAtAsc(anyCollection(), anyString())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            String claimToken = invocation.getArgument(1);
+            return due.stream().filter(message -> ids.contains(message.getId()))
+                    .peek(message -> message.setClaimedBy(claimToken))
+                    .toList();
+        });
+        when(messageProducer.trySendMessageAsync(eq(QUEUE), anyString(), anyBoolean())).thenAnswer(invocation ->
+                sends.getOrDefault(invocation.<String>getArgument(1), CompletableFuture.completedFuture(null)));
+    }
+
+    @Test
+    void claimsDueEntriesUnderAUniqueTokenAndDeletesWhatWasSent() {
+        due.add(entry("m1", null, 100));
+        due.add(entry("m2", null, 200));
+
+        assertEquals(2, relayBatch());
+
+        ArgumentCaptor<Update> claim = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), claim.capture(), eq(OutboxMessage.class));
+        Document set = (Document) claim.getValue().getUpdateObject().get("$set");
+        assertEquals(OutboxStatus.IN_FLIGHT, set.get("status"));
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(outboxRepository).findByIdInAndClaimedByOrderByCreatedAtAsc(eq(List.of("m1", "m2")), token.capture());
+        assertEquals(set.get("claimedBy"), token.getValue());
+        assertEquals(Set.of("m1", "m2"), deleted());
+    }
+
+    @Test
+    void keysWithAnOutstandingEntryAreNotClaimed() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("orderKey"), eq(OutboxMessage.class), eq(String.class)))
+                .thenReturn(List.of(QUEUE + "|A"));
+
+        relayBatch();
+
+        ArgumentCaptor<Query> candidates = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(candidates.capture(), eq(OutboxMessage.class));
+        assertTrue(candidates.getValue().getQueryObject().toString().contains("$nin=[" + QUEUE + "|A]"),
+                candidates.getValue().getQueryObject().toString());
+    }
+
+    @Test
+    void failedEntryHoldsBackTheRestOfItsKey() {
+        due.add(entry("a1", "A", 100));
+        due.add(entry("b1", "B", 150));
+        due.add(entry("a2", "A", 200));
+        sends.put("a1", CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        relayBatch();
+
+        verify(messageProducer, never()).trySendMessageAsync(QUEUE, "a2", false);
+        ArgumentCaptor<Query> released = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateFirst(released.capture(), any(Update.class), eq(OutboxMessage.class));
+        assertEquals(List.of("a1", "a2"), released.getAllValues().stream()
+                .map(query -> query.getQueryObject().getString("_id")).toList());
+        assertEquals(Set.of("b1"), deleted());
+    }
+
+    @Test
+    void sameKeyWaitsForThePreviousSendWhileOtherKeysGoAhead() throws Exception {
+        due.add(entry("a1", "A", 100));
+        due.add(entry("a2", "A", 200));
+        due.add(entry("b1", "B", 300));
+        CompletableFuture<Void> a1 = new CompletableFuture<>();
+        sends.put("a1", a1);
+
+        CompletableFuture<Integer> round = CompletableFuture.supplyAsync(this::relayBatch);
+
+        verify(messageProducer, after(200).never()).trySendMessageAsync(QUEUE, "a2", false);
+        verify(messageProducer).trySendMessageAsync(QUEUE, "b1", false);
+
+        a1.complete(null);
+        round.get(5, TimeUnit.SECONDS);
+        verify(messageProducer).trySendMessageAsync(QUEUE, "a2", false);
+        assertEquals(Set.of("a1", "a2", "b1"), deleted());
+    }
+
+    @Test
+    void entryQueuedBehindAnOlderOneClaimedElsewhereIsHandedBack() {
+        due.add(entry("a2", "A", 200));
+        due.add(entry("b1", "B", 250));
+        claimedElsewhere.add(entry("a1", "A", 100));
+
+        relayBatch();
+
+        verify(messageProducer, never()).trySendMessageAsync(QUEUE, "a2", false);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), updates.capture(), eq(OutboxMessage.class));
+        Document handBack = (Document) updates.getAllValues().get(1).getUpdateObject().get("$set");
+        assertEquals(OutboxStatus.PENDING, handBack.get("status"));
+        assertEquals(Set.of("b1"), deleted());
+    }
+
+    @Test
+    void failedEntryBacksOffExponentially() {
+        OutboxMessage message = entry("m1", null, 100);
+        message.setAttempts(2);
+        due.add(message);
+        sends.put("m1", CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        long before = System.currentTimeMillis();
+        relayBatch();
+
+        ArgumentCaptor<Update> release = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), release.capture(), eq(OutboxMessage.class));
+        Document set = (Document) release.getValue().getUpdateObject().get("$set");
+        assertEquals(3, set.get("attempts"));
+        long delay = (long) set.get("nextAttemptAt") - before;
+        assertTrue(delay >= 4_000 && delay < 5_000, "third attempt should back off 4 s, was " + delay);
+        verify(outboxRepository, never()).deleteAllById(any());
+    }
+
+    private int relayBatch() {
+        Integer relayed = ReflectionTestUtils.invokeMethod(relay, "relayBatch");
+        return relayed == null ? 0 : relayed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> deleted() {
+        ArgumentCaptor<Iterable<String>> ids = ArgumentCaptor.forClass(Iterable.class);
+        verify(outboxRepository).deleteAllById(ids.capture());
+        Set<String> deleted = new HashSet<>();
+        ids.getValue().forEach(deleted::add);
+        return deleted;
+    }
+
+    private static OutboxMessage entry(String id, String routingKey, long createdAt) {
+        return OutboxMessage.builder()
+                .id(id)
+                .queueName(QUEUE)
+                .routingKey(routingKey)
+                .orderKey(routingKey == null ? null : QUEUE + "|" + routingKey)
+                .body(id)
+                .createdAt(createdAt)
+                .build();
+    }
+}
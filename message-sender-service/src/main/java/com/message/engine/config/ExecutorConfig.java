@@ -1,13 +1,49 @@
 package com.message.engine.config;
 
+import com.message.engine.manager.ListenerBackpressureManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One bulkhead executor per channel, so a slow provider on one channel (a hanging webhook,
+ * a slow voice API) can't starve the others. Each channel reads {@code executor.<channel>.*}
+ * and falls back to the shared {@code executor.*} values. Pool sizes can be changed at runtime
+ * through the {@code executors} actuator endpoint.
+ * <p>
+ * {@code executor.mode=virtual} gives every task its own virtual thread
+ * ({@code Executors.newVirtualThreadPerTaskExecutor}, looked up reflectively because the build
+ * targets Java 17). There is no pool or queue to size: concurrent provider calls are bounded by
+ * {@link com.message.engine.manager.ProviderConcurrencyLimiter} alone, and listener backpressure
+ * still counts in-flight tasks. On a JVM without virtual threads it falls back to the platform pool.
+ */
 @Configuration
 public class ExecutorConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    // Executors.newVirtualThreadPerTaskExecutor(), or null before JDK 21
+    private static final Method NEW_VIRTUAL_EXECUTOR = virtualExecutorFactory();
+
     @Value("${executor.core-pool-size:10}")
     private int corePoolSize;
 
@@ -17,18 +53,135 @@ public class ExecutorConfig {
     @Value("${executor.queue-capacity:1000}")
     private int queueCapacity;
 
-    @Value("${executor.thread-name-prefix:email-worker-}")
-    private String threadNamePrefix;
+    @Value("${executor.rejection-policy:caller-runs}")
+    private String rejectionPolicy;
+
+    // platform | virtual
+    @Value("${executor.mode:platform}")
+    private String executorMode;
+
+    private final Environment environment;
+    private final ListenerBackpressureManager backpressureManager;
+    private final MeterRegistry meterRegistry;
+
+    private final List<ExecutorService> virtualExecutors = new CopyOnWriteArrayList<>();
+
+    public ExecutorConfig(Environment environment,
+                          ListenerBackpressureManager backpressureManager,
+                          MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.backpressureManager = backpressureManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public AsyncTaskExecutor emailTaskExecutor(@Value("${email.queue.name}") String queueName) {
+        return channelExecutor("email", queueName);
+    }
+
+    @Bean
+    public AsyncTaskExecutor smsTaskExecutor(@Value("${sms.queue.name}") String queueName) {
+        return channelExecutor("sms", queueName);
+    }
+
+    @Bean
+    public AsyncTaskExecutor whatsappTaskExecutor(@Value("${whatsapp.queue.name}") String queueName) {
+        return channelExecutor("whatsapp", queueName);
+    }
+
+    @Bean
+    public AsyncTaskExecutor pushTaskExecutor(@Value("${push.queue.name}") String queueName) {
+        return channelExecutor("push", queueName);
+    }
+
+    @Bean
+    public AsyncTaskExecutor voiceTaskExecutor(@Value("${voice.queue.name}") String queueName) {
+        return channelExecutor("voice", queueName);
+    }
+
+    @Bean
+    public AsyncTaskExecutor webhookTaskExecutor(@Value("${webhook.queue.name}") String queueName) {
+        return channelExecutor("webhook", queueName);
+    }
+
+    @Bean
+    public AsyncTaskExecutor queueTaskExecutor(@Value("${publish.queue.name}") String queueName) {
+        return channelExecutor("queue", queueName);
+    }
+
+    private AsyncTaskExecutor channelExecutor(String channel, String queueName) {
+        if ("virtual".equalsIgnoreCase(executorMode)) {
+            if (NEW_VIRTUAL_EXECUTOR != null) {
+                return virtualExecutor(channel, queueName);
+            }
+            log.warn("⚠️ executor.mode=virtual needs JDK 21+, {} executor falls back to platform threads", channel);
+        }
+        return platformExecutor(channel, queueName);
+    }
+
+    private ThreadPoolTaskExecutor platformExecutor(String channel, String queueName) {
+        String prefix = "executor." + channel + ".";
 
-    @Bean(name = "taskExecutor")
-    public ThreadPoolTaskExecutor emailTaskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(corePoolSize);
-        executor.setMaxPoolSize(maxPoolSize);
-        executor.setQueueCapacity(queueCapacity);
-        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(environment.getProperty(prefix + "core-pool-size", Integer.class, corePoolSize));
+        executor.setMaxPoolSize(environment.getProperty(prefix + "max-pool-size", Integer.class, maxPoolSize));
+        executor.setQueueCapacity(environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity));
+        executor.setThreadNamePrefix(channel + "-worker-");
+        executor.setTaskDecorator(backpressureManager.forChannel(channel, queueName, executor::getMaxPoolSize));
+        executor.setRejectedExecutionHandler(backpressureManager.releasingCredits(
+                rejectionHandler(environment.getProperty(prefix + "rejection-policy", rejectionPolicy))));
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.initialize();
+
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), channel + "TaskExecutor", Tags.of("channel", channel))
+                .bindTo(meterRegistry);
+        return executor;
+    }
+
+    private AsyncTaskExecutor virtualExecutor(String channel, String queueName) {
+        ExecutorService threads;
+        try {
+            threads = (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread executor for " + channel, e);
+        }
+        virtualExecutors.add(threads);
+
+        TaskExecutorAdapter executor = new TaskExecutorAdapter(ExecutorServiceMetrics.monitor(
+                meterRegistry, threads, channel + "TaskExecutor", Tags.of("channel", channel)));
+        // no pool to size from; provider permits are what the tasks end up waiting on
+        int providerLimit = environment.getProperty("provider.concurrency.default", Integer.class, 50);
+        executor.setTaskDecorator(backpressureManager.forChannel(channel, queueName, () -> providerLimit));
+        log.info("🧵 {} executor running one virtual thread per task", channel);
         return executor;
     }
+
+    @PreDestroy
+    public void shutdownVirtualExecutors() throws InterruptedException {
+        // same contract as the platform pools' waitForTasksToCompleteOnShutdown
+        virtualExecutors.forEach(ExecutorService::shutdown);
+        for (ExecutorService threads : virtualExecutors) {
+            if (!threads.awaitTermination(30, TimeUnit.SECONDS)) {
+                threads.shutdownNow();
+            }
+        }
+    }
+
+    private static Method virtualExecutorFactory() {
+        if (Runtime.version().feature() < 21) return null;
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private RejectedExecutionHandler rejectionHandler(String policy) {
+        // no discard policies: a silently dropped task would never release its Kafka batch or JMS ack
+        if ("abort".equalsIgnoreCase(policy)) {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+        // listeners are paused before the queue fills; if it still does, slow the caller down instead of dropping
+        return new ThreadPoolExecutor.CallerRunsPolicy();
+    }
 }
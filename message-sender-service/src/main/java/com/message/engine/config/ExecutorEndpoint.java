@@ -0,0 +1,96 @@
+package com.message.engine.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/executors}: inspect the per-channel executors and resize them at runtime,
+ * e.g. {@code POST /actuator/executors/voice {"corePoolSize": 4, "maxPoolSize": 8}}.
+ * Queue capacity is fixed at startup. With {@code executor.mode=virtual} there is no pool to
+ * resize; those executors only report their mode.
+ */
+@Component
+@Endpoint(id = "executors")
+public class ExecutorEndpoint {
+
+    private static final String SUFFIX = "TaskExecutor";
+
+    private final Map<String, AsyncTaskExecutor> executors;
+
+    public ExecutorEndpoint(Map<String, AsyncTaskExecutor> executors) {
+        this.executors = executors;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> executors() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        executors.forEach((name, executor) -> {
+            if (name.endsWith(SUFFIX)) {
+                result.put(name.substring(0, name.length() - SUFFIX.length()), describe(executor));
+            }
+        });
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> executor(@Selector String channel) {
+        AsyncTaskExecutor executor = executors.get(channel + SUFFIX);
+        return executor == null ? null : describe(executor);
+    }
+
+    @WriteOperation
+    public Map<String, Object> resize(@Selector String channel,
+                                      @Nullable Integer corePoolSize,
+                                      @Nullable Integer maxPoolSize) {
+        AsyncTaskExecutor found = executors.get(channel + SUFFIX);
+        if (found == null) {
+            throw new IllegalArgumentException("Unknown channel executor: " + channel);
+        }
+        if (!(found instanceof ThreadPoolTaskExecutor executor)) {
+            throw new IllegalArgumentException("The " + channel + " executor runs on virtual threads and has no pool size");
+        }
+
+        synchronized (executor) {
+            int core = corePoolSize != null ? corePoolSize : executor.getCorePoolSize();
+            int max = maxPoolSize != null ? maxPoolSize : executor.getMaxPoolSize();
+            if (core < 1 || max < core) {
+                throw new IllegalArgumentException("Require 1 <= corePoolSize <= maxPoolSize, got " + core + "/" + max);
+            }
+            // ThreadPoolExecutor rejects max < core at every step, so order the two updates
+            if (max >= executor.getCorePoolSize()) {
+                executor.setMaxPoolSize(max);
+                executor.setCorePoolSize(core);
+            } else {
+                executor.setCorePoolSize(core);
+                executor.setMaxPoolSize(max);
+            }
+        }
+        return describe(executor);
+    }
+
+    private Map<String, Object> describe(AsyncTaskExecutor found) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        if (!(found instanceof ThreadPoolTaskExecutor executor)) {
+            info.put("mode", "virtual");
+            return info;
+        }
+        info.put("mode", "platform");
+        info.put("corePoolSize", executor.getCorePoolSize());
+        info.put("maxPoolSize", executor.getMaxPoolSize());
+        info.put("poolSize", executor.getPoolSize());
+        info.put("active", executor.getActiveCount());
+        info.put("queued", executor.getQueueSize());
+        info.put("queueCapacity", executor.getQueueCapacity());
+        return info;
+    }
+}
@@ -0,0 +1,42 @@
+package com.message.engine.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Map;
+
+@Configuration
+@ConditionalOnExpression("'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'")
+public class KafkaConsumerConfig {
+
+    /**
+     * Channel payloads may be binary (see payload-codec header), so channel listeners read raw bytes.
+     * The consumer factory is built inline to leave Boot's default String factory in place for
+     * the eviction listeners.
+     * <p>
+     * Channel listeners receive whole polled batches and acknowledge manually once every send in
+     * the batch has a final outcome, so a crash replays in-flight work instead of losing it.
+     * max.poll.records and concurrency are set per listener (kafka.listener.&lt;channel&gt;.*).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> payloadKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties(null);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(
+                props, new StringDeserializer(), new ByteArrayDeserializer()));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
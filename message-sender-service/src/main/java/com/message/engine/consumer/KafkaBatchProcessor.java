@@ -0,0 +1,136 @@
+package com.message.engine.consumer;
+
+import com.message.engine.service.NotificationPayloadReader;
+import com.notification.common.dto.NotificationPayloadDTO;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Shared handling for the batch Kafka listeners: fans a polled batch out to the channel's executor
+ * with bounded parallelism and acknowledges the batch only once every record has a final
+ * outcome (sent, or recorded in its Failed*Log by the send service).
+ */
+@Component
+@ConditionalOnExpression("'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'")
+public class KafkaBatchProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaBatchProcessor.class);
+
+    // bean name -> executor; each channel runs on its own "<channel>TaskExecutor"
+    private final Map<String, AsyncTaskExecutor> executors;
+    private final NotificationPayloadReader payloadReader;
+
+    public KafkaBatchProcessor(Map<String, AsyncTaskExecutor> executors,
+                               NotificationPayloadReader payloadReader) {
+        this.executors = executors;
+        this.payloadReader = payloadReader;
+    }
+
+    /**
+     * Decodes, resolves and sends each record on the channel executor, then commits the batch.
+     * Records with the same key (see the producers' routing key strategy) are sent one after
+     * another in offset order; different keys and unkeyed records run in parallel. Every group
+     * is handed to the executor up front, so the executor's pool sets the parallelism and its
+     * in-flight count drives listener backpressure. Partitions are spread over the container's
+     * consumer threads ({@code kafka.listener.<channel>.concurrency}).
+     */
+    public void process(String channel,
+                        List<ConsumerRecord<String, byte[]>> records,
+                        Acknowledgment ack,
+                        Consumer<NotificationPayloadDTO> sender) {
+        long startTime = System.currentTimeMillis();
+        AsyncTaskExecutor executor = executors.get(channel + "TaskExecutor");
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>(records.size());
+
+        for (List<ConsumerRecord<String, byte[]>> group : groupByKey(records)) {
+            Runnable task = () -> {
+                for (ConsumerRecord<String, byte[]> record : group) {
+                    try {
+                        sender.accept(payloadReader.read(record));
+                    } catch (Exception e) {
+                        log.error("❌ Failed to process {} message at {}-{}@{}",
+                                channel, record.topic(), record.partition(), record.offset(), e);
+                    }
+                }
+            };
+            outcomes.add(runOnExecutor(executor, task));
+        }
+
+        awaitAndAck(channel, records.size(), outcomes, ack, startTime);
+    }
+
+    /**
+     * For channels with their own async pipeline (email and push micro-batching, queue publishes): records are decoded on
+     * the listener thread and handed over, and the batch is committed once every returned
+     * future has completed.
+     */
+    public void processAsync(String channel,
+                             List<ConsumerRecord<String, byte[]>> records,
+                             Acknowledgment ack,
+                             Function<NotificationPayloadDTO, CompletableFuture<Void>> sender) {
+        long startTime = System.currentTimeMillis();
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>(records.size());
+
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                outcomes.add(sender.apply(payloadReader.decode(record)));
+            } catch (Exception e) {
+                log.error("❌ Failed to process {} message at {}-{}@{}",
+                        channel, record.topic(), record.partition(), record.offset(), e);
+            }
+        }
+
+        awaitAndAck(channel, records.size(), outcomes, ack, startTime);
+    }
+
+    /**
+     * Same-key records of one partition, in offset order; every unkeyed record is its own group.
+     */
+    private List<List<ConsumerRecord<String, byte[]>>> groupByKey(List<ConsumerRecord<String, byte[]>> records) {
+        Map<String, List<ConsumerRecord<String, byte[]>>> keyed = new LinkedHashMap<>();
+        List<List<ConsumerRecord<String, byte[]>>> groups = new ArrayList<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() == null) {
+                groups.add(List.of(record));
+            } else {
+                keyed.computeIfAbsent(record.partition() + ":" + record.key(), k -> new ArrayList<>()).add(record);
+            }
+        }
+        groups.addAll(keyed.values());
+        return groups;
+    }
+
+    private CompletableFuture<Void> runOnExecutor(AsyncTaskExecutor executor, Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, executor);
+        } catch (TaskRejectedException e) {
+            // executor saturated: run on the listener thread, which also slows down polling
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void awaitAndAck(String channel,
+                             int size,
+                             List<CompletableFuture<Void>> outcomes,
+                             Acknowledgment ack,
+                             long startTime) {
+        CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+        ack.acknowledge();
+        log.info("✅ [Kafka] Committed {} batch of {} in {} ms", channel, size, System.currentTimeMillis() - startTime);
+    }
+}
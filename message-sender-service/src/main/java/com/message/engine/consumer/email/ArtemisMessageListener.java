@@ -1,16 +1,13 @@
 package com.message.engine.consumer.email;
 
-import com.message.engine.service.FileStorageConfigCacheEvictionService;
-import com.message.engine.service.NotificationConfigCacheEvictionService;
-import com.message.engine.service.email.EmailSendService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import com.message.engine.service.email.EmailBatchDispatcher;
+import com.message.engine.service.NotificationPayloadReader;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -22,27 +19,19 @@ public class ArtemisMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(ArtemisMessageListener.class);
 
-    private final ThreadPoolTaskExecutor emailTaskExecutor;
-    private final EmailSendService emailSendService;
+    private final EmailBatchDispatcher emailBatchDispatcher;
+    private final NotificationPayloadReader payloadReader;
 
-    public ArtemisMessageListener(@Qualifier("taskExecutor") ThreadPoolTaskExecutor emailTaskExecutor,
-                              EmailSendService emailSendService) {
-        this.emailTaskExecutor = emailTaskExecutor;
-        this.emailSendService = emailSendService;
+    public ArtemisMessageListener(EmailBatchDispatcher emailBatchDispatcher,
+                                  NotificationPayloadReader payloadReader) {
+        this.emailBatchDispatcher = emailBatchDispatcher;
+        this.payloadReader = payloadReader;
     }
 
     @JmsListener(destination = "${email.queue.name}", containerFactory = "queueListenerFactory")
-    public void listenEmailQueue(String message) {
-        log.info("[Artemis] Consumed message: {}", message);
-
-        emailTaskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                emailSendService.sendEmail(request);
-            } catch (Exception e) {
-                log.error("❌ Failed to process email message", e);
-            }
-        });
+    public void listenEmailQueue(Message message) throws JMSException {
+        log.info("[Artemis] Consumed message: {}", message.getJMSMessageID());
+        emailBatchDispatcher.dispatch(payloadReader.decode(message));
     }
 
 }
@@ -1,21 +1,18 @@
 package com.message.engine.consumer.email;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.message.engine.service.email.EmailSendService;
-import com.message.engine.service.FileStorageConfigCacheEvictionService;
-import com.message.engine.service.NotificationConfigCacheEvictionService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import com.message.engine.consumer.KafkaBatchProcessor;
+import com.message.engine.service.email.EmailBatchDispatcher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @ConditionalOnExpression(
         "'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'" +
@@ -25,25 +22,18 @@ public class KafkaMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaMessageListener.class);
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
     @Autowired
-    @Qualifier("taskExecutor")
-    private ThreadPoolTaskExecutor emailTaskExecutor;
+    private EmailBatchDispatcher emailBatchDispatcher;
 
     @Autowired
-    private EmailSendService emailSendService;
+    private KafkaBatchProcessor kafkaBatchProcessor;
 
-    @KafkaListener(topics = "${email.queue.name}", groupId = "email-consumer-group")
-    public void listenEmailQueue(String message) throws JsonProcessingException {
-        log.info("[Kafka] Consumed message: {}", message);
-        emailTaskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                emailSendService.sendEmail(request);
-            } catch (Exception e) {
-                log.error("❌ Failed to process email message", e);
-            }
-        });
+    // parallelism is governed by the dispatcher's micro-batches on the email executor
+    @KafkaListener(topics = "${email.queue.name}", groupId = "email-consumer-group", containerFactory = "payloadKafkaListenerContainerFactory",
+            concurrency = "${kafka.listener.email.concurrency:1}",
+            properties = "max.poll.records=${kafka.listener.email.max-poll-records:100}")
+    public void listenEmailQueue(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("[Kafka] Consumed email batch: {} records", records.size());
+        kafkaBatchProcessor.processAsync("email", records, ack, emailBatchDispatcher::dispatch);
     }
 }
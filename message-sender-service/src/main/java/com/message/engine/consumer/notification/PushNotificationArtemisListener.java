@@ -1,14 +1,14 @@
 package com.message.engine.consumer.notification;
 
-import com.message.engine.service.notification.PushNotificationSendService;
+import com.message.engine.service.notification.PushBatchDispatcher;
+import com.message.engine.service.NotificationPayloadReader;
 import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -20,27 +20,20 @@ public class PushNotificationArtemisListener {
 
     private static final Logger log = LoggerFactory.getLogger(PushNotificationArtemisListener.class);
 
-    private final ThreadPoolTaskExecutor taskExecutor;
-    private final PushNotificationSendService pushNotificationSendService;
+    private final PushBatchDispatcher pushBatchDispatcher;
+    private final NotificationPayloadReader payloadReader;
 
     public PushNotificationArtemisListener(
-            @Qualifier("taskExecutor") ThreadPoolTaskExecutor taskExecutor,
-            PushNotificationSendService pushNotificationSendService) {
-        this.taskExecutor = taskExecutor;
-        this.pushNotificationSendService = pushNotificationSendService;
+            PushBatchDispatcher pushBatchDispatcher,
+            NotificationPayloadReader payloadReader) {
+        this.pushBatchDispatcher = pushBatchDispatcher;
+        this.payloadReader = payloadReader;
     }
 
     @JmsListener(destination = "${push.queue.name}", containerFactory = "queueListenerFactory")
-    public void listenPushQueue(String message) {
-        log.info("[Artemis] 📳 Consumed Push Notification message: {}", message);
-
-        taskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                pushNotificationSendService.sendPush(request);
-            } catch (Exception e) {
-                log.error("❌ Failed to process push message", e);
-            }
-        });
+    public void listenPushQueue(Message message) throws JMSException {
+        log.info("[Artemis] 📳 Consumed Push Notification message: {}", message.getJMSMessageID());
+        NotificationPayloadDTO decoded = payloadReader.decode(message);
+        pushBatchDispatcher.dispatch(decoded);
     }
 }
@@ -1,17 +1,18 @@
 package com.message.engine.consumer.notification;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.message.engine.service.notification.PushNotificationSendService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import com.message.engine.consumer.KafkaBatchProcessor;
+import com.message.engine.service.notification.PushBatchDispatcher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @ConditionalOnExpression(
         "'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'" +
@@ -22,27 +23,22 @@ public class PushNotificationKafkaListener {
     private static final Logger log = LoggerFactory.getLogger(PushNotificationKafkaListener.class);
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final ThreadPoolTaskExecutor pushTaskExecutor;
-    private final PushNotificationSendService pushNotificationSendService;
+    private final KafkaBatchProcessor kafkaBatchProcessor;
+    private final PushBatchDispatcher pushBatchDispatcher;
 
     public PushNotificationKafkaListener(
-            @Qualifier("taskExecutor") ThreadPoolTaskExecutor pushTaskExecutor,
-            PushNotificationSendService pushNotificationSendService) {
-        this.pushTaskExecutor = pushTaskExecutor;
-        this.pushNotificationSendService = pushNotificationSendService;
+            KafkaBatchProcessor kafkaBatchProcessor,
+            PushBatchDispatcher pushBatchDispatcher) {
+        this.kafkaBatchProcessor = kafkaBatchProcessor;
+        this.pushBatchDispatcher = pushBatchDispatcher;
     }
 
-    @KafkaListener(topics = "${push.queue.name}", groupId = "push-consumer-group")
-    public void listenPushQueue(String message) {
-        log.info("[Kafka] 📳 Consumed Push Notification message: {}", message);
-
-        pushTaskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                pushNotificationSendService.sendPush(request);
-            } catch (Exception e) {
-                log.error("❌ Failed to process push message", e);
-            }
-        });
+    // parallelism is governed by the dispatcher's multicast batches on the push executor
+    @KafkaListener(topics = "${push.queue.name}", groupId = "push-consumer-group", containerFactory = "payloadKafkaListenerContainerFactory",
+            concurrency = "${kafka.listener.push.concurrency:1}",
+            properties = "max.poll.records=${kafka.listener.push.max-poll-records:100}")
+    public void listenPushQueue(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("[Kafka] 📳 Consumed Push Notification batch: {} records", records.size());
+        kafkaBatchProcessor.processAsync("push", records, ack, pushBatchDispatcher::dispatch);
     }
 }
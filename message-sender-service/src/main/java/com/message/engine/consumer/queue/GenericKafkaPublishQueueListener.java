@@ -1,18 +1,22 @@
 package com.message.engine.consumer.queue;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.message.engine.consumer.KafkaBatchProcessor;
+import com.message.engine.service.NotificationPayloadReader;
 import com.message.engine.service.queue.NotificationRouterService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @ConditionalOnExpression(
         "'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'" +
@@ -23,22 +27,30 @@ public class GenericKafkaPublishQueueListener {
     private static final Logger log = LoggerFactory.getLogger(GenericKafkaPublishQueueListener.class);
 
     @Autowired
-    @Qualifier("taskExecutor")
-    private ThreadPoolTaskExecutor taskExecutor;
+    private KafkaBatchProcessor kafkaBatchProcessor;
 
     @Autowired
     private NotificationRouterService notificationRouterService;
 
-    @KafkaListener(topics = "${publish.queue.name}", groupId = "notification-router-group")
-    public void listenPublishQueue(String message) throws JsonProcessingException {
-        log.info("[Kafka] Consumed message from publish queue: {}", message);
-        taskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO payload = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                notificationRouterService.route(payload);
-            } catch (Exception e) {
-                log.error("❌ Failed to process message from publish queue", e);
-            }
-        });
+    @Autowired
+    private NotificationPayloadReader payloadReader;
+
+    @Autowired
+    @Qualifier("queueTaskExecutor")
+    private AsyncTaskExecutor queueTaskExecutor;
+
+    @KafkaListener(topics = "${publish.queue.name}", groupId = "notification-router-group", containerFactory = "payloadKafkaListenerContainerFactory",
+            concurrency = "${kafka.listener.queue.concurrency:1}",
+            properties = "max.poll.records=${kafka.listener.queue.max-poll-records:100}")
+    public void listenPublishQueue(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("[Kafka] Consumed batch from publish queue: {} records", records.size());
+        // publishes are asynchronous; the batch is committed once every send callback has fired
+        kafkaBatchProcessor.processAsync("queue", records, ack, decoded -> CompletableFuture
+                .supplyAsync(() -> payloadReader.resolve(decoded), queueTaskExecutor)
+                .thenCompose(notificationRouterService::routeAsync)
+                .exceptionally(e -> {
+                    log.error("❌ Failed to process publish queue message", e);
+                    return null;
+                }));
     }
 }
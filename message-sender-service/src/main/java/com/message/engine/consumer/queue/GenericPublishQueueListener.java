@@ -1,14 +1,16 @@
 package com.message.engine.consumer.queue;
 
 import com.message.engine.service.queue.NotificationRouterService;
+import com.message.engine.service.NotificationPayloadReader;
 import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -20,23 +22,27 @@ public class GenericPublishQueueListener {
 
     private static final Logger log = LoggerFactory.getLogger(GenericPublishQueueListener.class);
 
-    private final ThreadPoolTaskExecutor taskExecutor;
+    private final AsyncTaskExecutor taskExecutor;
     private final NotificationRouterService notificationRouterService;
+    private final NotificationPayloadReader payloadReader;
 
-    public GenericPublishQueueListener(@Qualifier("taskExecutor") ThreadPoolTaskExecutor taskExecutor,
-                                       NotificationRouterService notificationRouterService) {
+    public GenericPublishQueueListener(@Qualifier("queueTaskExecutor") AsyncTaskExecutor taskExecutor,
+                                       NotificationRouterService notificationRouterService,
+                                       NotificationPayloadReader payloadReader) {
         this.taskExecutor = taskExecutor;
         this.notificationRouterService = notificationRouterService;
+        this.payloadReader = payloadReader;
     }
 
     @JmsListener(destination = "${publish.queue.name}", containerFactory = "queueListenerFactory")
-    public void listen(String message) {
-        log.info("[Artemis] Consumed from publish queue: {}", message);
+    public void listen(Message message) throws JMSException {
+        log.info("[Artemis] Consumed from publish queue: {}", message.getJMSMessageID());
+        NotificationPayloadDTO decoded = payloadReader.decode(message);
 
         taskExecutor.submit(() -> {
             try {
-                NotificationPayloadDTO payload = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                notificationRouterService.route(payload);
+                NotificationPayloadDTO payload = payloadReader.resolve(decoded);
+                notificationRouterService.routeAsync(payload);
             } catch (Exception e) {
                 log.error("❌ Failed to process publish queue message", e);
             }
@@ -1,14 +1,16 @@
 package com.message.engine.consumer.sms;
 
 import com.message.engine.service.sms.SmsSendService;
+import com.message.engine.service.NotificationPayloadReader;
 import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -20,23 +22,27 @@ public class SmsArtemisMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(SmsArtemisMessageListener.class);
 
-    private final ThreadPoolTaskExecutor taskExecutor;
+    private final AsyncTaskExecutor taskExecutor;
     private final SmsSendService smsSendService;
+    private final NotificationPayloadReader payloadReader;
 
     public SmsArtemisMessageListener(
-            @Qualifier("taskExecutor") ThreadPoolTaskExecutor taskExecutor,
-            SmsSendService smsSendService) {
+            @Qualifier("smsTaskExecutor") AsyncTaskExecutor taskExecutor,
+            SmsSendService smsSendService,
+            NotificationPayloadReader payloadReader) {
         this.taskExecutor = taskExecutor;
         this.smsSendService = smsSendService;
+        this.payloadReader = payloadReader;
     }
 
     @JmsListener(destination = "${sms.queue.name}", containerFactory = "queueListenerFactory")
-    public void listenSmsQueue(String message) {
-        log.info("[Artemis] Consumed SMS message: {}", message);
+    public void listenSmsQueue(Message message) throws JMSException {
+        log.info("[Artemis] Consumed SMS message: {}", message.getJMSMessageID());
+        NotificationPayloadDTO decoded = payloadReader.decode(message);
 
         taskExecutor.submit(() -> {
             try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
+                NotificationPayloadDTO request = payloadReader.resolve(decoded);
                 smsSendService.sendSms(request);
             } catch (Exception e) {
                 log.error("❌ Failed to process SMS message", e);
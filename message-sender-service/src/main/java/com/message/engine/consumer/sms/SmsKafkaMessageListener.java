@@ -1,17 +1,18 @@
 package com.message.engine.consumer.sms;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.message.engine.consumer.KafkaBatchProcessor;
 import com.message.engine.service.sms.SmsSendService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @ConditionalOnExpression(
         "'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'" +
@@ -22,27 +23,21 @@ public class SmsKafkaMessageListener {
     private static final Logger log = LoggerFactory.getLogger(SmsKafkaMessageListener.class);
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final ThreadPoolTaskExecutor smsTaskExecutor;
+    private final KafkaBatchProcessor kafkaBatchProcessor;
     private final SmsSendService smsSendService;
 
     public SmsKafkaMessageListener(
-            @Qualifier("taskExecutor") ThreadPoolTaskExecutor smsTaskExecutor,
+            KafkaBatchProcessor kafkaBatchProcessor,
             SmsSendService smsSendService) {
-        this.smsTaskExecutor = smsTaskExecutor;
+        this.kafkaBatchProcessor = kafkaBatchProcessor;
         this.smsSendService = smsSendService;
     }
 
-    @KafkaListener(topics = "${sms.queue.name}", groupId = "sms-consumer-group")
-    public void listenSmsQueue(String message) {
-        log.info("[Kafka] Consumed SMS message: {}", message);
-
-        smsTaskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                smsSendService.sendSms(request);
-            } catch (Exception e) {
-                log.error("❌ Failed to process SMS message", e);
-            }
-        });
+    @KafkaListener(topics = "${sms.queue.name}", groupId = "sms-consumer-group", containerFactory = "payloadKafkaListenerContainerFactory",
+            concurrency = "${kafka.listener.sms.concurrency:1}",
+            properties = "max.poll.records=${kafka.listener.sms.max-poll-records:100}")
+    public void listenSmsQueue(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("[Kafka] Consumed SMS batch: {} records", records.size());
+        kafkaBatchProcessor.process("sms", records, ack, smsSendService::sendSms);
     }
 }
@@ -1,14 +1,16 @@
 package com.message.engine.consumer.voice;
 
 import com.message.engine.service.voice.VoiceSendService;
+import com.message.engine.service.NotificationPayloadReader;
 import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -20,23 +22,27 @@ public class VoiceArtemisMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(VoiceArtemisMessageListener.class);
 
-    private final ThreadPoolTaskExecutor voiceTaskExecutor;
+    private final AsyncTaskExecutor voiceTaskExecutor;
     private final VoiceSendService voiceSendService;
+    private final NotificationPayloadReader payloadReader;
 
     public VoiceArtemisMessageListener(
-            @Qualifier("taskExecutor") ThreadPoolTaskExecutor voiceTaskExecutor,
-            VoiceSendService voiceSendService) {
+            @Qualifier("voiceTaskExecutor") AsyncTaskExecutor voiceTaskExecutor,
+            VoiceSendService voiceSendService,
+            NotificationPayloadReader payloadReader) {
         this.voiceTaskExecutor = voiceTaskExecutor;
         this.voiceSendService = voiceSendService;
+        this.payloadReader = payloadReader;
     }
 
     @JmsListener(destination = "${voice.queue.name}", containerFactory = "queueListenerFactory")
-    public void listenVoiceQueue(String message) {
-        log.info("[Artemis] Consumed voice message: {}", message);
+    public void listenVoiceQueue(Message message) throws JMSException {
+        log.info("[Artemis] Consumed voice message: {}", message.getJMSMessageID());
+        NotificationPayloadDTO decoded = payloadReader.decode(message);
 
         voiceTaskExecutor.submit(() -> {
             try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
+                NotificationPayloadDTO request = payloadReader.resolve(decoded);
                 voiceSendService.sendVoice(request);
             } catch (Exception e) {
                 log.error("❌ Failed to process voice message", e);
@@ -1,19 +1,19 @@
 package com.message.engine.consumer.voice;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.message.engine.consumer.KafkaBatchProcessor;
 import com.message.engine.service.voice.VoiceSendService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @ConditionalOnExpression(
         "'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'" +
@@ -26,22 +26,16 @@ public class VoiceKafkaMessageListener {
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
-    @Qualifier("taskExecutor")
-    private ThreadPoolTaskExecutor voiceTaskExecutor;
+    private KafkaBatchProcessor kafkaBatchProcessor;
 
     @Autowired
     private VoiceSendService voiceSendService;
 
-    @KafkaListener(topics = "${voice.queue.name}", groupId = "voice-consumer-group")
-    public void listenVoiceQueue(String message) throws JsonProcessingException {
-        log.info("[Kafka] Consumed voice message: {}", message);
-        voiceTaskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                voiceSendService.sendVoice(request);
-            } catch (Exception e) {
-                log.error("❌ Failed to process voice message", e);
-            }
-        });
+    @KafkaListener(topics = "${voice.queue.name}", groupId = "voice-consumer-group", containerFactory = "payloadKafkaListenerContainerFactory",
+            concurrency = "${kafka.listener.voice.concurrency:1}",
+            properties = "max.poll.records=${kafka.listener.voice.max-poll-records:100}")
+    public void listenVoiceQueue(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("[Kafka] Consumed voice batch: {} records", records.size());
+        kafkaBatchProcessor.process("voice", records, ack, voiceSendService::sendVoice);
     }
 }
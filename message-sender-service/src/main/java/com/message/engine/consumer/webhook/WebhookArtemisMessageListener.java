@@ -1,19 +1,19 @@
 package com.message.engine.consumer.webhook;
 
 import com.message.engine.service.webhook.WebhookSendService;
+import com.message.engine.service.NotificationPayloadReader;
 import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
-import lombok.RequiredArgsConstructor;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Component
-@RequiredArgsConstructor
 @ConditionalOnExpression(
         "'${messaging.mode}'=='activemq' or '${messaging.mode}'=='both'" +
         " and '${webhook.enabled}'=='true'"
@@ -22,17 +22,27 @@ public class WebhookArtemisMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(WebhookArtemisMessageListener.class);
 
-    @Qualifier("taskExecutor")
-    private final ThreadPoolTaskExecutor taskExecutor;
+    private final AsyncTaskExecutor taskExecutor;
 
     private final WebhookSendService webhookSendService;
 
+    private final NotificationPayloadReader payloadReader;
+
+    public WebhookArtemisMessageListener(@Qualifier("webhookTaskExecutor") AsyncTaskExecutor taskExecutor,
+                                         WebhookSendService webhookSendService,
+                                         NotificationPayloadReader payloadReader) {
+        this.taskExecutor = taskExecutor;
+        this.webhookSendService = webhookSendService;
+        this.payloadReader = payloadReader;
+    }
+
     @JmsListener(destination = "${webhook.queue.name}", containerFactory = "queueListenerFactory")
-    public void listenWebhookQueue(String message) {
-        log.info("[Artemis] Consumed Webhook message: {}", message);
+    public void listenWebhookQueue(Message message) throws JMSException {
+        log.info("[Artemis] Consumed Webhook message: {}", message.getJMSMessageID());
+        NotificationPayloadDTO decoded = payloadReader.decode(message);
         taskExecutor.submit(() -> {
             try {
-                NotificationPayloadDTO payload = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
+                NotificationPayloadDTO payload = payloadReader.resolve(decoded);
                 webhookSendService.sendWebhook(payload);
             } catch (Exception e) {
                 log.error("❌ Failed to process Webhook message", e);
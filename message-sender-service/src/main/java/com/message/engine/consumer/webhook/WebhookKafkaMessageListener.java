@@ -1,17 +1,18 @@
 package com.message.engine.consumer.webhook;
 
+import com.message.engine.consumer.KafkaBatchProcessor;
 import com.message.engine.service.webhook.WebhookSendService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @ConditionalOnExpression(
@@ -22,21 +23,15 @@ public class WebhookKafkaMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(WebhookKafkaMessageListener.class);
 
-    @Qualifier("taskExecutor")
-    private final ThreadPoolTaskExecutor webhookTaskExecutor;
+    private final KafkaBatchProcessor kafkaBatchProcessor;
 
     private final WebhookSendService webhookSendService;
 
-    @KafkaListener(topics = "${webhook.queue.name}", groupId = "webhook-consumer-group")
-    public void listenWebhookQueue(String message) {
-        log.info("[Kafka] Consumed Webhook message: {}", message);
-        webhookTaskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO payload = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                webhookSendService.sendWebhook(payload);
-            } catch (Exception e) {
-                log.error("❌ Failed to process Webhook message", e);
-            }
-        });
+    @KafkaListener(topics = "${webhook.queue.name}", groupId = "webhook-consumer-group", containerFactory = "payloadKafkaListenerContainerFactory",
+            concurrency = "${kafka.listener.webhook.concurrency:1}",
+            properties = "max.poll.records=${kafka.listener.webhook.max-poll-records:100}")
+    public void listenWebhookQueue(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("[Kafka] Consumed Webhook batch: {} records", records.size());
+        kafkaBatchProcessor.process("webhook", records, ack, webhookSendService::sendWebhook);
     }
 }
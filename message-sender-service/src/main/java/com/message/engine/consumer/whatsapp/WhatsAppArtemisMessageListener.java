@@ -1,14 +1,16 @@
 package com.message.engine.consumer.whatsapp;
 
 import com.message.engine.service.whatsapp.WhatsAppSendService;
+import com.message.engine.service.NotificationPayloadReader;
 import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jms.annotation.JmsListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -20,23 +22,27 @@ public class WhatsAppArtemisMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(WhatsAppArtemisMessageListener.class);
 
-    private final ThreadPoolTaskExecutor taskExecutor;
+    private final AsyncTaskExecutor taskExecutor;
     private final WhatsAppSendService whatsAppSendService;
+    private final NotificationPayloadReader payloadReader;
 
     public WhatsAppArtemisMessageListener(
-            @Qualifier("taskExecutor") ThreadPoolTaskExecutor taskExecutor,
-            WhatsAppSendService whatsAppSendService) {
+            @Qualifier("whatsappTaskExecutor") AsyncTaskExecutor taskExecutor,
+            WhatsAppSendService whatsAppSendService,
+            NotificationPayloadReader payloadReader) {
         this.taskExecutor = taskExecutor;
         this.whatsAppSendService = whatsAppSendService;
+        this.payloadReader = payloadReader;
     }
 
     @JmsListener(destination = "${whatsapp.queue.name}", containerFactory = "queueListenerFactory")
-    public void listenWhatsAppQueue(String message) {
-        log.info("[Artemis] Consumed WhatsApp message: {}", message);
+    public void listenWhatsAppQueue(Message message) throws JMSException {
+        log.info("[Artemis] Consumed WhatsApp message: {}", message.getJMSMessageID());
+        NotificationPayloadDTO decoded = payloadReader.decode(message);
 
         taskExecutor.submit(() -> {
             try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
+                NotificationPayloadDTO request = payloadReader.resolve(decoded);
                 whatsAppSendService.sendWhatsApp(request);
             } catch (Exception e) {
                 log.error("❌ Failed to process WhatsApp message", e);
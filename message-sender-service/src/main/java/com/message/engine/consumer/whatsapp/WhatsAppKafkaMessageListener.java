@@ -1,16 +1,17 @@
 package com.message.engine.consumer.whatsapp;
 
+import com.message.engine.consumer.KafkaBatchProcessor;
 import com.message.engine.service.whatsapp.WhatsAppSendService;
-import com.notification.common.dto.NotificationPayloadDTO;
-import com.notification.common.utils.JsonUtil;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @ConditionalOnExpression(
         "'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'" +
@@ -20,27 +21,21 @@ public class WhatsAppKafkaMessageListener {
 
     private static final Logger log = LoggerFactory.getLogger(WhatsAppKafkaMessageListener.class);
 
-    private final ThreadPoolTaskExecutor taskExecutor;
+    private final KafkaBatchProcessor kafkaBatchProcessor;
     private final WhatsAppSendService whatsAppSendService;
 
     public WhatsAppKafkaMessageListener(
-            @Qualifier("taskExecutor") ThreadPoolTaskExecutor taskExecutor,
+            KafkaBatchProcessor kafkaBatchProcessor,
             WhatsAppSendService whatsAppSendService) {
-        this.taskExecutor = taskExecutor;
+        this.kafkaBatchProcessor = kafkaBatchProcessor;
         this.whatsAppSendService = whatsAppSendService;
     }
 
-    @KafkaListener(topics = "${whatsapp.queue.name}", groupId = "whatsapp-consumer-group")
-    public void listenWhatsAppQueue(String message) {
-        log.info("[Kafka] Consumed WhatsApp message: {}", message);
-
-        taskExecutor.submit(() -> {
-            try {
-                NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(message, NotificationPayloadDTO.class);
-                whatsAppSendService.sendWhatsApp(request);
-            } catch (Exception e) {
-                log.error("❌ Failed to process WhatsApp message", e);
-            }
-        });
+    @KafkaListener(topics = "${whatsapp.queue.name}", groupId = "whatsapp-consumer-group", containerFactory = "payloadKafkaListenerContainerFactory",
+            concurrency = "${kafka.listener.whatsapp.concurrency:1}",
+            properties = "max.poll.records=${kafka.listener.whatsapp.max-poll-records:100}")
+    public void listenWhatsAppQueue(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("[Kafka] Consumed WhatsApp batch: {} records", records.size());
+        kafkaBatchProcessor.process("whatsapp", records, ack, whatsAppSendService::sendWhatsApp);
     }
 }
@@ -0,0 +1,128 @@
+package com.message.engine.manager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared connections for the "activemq" queue provider, one per external broker identity
+ * (brokerUrl, username, clientId and a hash of the password). Each is a Spring
+ * {@link CachingConnectionFactory} over a single JMS connection: sessions are pooled and every
+ * session keeps a producer per destination, so forwarding a message no longer opens a
+ * connection. A failed connection is reset and re-established on the next send, and Artemis
+ * itself retries the transport ({@code reconnectAttempts} / {@code retryInterval}).
+ */
+@Component
+public class ActiveMqConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveMqConnectionPool.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Cache<String, CachingConnectionFactory> factories = Caffeine.newBuilder()
+            .expireAfterAccess(15, TimeUnit.MINUTES)
+            .maximumSize(100)
+            .removalListener(this::onRemoval)
+            .build();
+
+    // config id -> broker key its factory is cached under
+    private final Map<String, String> keyByConfigId = new ConcurrentHashMap<>();
+
+    @Value("${queue.activemq.session-cache-size:50}")
+    private int sessionCacheSize;
+
+    @Value("${queue.activemq.reconnect-attempts:5}")
+    private int reconnectAttempts;
+
+    @Value("${queue.activemq.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+
+    public CachingConnectionFactory getConnectionFactory(String configId, Map<String, Object> config) {
+        String brokerUrl = Objects.toString(config.get("brokerUrl"), null);
+        if (brokerUrl == null) {
+            throw new IllegalArgumentException("Missing brokerUrl in ActiveMQ config");
+        }
+        String username = config.getOrDefault("username", "").toString();
+        String password = config.getOrDefault("password", "").toString();
+        String clientId = config.getOrDefault("clientId", "").toString();
+
+        String key = brokerUrl + "|" + username + "|" + clientId + "|" + hashConfig(Map.of("password", password));
+        if (configId != null) {
+            keyByConfigId.put(configId, key);
+        }
+        return factories.get(key, k -> createFactory(brokerUrl, username, password, clientId, config));
+    }
+
+    public void evict(String configId) {
+        String key = keyByConfigId.remove(configId);
+        if (key != null) {
+            factories.invalidate(key);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        factories.invalidateAll();
+        factories.cleanUp();
+    }
+
+    private CachingConnectionFactory createFactory(String brokerUrl, String username, String password,
+                                                   String clientId, Map<String, Object> config) {
+        ActiveMQConnectionFactory target = new ActiveMQConnectionFactory(brokerUrl, username, password);
+        target.setReconnectAttempts(intSetting(config, "reconnectAttempts", reconnectAttempts));
+        target.setRetryInterval(longSetting(config, "retryInterval", retryIntervalMs));
+
+        CachingConnectionFactory factory = new CachingConnectionFactory(target);
+        factory.setSessionCacheSize(intSetting(config, "sessionCacheSize", sessionCacheSize));
+        factory.setCacheProducers(true);
+        factory.setReconnectOnException(true);
+        if (!clientId.isBlank()) {
+            factory.setClientId(clientId);
+        }
+        log.info("📤 Created pooled ActiveMQ connection factory for {} (user '{}')", brokerUrl, username);
+        return factory;
+    }
+
+    private int intSetting(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        return value != null ? Integer.parseInt(value.toString()) : defaultValue;
+    }
+
+    private long longSetting(Map<String, Object> config, String key, long defaultValue) {
+        Object value = config.get(key);
+        return value != null ? Long.parseLong(value.toString()) : defaultValue;
+    }
+
+    private void onRemoval(String key, CachingConnectionFactory factory, RemovalCause cause) {
+        if (factory == null) return;
+        try {
+            factory.destroy();
+            log.info("🔌 Closed pooled ActiveMQ connection ({})", cause);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to close pooled ActiveMQ connection: {}", e.getMessage());
+        }
+    }
+
+    private String hashConfig(Map<String, Object> configMap) {
+        try {
+            String json = objectMapper.writeValueAsString(configMap);
+            return DigestUtils.sha256Hex(json);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to hash ActiveMQ config", e);
+        }
+    }
+}
@@ -3,58 +3,121 @@ package com.message.engine.manager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.notification.common.model.NotificationConfig;
 import com.notification.common.repository.NotificationConfigRepository;
 import com.notification.common.dto.CachedMailSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 @Component
 public class EmailConnectionPoolManager {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailConnectionPoolManager.class);
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final Cache<String, CachedMailSender> cache = Caffeine.newBuilder()
-            .expireAfterAccess(15, TimeUnit.MINUTES)       
-            .refreshAfterWrite(30, TimeUnit.MINUTES)       
-            .maximumSize(100)                              
-            .build(this::reloadFromMongo);                 
+            .expireAfterAccess(15, TimeUnit.MINUTES)
+            .refreshAfterWrite(30, TimeUnit.MINUTES)
+            .maximumSize(100)
+            .removalListener(this::onRemoval)
+            .build(this::reloadFromMongo);
+
+    // SMTP host -> session permits, shared by every config pointing at that host
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService keepAlive = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "smtp-pool-keepalive");
+        t.setDaemon(true);
+        return t;
+    });
 
     private final NotificationConfigRepository notificationConfigRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${email.pool.max-per-host:10}")
+    private int maxPerHost;
+
+    @Value("${email.pool.max-idle:5}")
+    private int maxIdle;
+
+    @Value("${email.pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${email.pool.borrow-timeout-ms:10000}")
+    private long borrowTimeoutMs;
+
+    @Value("${email.pool.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
 
-    public EmailConnectionPoolManager(NotificationConfigRepository repo) {
+    @Value("${email.pool.keepalive-interval-ms:30000}")
+    private long keepAliveIntervalMs;
+
+    public EmailConnectionPoolManager(NotificationConfigRepository repo, MeterRegistry meterRegistry) {
         this.notificationConfigRepository = repo;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void startKeepAlive() {
+        keepAlive.scheduleWithFixedDelay(this::sweepIdle, keepAliveIntervalMs, keepAliveIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        keepAlive.shutdownNow();
+        cache.invalidateAll();
+        cache.cleanUp();
     }
 
-    
+
     private CachedMailSender reloadFromMongo(String configId) {
         NotificationConfig config = notificationConfigRepository.findById(configId)
                 .orElseThrow(() -> new RuntimeException("Config not found: " + configId));
         return createCachedSender(config);
     }
 
-    
+
     private CachedMailSender createCachedSender(NotificationConfig config) {
-        JavaMailSenderImpl sender = new JavaMailSenderImpl();
-        Map<String, Object> cfg = config.getConfig();
+        PooledJavaMailSender sender = createSender(config.getConfig(), maxIdle);
+        sender.bindMetrics(meterRegistry, config.getId());
 
-        sender.setHost((String) cfg.get("host"));
+        String configHash = hashConfig(config.getConfig());
+        return new CachedMailSender(sender, configHash);
+    }
+
+    private PooledJavaMailSender createSender(Map<String, Object> cfg, int idleLimit) {
+        String host = (String) cfg.get("host");
+        Semaphore permits = hostPermits.computeIfAbsent(String.valueOf(host), h -> new Semaphore(maxPerHost, true));
+
+        // idle connections younger than the keepalive interval are handed out without a NOOP
+        PooledJavaMailSender sender = new PooledJavaMailSender(permits, idleLimit, maxMessagesPerConnection,
+                borrowTimeoutMs, idleTimeoutMs, keepAliveIntervalMs);
+        sender.setHost(host);
         sender.setPort((Integer) cfg.get("port"));
         sender.setUsername((String) cfg.get("username"));
         sender.setPassword((String) cfg.get("password"));
         sender.getJavaMailProperties().put("mail.smtp.auth", "true");
         sender.getJavaMailProperties().put("mail.smtp.starttls.enable", "true");
-
-        String configHash = hashConfig(cfg);
-        return new CachedMailSender(sender, configHash);
+        return sender;
     }
 
-    
+
     private String hashConfig(Map<String, Object> configMap) {
         try {
             String json = objectMapper.writeValueAsString(configMap);
@@ -64,22 +127,49 @@ public class EmailConnectionPoolManager {
         }
     }
 
-    
+    private void onRemoval(String configId, CachedMailSender removed, RemovalCause cause) {
+        // compute() handing back the same entry is not a replacement; that pool is still in use
+        if (cause == RemovalCause.REPLACED && cache.asMap().get(configId) == removed) return;
+        if (removed != null && removed.getMailSender() instanceof PooledJavaMailSender pooled) {
+            // in-flight sends finish on their borrowed transport, which is closed on release
+            pooled.close();
+            log.info("🔌 Closed SMTP pool for config {} ({})", configId, cause);
+        }
+    }
+
+    private void sweepIdle() {
+        cache.asMap().values().forEach(cached -> {
+            try {
+                if (cached.getMailSender() instanceof PooledJavaMailSender pooled) {
+                    pooled.evictIdle();
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ SMTP keepalive sweep failed: {}", e.getMessage());
+            }
+        });
+    }
+
+
     public void evict(String configId) {
         cache.invalidate(configId);
     }
 
     public JavaMailSender getMailSender(NotificationConfig config) {
-        CachedMailSender cached = cache.getIfPresent(config.getId());
+        if (config.getId() == null) {
+            // ad-hoc configs (e.g. the privacy fallback) have no id to pool under: keep nothing idle
+            return createSender(config.getConfig(), 0);
+        }
 
         String newHash = hashConfig(config.getConfig());
-
-        if (cached != null && cached.getConfigHash().equals(newHash)) {
-            return cached.getMailSender(); 
-        } else {
-            CachedMailSender newSender = createCachedSender(config);
-            cache.put(config.getId(), newSender);
-            return newSender.getMailSender();
+        CachedMailSender current = cache.getIfPresent(config.getId());
+        if (current != null && current.getConfigHash().equals(newHash)) {
+            return current.getMailSender();
         }
+
+        // atomic per config id: concurrent first sends share one pool, and a pool is only
+        // replaced (and closed by the removal listener) when the config actually changed
+        CachedMailSender cached = cache.asMap().compute(config.getId(), (id, existing) ->
+                existing != null && existing.getConfigHash().equals(newHash) ? existing : createCachedSender(config));
+        return cached.getMailSender();
     }
 }
@@ -0,0 +1,123 @@
+package com.message.engine.manager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.notification.common.model.NotificationConfig;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One initialized FirebaseApp per push config, so credentials are parsed once and the OAuth
+ * access token is reused across sends. Keyed on config id and replaced when the config hash
+ * changes; replaced or evicted apps are deleted to release their threads and connections.
+ */
+@Component
+public class FirebaseClientPool {
+
+    private static final Logger log = LoggerFactory.getLogger(FirebaseClientPool.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Cache<String, CachedFirebaseClient> cache = Caffeine.newBuilder()
+            .expireAfterAccess(15, TimeUnit.MINUTES)
+            .maximumSize(100)
+            .removalListener(this::onRemoval)
+            .build();
+
+    public FirebaseMessaging getMessaging(NotificationConfig config) {
+        Map<String, Object> cfg = config.getConfig();
+        String newHash = hashConfig(cfg);
+        // configs without an id (privacy fallback) are pooled by their content
+        String key = config.getId() != null ? config.getId() : "inline:" + newHash;
+
+        CachedFirebaseClient cached = cache.getIfPresent(key);
+        if (cached != null && cached.configHash().equals(newHash)) {
+            return cached.messaging();
+        }
+
+        synchronized (this) {
+            cached = cache.getIfPresent(key);
+            if (cached != null && cached.configHash().equals(newHash)) {
+                return cached.messaging();
+            }
+            CachedFirebaseClient created = createClient(key, cfg, newHash);
+            cache.put(key, created);
+            return created.messaging();
+        }
+    }
+
+    public void evict(String configId) {
+        cache.invalidate(configId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    private CachedFirebaseClient createClient(String key, Map<String, Object> cfg, String configHash) {
+        Object firebaseJsonRaw = cfg.get("firebaseJson");
+        if (firebaseJsonRaw == null) {
+            throw new IllegalArgumentException("Missing firebaseJson in push config: " + key);
+        }
+
+        try {
+            Map<?, ?> firebaseJson = objectMapper.convertValue(firebaseJsonRaw, Map.class);
+            Map<?, ?> projectInfo = objectMapper.convertValue(firebaseJson.get("project_info"), Map.class);
+
+            FirebaseOptions options = FirebaseOptions.builder()
+                    .setCredentials(GoogleCredentials.fromStream(
+                            new ByteArrayInputStream(objectMapper.writeValueAsBytes(firebaseJson))))
+                    .setProjectId(projectInfo != null ? (String) projectInfo.get("project_id") : null)
+                    .build();
+
+            // app names must be unique per JVM; the generation keeps a replacement from colliding
+            // with the app it replaces while that one is still being deleted
+            FirebaseApp app = FirebaseApp.initializeApp(options, "push-" + key + "-" + generation.incrementAndGet());
+            log.info("🔥 Initialized FirebaseApp {} for push config {}", app.getName(), key);
+            return new CachedFirebaseClient(app, FirebaseMessaging.getInstance(app), configHash);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize FirebaseApp for push config " + key, e);
+        }
+    }
+
+    private void onRemoval(String key, CachedFirebaseClient removed, RemovalCause cause) {
+        if (removed == null) return;
+        try {
+            String name = removed.app().getName();
+            removed.app().delete();
+            log.info("🔌 Deleted FirebaseApp {} ({})", name, cause);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to delete FirebaseApp for push config {}: {}", key, e.getMessage());
+        }
+    }
+
+    private String hashConfig(Map<String, Object> configMap) {
+        try {
+            String json = objectMapper.writeValueAsString(configMap);
+            return DigestUtils.sha256Hex(json);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to hash push config", e);
+        }
+    }
+
+    private record CachedFirebaseClient(FirebaseApp app, FirebaseMessaging messaging, String configHash) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.message.engine.manager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived producers for the "kafka" queue provider, one per distinct target cluster config
+ * (keyed by the config hash). A producer is thread-safe and batches internally, so every send for
+ * the same cluster shares it instead of paying for metadata, connections and a blocking flush on
+ * each message. Evicting a config id closes its producer after flushing what is in flight.
+ * <p>
+ * Config keys: {@code bootstrapServers}, {@code clientId}, {@code acks}, {@code lingerMs},
+ * {@code batchSize}, {@code compressionType}; any native producer property (e.g.
+ * {@code max.in.flight.requests.per.connection}) is passed through as is.
+ */
+@Component
+public class KafkaProducerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaProducerPool.class);
+
+    private static final Set<String> PRODUCER_CONFIGS = ProducerConfig.configNames();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Cache<String, KafkaProducer<String, String>> producers = Caffeine.newBuilder()
+            .expireAfterAccess(15, TimeUnit.MINUTES)
+            .maximumSize(100)
+            .removalListener(this::onRemoval)
+            .build();
+
+    // config id -> hash of the config its producer was built from
+    private final Map<String, String> hashByConfigId = new ConcurrentHashMap<>();
+
+    @Value("${queue.kafka.producer.default-linger-ms:5}")
+    private int defaultLingerMs;
+
+    @Value("${queue.kafka.producer.close-timeout-ms:5000}")
+    private long closeTimeoutMs;
+
+    public KafkaProducer<String, String> getProducer(String configId, Map<String, Object> config) {
+        String hash = hashConfig(config);
+        if (configId != null) {
+            hashByConfigId.put(configId, hash);
+        }
+        return producers.get(hash, key -> {
+            log.info("📤 Creating Kafka producer for {} (config {})", config.get("bootstrapServers"), configId);
+            return new KafkaProducer<>(buildProperties(config));
+        });
+    }
+
+    public void evict(String configId) {
+        String hash = hashByConfigId.remove(configId);
+        if (hash != null) {
+            producers.invalidate(hash);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        producers.invalidateAll();
+        producers.cleanUp();
+    }
+
+    private Properties buildProperties(Map<String, Object> config) {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.get("bootstrapServers"));
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, config.getOrDefault("clientId", "default-client"));
+        props.put(ProducerConfig.ACKS_CONFIG, config.getOrDefault("acks", "all"));
+        props.put(ProducerConfig.LINGER_MS_CONFIG, config.getOrDefault("lingerMs", defaultLingerMs));
+        putIfPresent(props, ProducerConfig.BATCH_SIZE_CONFIG, config.get("batchSize"));
+        putIfPresent(props, ProducerConfig.COMPRESSION_TYPE_CONFIG, config.get("compressionType"));
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+
+        config.forEach((key, value) -> {
+            if (PRODUCER_CONFIGS.contains(key) && value != null) {
+                props.put(key, value.toString());
+            }
+        });
+        return props;
+    }
+
+    private void putIfPresent(Properties props, String key, Object value) {
+        if (value != null) {
+            props.put(key, value.toString());
+        }
+    }
+
+    private void onRemoval(String hash, KafkaProducer<String, String> producer, RemovalCause cause) {
+        if (producer == null) return;
+        try {
+            producer.close(Duration.ofMillis(closeTimeoutMs));
+            log.info("🔌 Closed Kafka producer ({})", cause);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to close Kafka producer: {}", e.getMessage());
+        }
+    }
+
+    private String hashConfig(Map<String, Object> configMap) {
+        try {
+            String json = objectMapper.writeValueAsString(configMap);
+            return DigestUtils.sha256Hex(json);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to hash Kafka publisher config", e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.message.engine.manager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.AbstractJmsListeningContainer;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Credit-based backpressure between each channel's listeners and that channel's executor.
+ * Every task handed to the executor holds one credit until it finishes; when in-flight work
+ * reaches the high watermark the channel's Kafka containers are paused and its JMS containers
+ * stopped, and both are resumed once it drains to the low watermark.
+ * Eviction listeners are never paused.
+ */
+@Component
+public class ListenerBackpressureManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerBackpressureManager.class);
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> kafkaRegistry;
+    private final ObjectProvider<JmsListenerEndpointRegistry> jmsRegistry;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public ListenerBackpressureManager(ObjectProvider<KafkaListenerEndpointRegistry> kafkaRegistry,
+                                       ObjectProvider<JmsListenerEndpointRegistry> jmsRegistry,
+                                       Environment environment,
+                                       MeterRegistry meterRegistry) {
+        this.kafkaRegistry = kafkaRegistry;
+        this.jmsRegistry = jmsRegistry;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Decorator for a channel executor; pauses only the listeners consuming {@code queueName}.
+     * Watermarks come from {@code executor.<channel>.backpressure.*}, falling back to
+     * {@code executor.backpressure.*}. Without either they follow the executor's size: pause
+     * once every worker is busy and as many tasks again are waiting ({@code 2 * workers}),
+     * resume when the backlog is gone ({@code workers}). {@code workers} is read on every
+     * check, so it follows a pool resized at runtime.
+     */
+    public TaskDecorator forChannel(String channel, String queueName, IntSupplier workers) {
+        boolean enabled = environment.getProperty("executor.backpressure.enabled", Boolean.class, true);
+        if (!enabled) return task -> task;
+
+        Integer high = watermark(channel, "high-watermark");
+        Integer low = watermark(channel, "low-watermark");
+        return new ChannelCredits(channel, queueName,
+                high != null ? () -> high : () -> 2 * workers.getAsInt(),
+                low != null ? () -> low : workers);
+    }
+
+    /**
+     * Wraps a channel executor's rejection policy so a task that never runs (aborted, or dropped
+     * because the executor is shutting down) gives its credit back; otherwise every rejection
+     * would leak one and paused listeners would never reach the low watermark again.
+     */
+    public RejectedExecutionHandler releasingCredits(RejectedExecutionHandler delegate) {
+        return (task, executor) -> {
+            try {
+                delegate.rejectedExecution(task, executor);
+            } catch (RuntimeException e) {
+                releaseCredit(task);
+                throw e;
+            }
+            if (executor.isShutdown()) {
+                releaseCredit(task);
+            }
+        };
+    }
+
+    private void releaseCredit(Runnable task) {
+        if (task instanceof ChannelCredits.CreditedTask credited) {
+            credited.release();
+        }
+    }
+
+    private Integer watermark(String channel, String name) {
+        Integer shared = environment.getProperty("executor.backpressure." + name, Integer.class);
+        return environment.getProperty("executor." + channel + ".backpressure." + name, Integer.class, shared);
+    }
+
+    private class ChannelCredits implements TaskDecorator {
+
+        private final String channel;
+        private final String queueName;
+        private final IntSupplier highWatermark;
+        private final IntSupplier lowWatermark;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean paused;
+
+        private final Counter pauseCount;
+        private final Counter resumeCount;
+
+        private ChannelCredits(String channel, String queueName, IntSupplier highWatermark, IntSupplier lowWatermark) {
+            this.channel = channel;
+            this.queueName = queueName;
+            this.highWatermark = highWatermark;
+            this.lowWatermark = lowWatermark;
+
+            Tags tags = Tags.of("channel", channel);
+            Gauge.builder("notification.executor.inflight", inFlight, AtomicInteger::get).tags(tags).register(meterRegistry);
+            Gauge.builder("notification.listener.paused", this, c -> c.paused ? 1 : 0).tags(tags).register(meterRegistry);
+            this.pauseCount = Counter.builder("notification.listener.pause.count").tags(tags).register(meterRegistry);
+            this.resumeCount = Counter.builder("notification.listener.resume.count").tags(tags).register(meterRegistry);
+        }
+
+        @Override
+        public Runnable decorate(Runnable task) {
+            if (inFlight.incrementAndGet() >= highWatermark.getAsInt() && !paused) {
+                pause();
+            }
+            return new CreditedTask(task);
+        }
+
+        private void release() {
+            if (inFlight.decrementAndGet() <= lowWatermark.getAsInt() && paused) {
+                resume();
+            }
+        }
+
+        /**
+         * Holds one credit until it has run, or until the executor turns it away.
+         */
+        private class CreditedTask implements Runnable {
+
+            private final Runnable task;
+            private final AtomicBoolean released = new AtomicBoolean();
+
+            private CreditedTask(Runnable task) {
+                this.task = task;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    release();
+                }
+            }
+
+            private void release() {
+                if (released.compareAndSet(false, true)) {
+                    ChannelCredits.this.release();
+                }
+            }
+        }
+
+        // watermarks are re-checked under the lock so a racing pause/resume can't leave listeners stopped
+        private synchronized void pause() {
+            if (paused || inFlight.get() < highWatermark.getAsInt()) return;
+            paused = true;
+            pauseCount.increment();
+            log.warn("⏸️ Pausing {} listeners: {} tasks in flight (high watermark {})", channel, inFlight.get(), highWatermark.getAsInt());
+
+            kafkaContainers().forEach(MessageListenerContainer::pause);
+            jmsContainers().forEach(AbstractJmsListeningContainer::stop);
+        }
+
+        private synchronized void resume() {
+            if (!paused || inFlight.get() > lowWatermark.getAsInt()) return;
+            paused = false;
+            resumeCount.increment();
+            log.info("▶️ Resuming {} listeners: {} tasks in flight (low watermark {})", channel, inFlight.get(), lowWatermark.getAsInt());
+
+            kafkaContainers().forEach(MessageListenerContainer::resume);
+            jmsContainers().forEach(AbstractJmsListeningContainer::start);
+        }
+
+        private Collection<MessageListenerContainer> kafkaContainers() {
+            KafkaListenerEndpointRegistry registry = kafkaRegistry.getIfAvailable();
+            if (registry == null) return List.of();
+            return registry.getListenerContainers().stream()
+                    .filter(c -> {
+                        String[] topics = c.getContainerProperties().getTopics();
+                        return topics != null && Arrays.asList(topics).contains(queueName);
+                    })
+                    .toList();
+        }
+
+        private Collection<DefaultMessageListenerContainer> jmsContainers() {
+            JmsListenerEndpointRegistry registry = jmsRegistry.getIfAvailable();
+            if (registry == null) return List.of();
+            return registry.getListenerContainers().stream()
+                    .filter(DefaultMessageListenerContainer.class::isInstance)
+                    .map(DefaultMessageListenerContainer.class::cast)
+                    .filter(c -> !c.isPubSubDomain() && queueName.equals(c.getDestinationName()))
+                    .toList();
+        }
+    }
+}
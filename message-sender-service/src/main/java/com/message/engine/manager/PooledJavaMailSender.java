@@ -0,0 +1,273 @@
+package com.message.engine.manager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JavaMailSenderImpl that keeps authenticated SMTP transports open between sends instead of
+ * doing connect + STARTTLS + AUTH for every message.
+ * <ul>
+ *   <li>concurrent sessions are bounded per SMTP host through a permit shared by all pools on that host</li>
+ *   <li>idle transports are kept alive with NOOP and closed once idle for too long</li>
+ *   <li>a transport is recycled after a fixed number of messages or on any connection-level error;
+ *   after such an error the unsent rest of the batch is retried once on a fresh transport</li>
+ * </ul>
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledJavaMailSender.class);
+
+    private final Semaphore hostPermits;
+    private final int maxIdle;
+    private final int maxMessagesPerConnection;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validateAfterMs;
+
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile boolean closed;
+
+    private MeterRegistry meterRegistry;
+    private final List<Meter> meters = new ArrayList<>();
+    private Timer borrowWait;
+    private Counter opened;
+
+    public PooledJavaMailSender(Semaphore hostPermits,
+                                int maxIdle,
+                                int maxMessagesPerConnection,
+                                long borrowTimeoutMs,
+                                long idleTimeoutMs,
+                                long validateAfterMs) {
+        this.hostPermits = hostPermits;
+        this.maxIdle = maxIdle;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validateAfterMs = validateAfterMs;
+    }
+
+    public void bindMetrics(MeterRegistry registry, String configId) {
+        Tags tags = Tags.of("configId", String.valueOf(configId), "host", String.valueOf(getHost()));
+        this.meterRegistry = registry;
+        this.borrowWait = Timer.builder("mail.smtp.pool.borrow.wait").tags(tags).register(registry);
+        this.opened = Counter.builder("mail.smtp.pool.connections.opened").tags(tags).register(registry);
+        meters.add(borrowWait);
+        meters.add(opened);
+        meters.add(Gauge.builder("mail.smtp.pool.active", active, AtomicInteger::get).tags(tags).register(registry));
+        meters.add(Gauge.builder("mail.smtp.pool.idle", idle, LinkedBlockingDeque::size).tags(tags).register(registry));
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+        PooledTransport pooled;
+        try {
+            pooled = borrow();
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (Exception ex) {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessages[i], ex);
+            }
+            throw new MailSendException("Mail server connection failed", ex, failedMessages);
+        }
+
+        // a transport that went stale while idle (server-side disconnect) fails on its first
+        // command, so the unsent rest of the batch gets one more go on a fresh connection
+        boolean retried = false;
+        try {
+            int i = 0;
+            while (i < mimeMessages.length) {
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null) {
+                        // Preserve explicitly specified message id, as saveChanges resets it
+                        mimeMessage.setHeader("Message-ID", messageId);
+                    }
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    pooled.transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                    pooled.messagesSent++;
+                    i++;
+                } catch (Exception ex) {
+                    // recipient-level rejections leave the session usable, anything else does not
+                    if (ex instanceof SendFailedException) {
+                        failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessage, ex);
+                        i++;
+                        continue;
+                    }
+                    release(pooled, true);
+                    pooled = null;
+
+                    Exception cause = ex;
+                    if (!retried) {
+                        retried = true;
+                        try {
+                            pooled = borrow();
+                            log.info("🔄 SMTP connection to {} failed ({}), retrying {} unsent messages on a new one",
+                                    getHost(), ex.getMessage(), mimeMessages.length - i);
+                            continue;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            cause = e;
+                        } catch (Exception e) {
+                            cause = e;
+                        }
+                    }
+                    for (int j = i; j < mimeMessages.length; j++) {
+                        failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], cause);
+                    }
+                    break;
+                }
+            }
+        } finally {
+            if (pooled != null) {
+                release(pooled, false);
+            }
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException, InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("SMTP pool for " + getHost() + " is closed");
+        }
+
+        long start = System.nanoTime();
+        if (!hostPermits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("Timed out after " + borrowTimeoutMs + " ms waiting for an SMTP connection to " + getHost());
+        }
+        if (borrowWait != null) {
+            borrowWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            PooledTransport pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    active.incrementAndGet();
+                    return pooled;
+                }
+                closeQuietly(pooled);
+            }
+
+            Transport transport = connectTransport();
+            if (opened != null) {
+                opened.increment();
+            }
+            active.incrementAndGet();
+            return new PooledTransport(transport);
+        } catch (MessagingException | RuntimeException ex) {
+            hostPermits.release();
+            throw ex;
+        }
+    }
+
+    private void release(PooledTransport pooled, boolean broken) {
+        active.decrementAndGet();
+        hostPermits.release();
+
+        if (closed || broken || pooled.messagesSent >= maxMessagesPerConnection || idle.size() >= maxIdle) {
+            closeQuietly(pooled);
+            return;
+        }
+        pooled.lastUsed = System.currentTimeMillis();
+        idle.offerFirst(pooled); // LIFO keeps the hottest connections in use, extras age out
+    }
+
+    private boolean isUsable(PooledTransport pooled) {
+        if (pooled.messagesSent >= maxMessagesPerConnection) return false;
+        if (System.currentTimeMillis() - pooled.lastUsed < validateAfterMs) return true;
+        return pooled.transport.isConnected(); // SMTPTransport issues a NOOP here
+    }
+
+    /**
+     * Keepalive / health sweep: drops transports idle for longer than the idle timeout and
+     * NOOPs the rest so the server doesn't close them under us.
+     */
+    public void evictIdle() {
+        // take them all out first so a borrower never shares a transport with the NOOP, and so
+        // the ones kept are not visited again within this pass
+        List<PooledTransport> sweep = new ArrayList<>(idle.size());
+        idle.drainTo(sweep);
+
+        List<PooledTransport> keep = new ArrayList<>(sweep.size());
+        for (PooledTransport pooled : sweep) {
+            if (closed || System.currentTimeMillis() - pooled.lastUsed > idleTimeoutMs || !pooled.transport.isConnected()) {
+                closeQuietly(pooled);
+            } else {
+                keep.add(pooled);
+            }
+        }
+        for (PooledTransport pooled : keep) {
+            if (closed || !idle.offerLast(pooled)) {
+                closeQuietly(pooled);
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled);
+        }
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    private void closeQuietly(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP transport to {}: {}", getHost(), e.getMessage());
+        }
+    }
+
+    private static class PooledTransport {
+        private final Transport transport;
+        private int messagesSent;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
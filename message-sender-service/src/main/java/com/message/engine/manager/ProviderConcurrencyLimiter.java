@@ -0,0 +1,101 @@
+package com.message.engine.manager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent calls per channel + provider, independent of how many worker threads the
+ * channel executor runs. With platform threads the pool size already bounds this; with
+ * virtual threads it is what keeps a few thousand cheap threads from all hitting Twilio or
+ * Firebase at once.
+ * <p>
+ * Limits: {@code provider.concurrency.<channel>.<provider>}, default {@code provider.concurrency.default}.
+ */
+@Component
+public class ProviderConcurrencyLimiter {
+
+    @FunctionalInterface
+    public interface ProviderCall {
+        void run() throws Exception;
+    }
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    @Value("${provider.concurrency.default:50}")
+    private int defaultLimit;
+
+    @Value("${provider.concurrency.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs;
+
+    public ProviderConcurrencyLimiter(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the provider call once a permit is free. Throws {@link TimeoutException} if none frees
+     * up in time, which the send services treat like any other failed attempt (fallback config).
+     */
+    public void run(String channel, String provider, ProviderCall call) throws Exception {
+        Limit limit = acquire(channel, provider);
+        try {
+            call.run();
+        } finally {
+            limit.permits.release();
+        }
+    }
+
+    /**
+     * Like {@link #run}, for calls that complete asynchronously: the permit is held until the
+     * returned future completes, not just until the call returns.
+     */
+    public <T> CompletableFuture<T> runAsync(String channel, String provider, Supplier<CompletableFuture<T>> call) throws Exception {
+        Limit limit = acquire(channel, provider);
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            limit.permits.release();
+            throw e;
+        }
+        return result.whenComplete((value, error) -> limit.permits.release());
+    }
+
+    private Limit acquire(String channel, String provider) throws Exception {
+        String name = provider == null ? "default" : provider.toLowerCase();
+        Limit limit = limits.computeIfAbsent(channel + "." + name, key -> newLimit(channel, name));
+
+        if (!limit.permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("No " + channel + " capacity for provider " + name
+                    + " within " + acquireTimeoutMs + " ms (limit " + limit.size + ")");
+        }
+        return limit;
+    }
+
+    private Limit newLimit(String channel, String provider) {
+        int size = environment.getProperty("provider.concurrency." + channel + "." + provider, Integer.class, defaultLimit);
+        Limit limit = new Limit(new Semaphore(size, true), size);
+        Gauge.builder("notification.provider.inflight", limit, l -> l.size - l.permits.availablePermits())
+                .tags(Tags.of("channel", channel, "provider", provider))
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private record Limit(Semaphore permits, int size) {
+    }
+}
@@ -6,15 +6,41 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.notification.common.dto.CachedSmsClient;
 import com.notification.common.model.NotificationConfig;
 import com.notification.common.repository.NotificationConfigRepository;
+import com.twilio.Twilio;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Caches SMS provider configs and owns the Twilio clients used by the SMS, WhatsApp and voice
+ * senders. Every Twilio account gets its own {@link TwilioRestClient} (keyed by accountSid and a
+ * hash of its credentials), so tenants sending concurrently never share or reconfigure the
+ * global {@code Twilio.init} client. All of them run on one pooled HTTP client, since every call
+ * goes to the same Twilio API host.
+ */
 @Component
 public class SmsConnectionPoolManager {
 
+    private static final Logger log = LoggerFactory.getLogger(SmsConnectionPoolManager.class);
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final Cache<String, CachedSmsClient> cache = Caffeine.newBuilder()
@@ -23,12 +49,77 @@ public class SmsConnectionPoolManager {
             .maximumSize(100)
             .build(this::reloadFromMongo);
 
+    // "<accountSid>:<credentials hash>" -> client; a rotated auth token gets a new entry
+    private final Cache<String, TwilioRestClient> twilioClients = Caffeine.newBuilder()
+            .expireAfterAccess(15, TimeUnit.MINUTES)
+            .maximumSize(100)
+            .build();
+
     private final NotificationConfigRepository notificationConfigRepository;
 
+    private PoolingHttpClientConnectionManager twilioConnections;
+    private CloseableHttpClient twilioApacheClient;
+    private NetworkHttpClient twilioHttpClient;
+
+    @Value("${twilio.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${twilio.http.connect-timeout-ms:10000}")
+    private int connectTimeoutMs;
+
+    @Value("${twilio.http.socket-timeout-ms:30500}")
+    private int socketTimeoutMs;
+
+    @Value("${twilio.http.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
+
     public SmsConnectionPoolManager(NotificationConfigRepository repo) {
         this.notificationConfigRepository = repo;
     }
 
+    @PostConstruct
+    public void initTwilioHttpClient() {
+        twilioConnections = new PoolingHttpClientConnectionManager(idleTimeoutMs, TimeUnit.MILLISECONDS);
+        twilioConnections.setMaxTotal(maxConnections);
+        // all requests go to api.twilio.com, so one route can use the whole pool
+        twilioConnections.setDefaultMaxPerRoute(maxConnections);
+        twilioConnections.setValidateAfterInactivity(2000);
+
+        // built here and handed over finished: NetworkHttpClient(HttpClientBuilder) would swap in
+        // its own connection manager (10 per route, 20 total) and request config
+        twilioApacheClient = HttpClientBuilder.create()
+                .setConnectionManager(twilioConnections)
+                .setConnectionManagerShared(true)
+                .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setConnectionRequestTimeout(connectTimeoutMs)
+                        .setSocketTimeout(socketTimeoutMs)
+                        .build())
+                .setDefaultHeaders(List.of(
+                        new BasicHeader("X-Twilio-Client", "java-" + Twilio.VERSION),
+                        new BasicHeader(HttpHeaders.ACCEPT, "application/json"),
+                        new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "utf-8")))
+                .build();
+        twilioHttpClient = new NetworkHttpClient(twilioApacheClient);
+        log.info("📡 Twilio HTTP pool ready (max {} connections)", maxConnections);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        twilioClients.invalidateAll();
+        if (twilioApacheClient != null) {
+            try {
+                twilioApacheClient.close();
+            } catch (IOException e) {
+                log.debug("Error closing Twilio HTTP client: {}", e.getMessage());
+            }
+        }
+        if (twilioConnections != null) {
+            twilioConnections.close();
+        }
+    }
+
     private CachedSmsClient reloadFromMongo(String configId) {
         NotificationConfig config = notificationConfigRepository.findById(configId)
                 .orElseThrow(() -> new RuntimeException("SMS Config not found: " + configId));
@@ -67,4 +158,34 @@ public class SmsConnectionPoolManager {
             return newClient.getConfig();
         }
     }
+
+    /**
+     * Returns the Twilio client for the account in {@code config} (accountSid, authToken and
+     * optional region / edge), creating it on first use.
+     */
+    public TwilioRestClient getTwilioClient(Map<String, Object> config) {
+        String accountSid = required(config, "accountSid");
+        String authToken = required(config, "authToken");
+        String region = Objects.toString(config.get("region"), null);
+        String edge = Objects.toString(config.get("edge"), null);
+
+        String key = accountSid + ":" + DigestUtils.sha256Hex(accountSid + ":" + authToken + ":" + region + ":" + edge);
+        return twilioClients.get(key, k -> {
+            log.info("📡 Creating Twilio client for account {}", accountSid);
+            return new TwilioRestClient.Builder(accountSid, authToken)
+                    .accountSid(accountSid)
+                    .region(region)
+                    .edge(edge)
+                    .httpClient(twilioHttpClient)
+                    .build();
+        });
+    }
+
+    private String required(Map<String, Object> config, String key) {
+        Object value = config.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + key + " in Twilio config");
+        }
+        return value.toString();
+    }
 }
@@ -0,0 +1,190 @@
+package com.message.engine.scheduler;
+
+import com.message.engine.service.NotificationPayloadReader;
+import com.message.engine.service.email.EmailBatchDispatcher;
+import com.message.engine.service.notification.PushBatchDispatcher;
+import com.message.engine.service.queue.NotificationRouterService;
+import com.message.engine.service.sms.SmsSendService;
+import com.message.engine.service.voice.VoiceSendService;
+import com.message.engine.service.webhook.WebhookSendService;
+import com.message.engine.service.whatsapp.WhatsAppSendService;
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.enums.MessagingMode;
+import com.notification.common.model.UnsentMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.jms.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Replays one unsent message. Messages for a channel queue that is enabled on this instance go
+ * straight to that channel's send path, on the channel's executor, exactly as if the listener
+ * had consumed them. Everything else (cache-eviction topics, channels disabled here, unknown
+ * destinations) is re-published to the broker recorded on the message.
+ */
+@Component
+public class UnsentMessageDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(UnsentMessageDispatcher.class);
+
+    private final Environment environment;
+    private final NotificationPayloadReader payloadReader;
+    private final EmailBatchDispatcher emailBatchDispatcher;
+    private final PushBatchDispatcher pushBatchDispatcher;
+    private final SmsSendService smsSendService;
+    private final WhatsAppSendService whatsAppSendService;
+    private final VoiceSendService voiceSendService;
+    private final WebhookSendService webhookSendService;
+    private final NotificationRouterService notificationRouterService;
+    private final AsyncTaskExecutor smsTaskExecutor;
+    private final AsyncTaskExecutor whatsappTaskExecutor;
+    private final AsyncTaskExecutor voiceTaskExecutor;
+    private final AsyncTaskExecutor webhookTaskExecutor;
+    private final AsyncTaskExecutor queueTaskExecutor;
+    private final ObjectProvider<KafkaTemplate<String, String>> kafkaTemplate;
+    private final ObjectProvider<ConnectionFactory> connectionFactory;
+
+    // queue name -> local send path, for channels enabled on this instance
+    private final Map<String, Function<NotificationPayloadDTO, CompletableFuture<Void>>> channels = new HashMap<>();
+    private Set<String> topics;
+    private JmsTemplate queueTemplate;
+    private JmsTemplate topicTemplate;
+
+    public UnsentMessageDispatcher(Environment environment,
+                                   NotificationPayloadReader payloadReader,
+                                   EmailBatchDispatcher emailBatchDispatcher,
+                                   PushBatchDispatcher pushBatchDispatcher,
+                                   SmsSendService smsSendService,
+                                   WhatsAppSendService whatsAppSendService,
+                                   VoiceSendService voiceSendService,
+                                   WebhookSendService webhookSendService,
+                                   NotificationRouterService notificationRouterService,
+                                   @Qualifier("smsTaskExecutor") AsyncTaskExecutor smsTaskExecutor,
+                                   @Qualifier("whatsappTaskExecutor") AsyncTaskExecutor whatsappTaskExecutor,
+                                   @Qualifier("voiceTaskExecutor") AsyncTaskExecutor voiceTaskExecutor,
+                                   @Qualifier("webhookTaskExecutor") AsyncTaskExecutor webhookTaskExecutor,
+                                   @Qualifier("queueTaskExecutor") AsyncTaskExecutor queueTaskExecutor,
+                                   ObjectProvider<KafkaTemplate<String, String>> kafkaTemplate,
+                                   ObjectProvider<ConnectionFactory> connectionFactory) {
+        this.environment = environment;
+        this.payloadReader = payloadReader;
+        this.emailBatchDispatcher = emailBatchDispatcher;
+        this.pushBatchDispatcher = pushBatchDispatcher;
+        this.smsSendService = smsSendService;
+        this.whatsAppSendService = whatsAppSendService;
+        this.voiceSendService = voiceSendService;
+        this.webhookSendService = webhookSendService;
+        this.notificationRouterService = notificationRouterService;
+        this.smsTaskExecutor = smsTaskExecutor;
+        this.whatsappTaskExecutor = whatsappTaskExecutor;
+        this.voiceTaskExecutor = voiceTaskExecutor;
+        this.webhookTaskExecutor = webhookTaskExecutor;
+        this.queueTaskExecutor = queueTaskExecutor;
+        this.kafkaTemplate = kafkaTemplate;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @PostConstruct
+    public void init() {
+        register("email", emailBatchDispatcher::dispatch);
+        register("push", pushBatchDispatcher::dispatch);
+        register("sms", payload -> CompletableFuture.runAsync(
+                () -> smsSendService.sendSms(payloadReader.resolve(payload)), smsTaskExecutor));
+        register("whatsapp", payload -> CompletableFuture.runAsync(
+                () -> whatsAppSendService.sendWhatsApp(payloadReader.resolve(payload)), whatsappTaskExecutor));
+        register("voice", payload -> CompletableFuture.runAsync(
+                () -> voiceSendService.sendVoice(payloadReader.resolve(payload)), voiceTaskExecutor));
+        register("webhook", payload -> CompletableFuture.runAsync(
+                () -> webhookSendService.sendWebhook(payloadReader.resolve(payload)), webhookTaskExecutor));
+        // the "queue" channel reads publish.queue.name; a failed publish is already in FailedQueueLog
+        register("queue", "publish", payload -> CompletableFuture
+                .supplyAsync(() -> payloadReader.resolve(payload), queueTaskExecutor)
+                .thenCompose(resolved -> notificationRouterService.routeAsync(resolved)
+                        .exceptionally(e -> {
+                            log.error("❌ Replayed publish queue message failed: {}", e.getMessage());
+                            return null;
+                        })));
+
+        topics = Set.of(environment.getProperty("email.cache.eviction", ""),
+                environment.getProperty("storage.cache.eviction", ""));
+
+        ConnectionFactory factory = connectionFactory.getIfAvailable();
+        if (factory != null) {
+            queueTemplate = new JmsTemplate(factory);
+            topicTemplate = new JmsTemplate(factory);
+            topicTemplate.setPubSubDomain(true);
+        }
+        log.info("🔁 Unsent replay delivers locally to {}", channels.keySet());
+    }
+
+    /**
+     * @return completes once the message is handed over; fails if it should be retried later
+     */
+    public CompletableFuture<Void> replay(UnsentMessage message) {
+        try {
+            Function<NotificationPayloadDTO, CompletableFuture<Void>> channel = channels.get(message.getQueueName());
+            if (channel == null) {
+                return republish(message);
+            }
+            // the unsent store always holds JSON text
+            NotificationPayloadDTO payload = PayloadCodecs.json().decode(message.getMessage().getBytes(StandardCharsets.UTF_8));
+            return channel.apply(payload);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> republish(UnsentMessage message) {
+        MessagingMode mode = message.getMessagingType() == null ? MessagingMode.BOTH : message.getMessagingType();
+        CompletableFuture<Void> kafka = mode == MessagingMode.ACTIVEMQ ? CompletableFuture.completedFuture(null) : toKafka(message);
+        CompletableFuture<Void> artemis = mode == MessagingMode.KAFKA ? CompletableFuture.completedFuture(null) : toArtemis(message);
+        return CompletableFuture.allOf(kafka, artemis);
+    }
+
+    private CompletableFuture<Void> toKafka(UnsentMessage message) {
+        KafkaTemplate<String, String> template = kafkaTemplate.getIfAvailable();
+        if (template == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No Kafka producer to re-publish " + message.getId()));
+        }
+        return template.send(message.getQueueName(), message.getMessage()).thenApply(result -> (Void) null);
+    }
+
+    private CompletableFuture<Void> toArtemis(UnsentMessage message) {
+        if (queueTemplate == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No JMS connection to re-publish " + message.getId()));
+        }
+        try {
+            JmsTemplate template = topics.contains(message.getQueueName()) ? topicTemplate : queueTemplate;
+            template.convertAndSend(message.getQueueName(), message.getMessage());
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void register(String channel, Function<NotificationPayloadDTO, CompletableFuture<Void>> send) {
+        register(channel, channel, send);
+    }
+
+    private void register(String channel, String queueProperty, Function<NotificationPayloadDTO, CompletableFuture<Void>> send) {
+        String queueName = environment.getProperty(queueProperty + ".queue.name");
+        if (queueName != null && environment.getProperty(channel + ".enabled", Boolean.class, false)) {
+            channels.put(queueName, send);
+        }
+    }
+}
@@ -1,77 +1,204 @@
 package com.message.engine.scheduler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.message.engine.service.email.EmailSendService;
-import com.notification.common.dto.NotificationPayloadDTO;
 import com.notification.common.model.UnsentMessage;
 import com.notification.common.repository.UnsentMessageRepository;
-import com.notification.common.utils.JsonUtil;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays unsent_messages. Each run walks the collection in {@code _id} order with a cursor, so
+ * deleting replayed rows never shifts what comes next. Every page of due candidates is claimed
+ * under a lease ({@code unsent.retry.lease-ms}) with a conditional update, which lets several
+ * sender instances share the backlog without replaying the same row twice.
+ * <p>
+ * Claimed rows are replayed concurrently through {@link UnsentMessageDispatcher}. Replayed rows
+ * are deleted in one call per page; failed rows get their attempt count bumped and are not due
+ * again until an exponential backoff ({@code unsent.retry.backoff-ms} doubling up to
+ * {@code unsent.retry.max-backoff-ms}) has passed.
+ */
 @Component
-@RequiredArgsConstructor
 public class UnsentMessageRetryScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(UnsentMessageRetryScheduler.class);
 
     private final UnsentMessageRepository repository;
-    private final EmailSendService emailSendService;
-    private final ObjectMapper objectMapper;
+    private final MongoTemplate mongoTemplate;
+    private final UnsentMessageDispatcher dispatcher;
+    private final MeterRegistry meterRegistry;
 
-    private final ExecutorService emailExecutor = Executors.newFixedThreadPool(5);
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Timer runTimer;
 
     @Value("${unsent.retry.enabled:false}")
     private boolean retryEnabled;
 
-    @Value("${unsent.retry.interval-ms:6000}")
-    private long retryInterval;
-
     @Value("${unsent.retry.batch-size:50}")
     private int batchSize;
 
-    @Scheduled(fixedDelayString = "${unsent.retry.interval-ms}")
+    @Value("${unsent.retry.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${unsent.retry.backoff-ms:5000}")
+    private long backoffMs;
+
+    @Value("${unsent.retry.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    public UnsentMessageRetryScheduler(UnsentMessageRepository repository,
+                                       MongoTemplate mongoTemplate,
+                                       UnsentMessageDispatcher dispatcher,
+                                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.dispatcher = dispatcher;
+        this.meterRegistry = meterRegistry;
+        this.runTimer = Timer.builder("notification.unsent.replay.run").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${unsent.retry.interval-ms:6000}")
     public void retryUnsentMessages() {
         if (!retryEnabled) return;
 
-        int page = 0;
+        long started = System.nanoTime();
+        int replayed = 0;
+        int failed = 0;
+        String cursor = null;
 
         while (true) {
-            Page<UnsentMessage> messagePage = repository.findAll(PageRequest.of(page, batchSize));
-            List<UnsentMessage> messages = messagePage.getContent();
-
-            if (messages.isEmpty()) break;
-
-            for (UnsentMessage message : messages) {
-                emailExecutor.submit(() -> {
-                    try {
-                        log.info("📩 Retrying unsent message: {}", message);
-                        NotificationPayloadDTO request = JsonUtil.fromJsonWithJavaTime(
-                                message.getMessage(), NotificationPayloadDTO.class);
-
-                        emailSendService.sendEmail(request);
-                        repository.deleteById(message.getId());
-
-                        log.info("✅ Retried and removed unsent message with id {}", message.getId());
-                    } catch (Exception e) {
-                        log.error("❌ Retry failed for message id {}: {}", message.getId(), e.getMessage(), e);
-                    }
-                });
+            long now = System.currentTimeMillis();
+            List<String> candidates = nextCandidates(cursor, now);
+            if (candidates.isEmpty()) break;
+            cursor = candidates.get(candidates.size() - 1);
+
+            List<UnsentMessage> claimed = claim(candidates, now);
+            if (!claimed.isEmpty()) {
+                int sent = replay(claimed);
+                replayed += sent;
+                failed += claimed.size() - sent;
             }
 
-            if (!messagePage.hasNext()) break;
-            page++;
+            if (candidates.size() < batchSize) break;
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (replayed + failed > 0) {
+            double seconds = Math.max(elapsedNanos / 1e9, 0.001);
+            log.info("🔁 Unsent replay: {} replayed, {} failed in {} ms ({} msg/s)",
+                    replayed, failed, elapsedNanos / 1_000_000, Math.round(replayed / seconds));
+        }
+    }
+
+    private List<String> nextCandidates(String cursor, long now) {
+        Criteria criteria = due(now);
+        if (cursor != null) {
+            criteria = new Criteria().andOperator(Criteria.where("_id").gt(cursor), criteria);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, UnsentMessage.class).stream()
+                .map(UnsentMessage::getId)
+                .toList();
+    }
+
+    /**
+     * The claim token is unique per page, so reading back by it returns exactly the rows this
+     * instance won, even if another instance raced for the same candidates.
+     */
+    private List<UnsentMessage> claim(List<String> ids, long now) {
+        String token = instanceId + ":" + UUID.randomUUID();
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), due(now))),
+                new Update().set("claimedBy", token).set("claimedUntil", now + leaseMs),
+                UnsentMessage.class);
+        return repository.findByClaimedByOrderByIdAsc(token);
+    }
+
+    // not backing off, and not leased to someone else (missing fields count as due)
+    private Criteria due(long now) {
+        return new Criteria().andOperator(
+                Criteria.where("nextAttemptAt").not().gt(now),
+                Criteria.where("claimedUntil").not().gte(now));
+    }
+
+    private int replay(List<UnsentMessage> claimed) {
+        ConcurrentLinkedQueue<String> replayed = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>(claimed.size());
+
+        for (UnsentMessage message : claimed) {
+            outcomes.add(dispatcher.replay(message).handle((result, error) -> {
+                if (error == null) {
+                    replayed.add(message.getId());
+                    counter(message, "replayed").increment();
+                } else {
+                    backOff(message, error);
+                    counter(message, "failed").increment();
+                }
+                return null;
+            }));
         }
+
+        try {
+            CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0])).get(leaseMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // still-running replays keep their lease; if they never finish the rows become due again
+            log.warn("⚠️ Unsent replay page not finished within lease of {} ms", leaseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Unsent replay page failed", e);
+        }
+
+        List<String> done = new ArrayList<>(replayed);
+        if (!done.isEmpty()) {
+            repository.deleteAllById(done);
+        }
+        return done.size();
     }
 
+    private void backOff(UnsentMessage message, Throwable error) {
+        int attempts = message.getAttempts() + 1;
+        long delay = Math.min(maxBackoffMs, backoffMs << Math.min(attempts - 1, 20));
+        String reason = error.getCause() != null ? error.getCause().getMessage() : error.getMessage();
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(message.getId()).and("claimedBy").is(message.getClaimedBy())),
+                new Update()
+                        .set("attempts", attempts)
+                        .set("nextAttemptAt", System.currentTimeMillis() + delay)
+                        .set("lastError", reason)
+                        .unset("claimedBy")
+                        .unset("claimedUntil"),
+                UnsentMessage.class);
+        log.warn("⚠️ Replay of unsent message {} to {} failed (attempt {}), next try in {} ms: {}",
+                message.getId(), message.getQueueName(), attempts, delay, reason);
+    }
+
+    private Counter counter(UnsentMessage message, String outcome) {
+        return Counter.builder("notification.unsent.replay")
+                .tag("queue", String.valueOf(message.getQueueName()))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,126 @@
+package com.message.engine.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Groups items by key for up to {@code lingerMs} or {@code maxSize} items, whichever comes
+ * first, and hands each group to the handler on the given executor. Every {@link #add} returns
+ * a future that completes once the handler has returned for that item's group, which is what
+ * the Kafka batch listeners wait on before committing.
+ */
+public class MicroBatcher<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final String name;
+    private final Executor executor;
+    private final long lingerMs;
+    private final int maxSize;
+    private final Consumer<List<T>> handler;
+
+    private final ScheduledExecutorService linger;
+
+    // key -> batch still collecting; guarded by itself
+    private final Map<String, List<Pending<T>>> pending = new HashMap<>();
+
+    public MicroBatcher(String name, Executor executor, long lingerMs, int maxSize, Consumer<List<T>> handler) {
+        this.name = name;
+        this.executor = executor;
+        this.lingerMs = lingerMs;
+        this.maxSize = maxSize;
+        this.handler = handler;
+        this.linger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-batch-linger");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @param key items with the same key may share a batch; null sends the item on its own
+     */
+    public CompletableFuture<Void> add(String key, T item) {
+        Pending<T> entry = new Pending<>(item, new CompletableFuture<>());
+        if (key == null || maxSize <= 1) {
+            submit(List.of(entry));
+            return entry.done();
+        }
+
+        List<Pending<T>> ready = null;
+        synchronized (pending) {
+            List<Pending<T>> batch = pending.get(key);
+            if (batch == null) {
+                batch = new ArrayList<>(Math.min(maxSize, 64));
+                pending.put(key, batch);
+                List<Pending<T>> scheduled = batch;
+                linger.schedule(() -> flush(key, scheduled), lingerMs, TimeUnit.MILLISECONDS);
+            }
+            batch.add(entry);
+            if (batch.size() >= maxSize) {
+                pending.remove(key);
+                ready = batch;
+            }
+        }
+
+        if (ready != null) {
+            submit(ready);
+        }
+        return entry.done();
+    }
+
+    /**
+     * Stops the linger timer and submits whatever is still collecting.
+     */
+    public void shutdown() {
+        linger.shutdownNow();
+        List<List<Pending<T>>> remaining;
+        synchronized (pending) {
+            remaining = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        remaining.forEach(this::submit);
+    }
+
+    private void flush(String key, List<Pending<T>> batch) {
+        synchronized (pending) {
+            // the batch may already have gone out on size; only flush the one we scheduled for
+            if (pending.get(key) != batch) return;
+            pending.remove(key);
+        }
+        submit(batch);
+    }
+
+    private void submit(List<Pending<T>> batch) {
+        try {
+            executor.execute(() -> run(batch));
+        } catch (RuntimeException e) {
+            batch.forEach(entry -> entry.done().completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private void run(List<Pending<T>> batch) {
+        try {
+            handler.accept(batch.stream().map(Pending::item).toList());
+        } catch (Exception e) {
+            log.error("❌ Failed to process {} batch of {}", name, batch.size(), e);
+        } finally {
+            batch.forEach(entry -> entry.done().complete(null));
+        }
+    }
+
+    private record Pending<T>(T item, CompletableFuture<Void> done) {
+    }
+}
@@ -2,8 +2,12 @@ package com.message.engine.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.message.engine.manager.ActiveMqConnectionPool;
 import com.message.engine.manager.EmailConnectionPoolManager;
+import com.message.engine.manager.FirebaseClientPool;
+import com.message.engine.manager.KafkaProducerPool;
 import com.message.engine.manager.SmsConnectionPoolManager;
+import com.message.engine.service.notification.FcmTokenService;
 import com.notification.common.repository.NotificationConfigRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,21 +22,47 @@ public class NotificationConfigCacheEvictionService {
     private final EmailConnectionPoolManager poolManager;
 
     private final SmsConnectionPoolManager smsConnectionPoolManager;
+    private final NotificationPayloadReader payloadReader;
+    private final FirebaseClientPool firebaseClientPool;
+    private final FcmTokenService fcmTokenService;
+    private final KafkaProducerPool kafkaProducerPool;
+    private final ActiveMqConnectionPool activeMqConnectionPool;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public NotificationConfigCacheEvictionService(NotificationConfigRepository repository,
-                                                  EmailConnectionPoolManager poolManager, SmsConnectionPoolManager smsConnectionPoolManager) {
+                                                  EmailConnectionPoolManager poolManager, SmsConnectionPoolManager smsConnectionPoolManager,
+                                                  NotificationPayloadReader payloadReader,
+                                                  FirebaseClientPool firebaseClientPool,
+                                                  FcmTokenService fcmTokenService,
+                                                  KafkaProducerPool kafkaProducerPool,
+                                                  ActiveMqConnectionPool activeMqConnectionPool) {
         this.repository = repository;
         this.poolManager = poolManager;
         this.smsConnectionPoolManager = smsConnectionPoolManager;
+        this.payloadReader = payloadReader;
+        this.firebaseClientPool = firebaseClientPool;
+        this.fcmTokenService = fcmTokenService;
+        this.kafkaProducerPool = kafkaProducerPool;
+        this.activeMqConnectionPool = activeMqConnectionPool;
     }
 
     public void handleMessage(String message) {
         try {
             JsonNode jsonNode = objectMapper.readTree(message);
+            // FCM token registrations share the config eviction topic
+            if (jsonNode.hasNonNull("fcmTokenPhone")) {
+                String phone = jsonNode.get("fcmTokenPhone").asText();
+                fcmTokenService.evict(phone);
+                log.info("✅ FCM token cache evicted for {}", phone);
+                return;
+            }
             String configId = jsonNode.get("notificationConfigId").asText();
             poolManager.evict(configId);
             smsConnectionPoolManager.evict(configId);
+            payloadReader.evictConfig(configId);
+            firebaseClientPool.evict(configId);
+            kafkaProducerPool.evict(configId);
+            activeMqConnectionPool.evict(configId);
             log.info("✅ Cache evicted for updated config ID: {}", configId);
         } catch (Exception e) {
             log.error("❌ Error processing eviction message: {}", message, e);
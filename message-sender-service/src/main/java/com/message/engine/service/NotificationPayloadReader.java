@@ -0,0 +1,172 @@
+package com.message.engine.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.repository.NotificationConfigRepository;
+import com.notification.common.repository.TemplateRepository;
+import com.notification.common.service.template.TemplateRenderService;
+import com.notification.common.utils.EncryptionUtil;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single entry point for turning a queued message into a {@link NotificationPayloadDTO}.
+ * The wire codec is picked per message from the codec header (JSON when absent).
+ * Snapshot payloads are returned as-is; reference payloads get their config and template
+ * resolved from local caches and rendered here, so send services always see snapshots.
+ */
+@Service
+public class NotificationPayloadReader {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPayloadReader.class);
+
+    private final NotificationConfigRepository configRepository;
+    private final TemplateRepository templateRepository;
+    private final TemplateRenderService templateRenderService;
+
+    // configId -> decrypted config, evicted through the config eviction topic
+    private final Cache<String, NotificationConfig> configCache = Caffeine.newBuilder()
+            .expireAfterAccess(15, TimeUnit.MINUTES)
+            .maximumSize(100)
+            .build();
+
+    // templateId:version -> template; a new version is simply a new key
+    private final Cache<String, TemplateEntity> templateCache = Caffeine.newBuilder()
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .maximumSize(500)
+            .build();
+
+    // templateId:version:paramsHash -> rendered body, shared by recipients with identical params
+    private final Cache<String, String> renderedCache = Caffeine.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .maximumSize(1000)
+            .build();
+
+    public NotificationPayloadReader(NotificationConfigRepository configRepository,
+                                     TemplateRepository templateRepository,
+                                     TemplateRenderService templateRenderService) {
+        this.configRepository = configRepository;
+        this.templateRepository = templateRepository;
+        this.templateRenderService = templateRenderService;
+    }
+
+    public NotificationPayloadDTO read(String message) {
+        return resolve(PayloadCodecs.json().decode(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public NotificationPayloadDTO read(ConsumerRecord<String, byte[]> record) {
+        return resolve(decode(record));
+    }
+
+    /**
+     * Decodes a Kafka record without resolving references.
+     */
+    public NotificationPayloadDTO decode(ConsumerRecord<String, byte[]> record) {
+        Header codec = record.headers().lastHeader(PayloadCodecs.HEADER_CODEC);
+        Header version = record.headers().lastHeader(PayloadCodecs.HEADER_VERSION);
+        return decode(record.value(),
+                codec == null ? null : new String(codec.value(), StandardCharsets.UTF_8),
+                version == null ? null : Integer.valueOf(new String(version.value(), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Decodes a JMS message without resolving references. Meant to run on the listener thread,
+     * which owns the JMS session; {@link #resolve} can then run on a worker.
+     */
+    public NotificationPayloadDTO decode(Message message) throws JMSException {
+        if (message instanceof TextMessage textMessage) {
+            return PayloadCodecs.json().decode(textMessage.getText().getBytes(StandardCharsets.UTF_8));
+        }
+        if (message instanceof BytesMessage bytesMessage) {
+            byte[] data = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(data);
+            Integer version = bytesMessage.propertyExists(PayloadCodecs.HEADER_VERSION)
+                    ? bytesMessage.getIntProperty(PayloadCodecs.HEADER_VERSION) : null;
+            return decode(data, bytesMessage.getStringProperty(PayloadCodecs.HEADER_CODEC), version);
+        }
+        throw new IllegalArgumentException("Unsupported JMS message type: " + message.getClass().getName());
+    }
+
+    public NotificationPayloadDTO decode(byte[] data, String codecName, Integer version) {
+        PayloadCodecs.checkVersion(version);
+        return PayloadCodecs.get(codecName).decode(data);
+    }
+
+    public NotificationPayloadDTO resolve(NotificationPayloadDTO payload) {
+        if (!payload.isReference()) {
+            return payload;
+        }
+
+        NotificationConfig config = configCache.get(payload.getConfigId(), this::loadConfig);
+        TemplateEntity template = templateCache.get(
+                payload.getTemplateId() + ":" + payload.getTemplateVersion(),
+                key -> loadTemplate(payload.getTemplateId(), payload.getTemplateVersion()));
+
+        TemplateEntity snapshot = template.copy();
+        snapshot.setContent(renderContent(template, payload));
+
+        payload.setSubject(templateRenderService.renderSubject(template, payload.getSubject(), payload.getCustomParams()));
+        payload.setSnapshotConfig(config);
+        payload.setSnapshotTemplate(snapshot);
+        return payload;
+    }
+
+    public void evictConfig(String configId) {
+        configCache.invalidate(configId);
+    }
+
+    private String renderContent(TemplateEntity template, NotificationPayloadDTO payload) {
+        if (payload.getParamsHash() == null) {
+            return templateRenderService.renderContent(template, payload.getCustomParams());
+        }
+        String key = template.getId() + ":" + template.getVersion() + ":" + payload.getParamsHash();
+        return renderedCache.get(key, k -> templateRenderService.renderContent(template, payload.getCustomParams()));
+    }
+
+    private NotificationConfig loadConfig(String configId) {
+        NotificationConfig config = configRepository.findById(configId)
+                .orElseThrow(() -> new IllegalStateException("No config found for id: " + configId));
+        config.setConfig(decryptSensitiveFields(config.getConfig()));
+        log.info("📥 Loaded config {} into payload cache", configId);
+        return config;
+    }
+
+    private TemplateEntity loadTemplate(String templateId, Long version) {
+        TemplateEntity template = templateRepository.findById(templateId)
+                .orElseThrow(() -> new IllegalStateException("No template found for id: " + templateId));
+        if (version != null && template.getVersion() != null && template.getVersion() < version) {
+            // the update has not reached this replica yet; don't pin the stale copy under the new key
+            throw new IllegalStateException("Template " + templateId + " is at version "
+                    + template.getVersion() + ", payload expects " + version);
+        }
+        return template;
+    }
+
+    private Map<String, Object> decryptSensitiveFields(Map<String, Object> config) {
+        if (config == null) return null;
+        Map<String, Object> decrypted = new HashMap<>(config);
+        if (decrypted.containsKey("password")) {
+            decrypted.put("password", EncryptionUtil.decrypt(decrypted.get("password").toString()));
+        }
+        if (decrypted.containsKey("authToken")) {
+            decrypted.put("authToken", EncryptionUtil.decrypt(decrypted.get("authToken").toString()));
+        }
+        return decrypted;
+    }
+}
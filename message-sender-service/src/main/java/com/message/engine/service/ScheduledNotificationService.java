@@ -2,11 +2,17 @@ package com.message.engine.service;
 
 import com.notification.common.model.ScheduledNotification;
 import com.notification.common.repository.ScheduledNotificationRepository;
+import com.notification.common.utils.CronScheduleUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ScheduledNotificationService {
@@ -14,6 +20,19 @@ public class ScheduledNotificationService {
     private final ScheduledNotificationRepository repository;
 
     public void saveScheduledEmail(ScheduledNotification request) {
+        if (request.getId() == null) {
+            // the shard key hashes the id, so assign it up front
+            request.setId(new ObjectId().toHexString());
+        }
+        request.setShardKey(ScheduledNotification.shardKeyFor(request.getId()));
+        if (request.getNextFireAt() == null) {
+            try {
+                request.setNextFireAt(CronScheduleUtil.nextFireAt(request, Instant.now()));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                // left unset; the scheduler deactivates jobs it can't evaluate
+                log.warn("⚠️ Invalid cron or zone on scheduled notification: {}", e.getMessage());
+            }
+        }
         repository.save(request);
     }
 
@@ -0,0 +1,102 @@
+package com.message.engine.service.email;
+
+import com.message.engine.service.MicroBatcher;
+import com.message.engine.service.NotificationPayloadReader;
+import com.notification.common.dto.NotificationPayloadDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sits between the email listeners and {@link EmailSendService}. Decoded payloads are grouped
+ * by NotificationConfig id for up to {@code email.batch.linger-ms} or {@code email.batch.max-size}
+ * messages, whichever comes first, and each group is sent over a single SMTP session.
+ */
+@Service
+public class EmailBatchDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBatchDispatcher.class);
+
+    private final AsyncTaskExecutor emailTaskExecutor;
+    private final EmailSendService emailSendService;
+    private final NotificationPayloadReader payloadReader;
+
+    private MicroBatcher<NotificationPayloadDTO> batcher;
+
+    @Value("${email.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${email.batch.linger-ms:50}")
+    private long lingerMs;
+
+    @Value("${email.batch.max-size:50}")
+    private int maxBatchSize;
+
+    public EmailBatchDispatcher(@Qualifier("emailTaskExecutor") AsyncTaskExecutor emailTaskExecutor,
+                                EmailSendService emailSendService,
+                                NotificationPayloadReader payloadReader) {
+        this.emailTaskExecutor = emailTaskExecutor;
+        this.emailSendService = emailSendService;
+        this.payloadReader = payloadReader;
+    }
+
+    @PostConstruct
+    public void init() {
+        batcher = new MicroBatcher<>("email", emailTaskExecutor, lingerMs, batchEnabled ? maxBatchSize : 1, this::sendBatch);
+    }
+
+    /**
+     * Accepts a decoded (not yet resolved) payload. Reference resolution and sending happen on
+     * the email executor once the batch is flushed.
+     *
+     * @return completes once the send outcome is final (sent, or recorded as failed)
+     */
+    public CompletableFuture<Void> dispatch(NotificationPayloadDTO payload) {
+        return batcher.add(configId(payload), payload);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.shutdown();
+    }
+
+    private void sendBatch(List<NotificationPayloadDTO> batch) {
+        if (batch.size() == 1) {
+            sendOne(batch.get(0));
+            return;
+        }
+
+        List<NotificationPayloadDTO> resolved = new ArrayList<>(batch.size());
+        for (NotificationPayloadDTO payload : batch) {
+            try {
+                resolved.add(payloadReader.resolve(payload));
+            } catch (Exception e) {
+                log.error("❌ Failed to process email message", e);
+            }
+        }
+
+        emailSendService.sendBatch(resolved);
+    }
+
+    private void sendOne(NotificationPayloadDTO payload) {
+        try {
+            emailSendService.sendEmail(payloadReader.resolve(payload));
+        } catch (Exception e) {
+            log.error("❌ Failed to process email message", e);
+        }
+    }
+
+    private String configId(NotificationPayloadDTO payload) {
+        if (payload.isReference()) return payload.getConfigId();
+        return payload.getSnapshotConfig() != null ? payload.getSnapshotConfig().getId() : null;
+    }
+}
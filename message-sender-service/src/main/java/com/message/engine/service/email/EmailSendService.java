@@ -11,6 +11,7 @@ import com.notification.common.model.*;
 import com.notification.common.repository.NotificationConfigRepository;
 import com.notification.common.service.upload.FileUploader;
 import com.notification.common.service.upload.HtmlCdnUploader;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,12 +20,14 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -51,15 +54,6 @@ public class EmailSendService {
 
     public void sendEmail(NotificationPayloadDTO request) {
         long startTime = System.currentTimeMillis();
-        String notificationConfigId = request.getSnapshotConfig().getId();
-        String templateId = request.getSnapshotTemplate().getId();
-        String toEmail = request.getTo();
-        List<String> cc = request.getCc();
-        List<String> bcc = request.getBcc();
-        String resolvedSubject = request.getSubject();
-
-        TemplateEntity template = request.getSnapshotTemplate();
-        NotificationConfig mainConfig = request.getSnapshotConfig();
 
         if (!isEmailSendingEnabled) {
             log.info("[EMAIL-SIMULATION] Email sending is DISABLED via configuration.");
@@ -67,111 +61,217 @@ public class EmailSendService {
         }
 
         try {
-            String htmlContent = template.getContent();
-            if (htmlContent == null && StringUtils.isNotBlank(template.getCdnUrl())) {
-                htmlContent = htmlCdnUploader.fetchFromCdn(template.getCdnUrl());
-                htmlCdnUploader.deleteFromCdn(template.getCdnUrl());
-            }
+            PreparedEmail email = prepare(request);
 
-            PreparedEmailContent content = new PreparedEmailContent(resolvedSubject, htmlContent, new ArrayList<>());
+            // Try sending
+            if (trySend(email.getConfig(), email)) return;
+
+            sendWithFallbacks(email);
+
+        } catch (Exception e) {
+            log.error("Exception occurred while sending email: {}", e.getMessage(), e);
+            throw e;
+        } finally {
+            long duration = System.currentTimeMillis() - startTime;
+            log.info("⏱️ Email sending process completed in {} ms", duration);
+        }
+    }
+
+    /**
+     * Sends emails that share a NotificationConfig through a single {@code send(MimeMessage...)}
+     * call, i.e. one SMTP session. Each message that the server rejects, or that fails to build,
+     * falls through to the usual fallback chain on its own; the rest of the batch is unaffected.
+     */
+    public void sendBatch(List<NotificationPayloadDTO> requests) {
+        long startTime = System.currentTimeMillis();
+
+        if (!isEmailSendingEnabled) {
+            log.info("[EMAIL-SIMULATION] Email sending is DISABLED via configuration.");
+            return;
+        }
 
+        List<PreparedEmail> prepared = new ArrayList<>(requests.size());
+        for (NotificationPayloadDTO request : requests) {
             try {
-                content.setAttachmentFiles(prepareAttachments(template));
-            } catch (IOException e) {
-                log.warn("Attachment preparation failed: {}", e.getMessage());
-
-                if (!allowPartialAttachment) {
-                    failedAttachmentLogService.save(FailedAttachmentLog.builder()
-                            .templateId(templateId)
-                            .notificationConfigId(notificationConfigId)
-                            .errorMessage("Attachment download failed: " + e.getMessage())
-                            .timestamp(System.currentTimeMillis())
-                            .build());
-                    throw new RuntimeException("Attachment preparation failed", e);
-                }
+                prepared.add(prepare(request));
+            } catch (Exception e) {
+                log.error("❌ Failed to prepare email for {}: {}", request.getTo(), e.getMessage(), e);
+            }
+        }
+        if (prepared.isEmpty()) return;
+
+        List<PreparedEmail> failed = trySendBatch(prepared.get(0).getConfig(), prepared);
 
-                log.warn("Proceeding without attachments due to allowPartialAttachment=true");
+        for (PreparedEmail email : failed) {
+            try {
+                sendWithFallbacks(email);
+            } catch (Exception e) {
+                log.error("Exception occurred while sending email to {}: {}", email.getTo(), e.getMessage());
             }
+        }
 
-            // Try sending
-            if (trySend(mainConfig, toEmail, cc, bcc, content)) return;
+        log.info("⏱️ Email batch of {} completed in {} ms ({} needed fallback)",
+                requests.size(), System.currentTimeMillis() - startTime, failed.size());
+    }
 
-            // Fallback
-            final PreparedEmailContent finalContent = content;
+    private PreparedEmail prepare(NotificationPayloadDTO request) {
+        String notificationConfigId = request.getSnapshotConfig().getId();
+        String templateId = request.getSnapshotTemplate().getId();
+        TemplateEntity template = request.getSnapshotTemplate();
 
-            if (StringUtils.isNotBlank(mainConfig.getFallbackConfigId())) {
-                NotificationConfig fallbackConfig = notificationConfigRepository
-                        .findById(mainConfig.getFallbackConfigId())
-                        .orElse(null);
+        String htmlContent = template.getContent();
+        if (htmlContent == null && StringUtils.isNotBlank(template.getCdnUrl())) {
+            htmlContent = htmlCdnUploader.fetchFromCdn(template.getCdnUrl());
+            htmlCdnUploader.deleteFromCdn(template.getCdnUrl());
+        }
 
-                if (fallbackConfig != null && trySend(fallbackConfig, toEmail, cc, bcc, finalContent)) return;
+        PreparedEmailContent content = new PreparedEmailContent(request.getSubject(), htmlContent, new ArrayList<>());
+
+        try {
+            content.setAttachmentFiles(prepareAttachments(template));
+        } catch (IOException e) {
+            log.warn("Attachment preparation failed: {}", e.getMessage());
+
+            if (!allowPartialAttachment) {
+                failedAttachmentLogService.save(FailedAttachmentLog.builder()
+                        .templateId(templateId)
+                        .notificationConfigId(notificationConfigId)
+                        .errorMessage("Attachment download failed: " + e.getMessage())
+                        .timestamp(System.currentTimeMillis())
+                        .build());
+                throw new RuntimeException("Attachment preparation failed", e);
             }
 
-            // Privacy fallback
-            if (mainConfig.getPrivacyFallbackConfig() != null && !mainConfig.getPrivacyFallbackConfig().isEmpty()) {
-                NotificationConfig dynamicConfig = new NotificationConfig();
-                dynamicConfig.setConfig(mainConfig.getPrivacyFallbackConfig());
-                dynamicConfig.setClientName(mainConfig.getClientName());
-                dynamicConfig.setChannel(mainConfig.getChannel());
-                dynamicConfig.setProvider(mainConfig.getProvider());
-                dynamicConfig.setActive(true);
+            log.warn("Proceeding without attachments due to allowPartialAttachment=true");
+        }
 
-                if (trySend(dynamicConfig, toEmail, cc, bcc, finalContent)) return;
-            }
+        return new PreparedEmail(request.getSnapshotConfig(), templateId, request.getTo(),
+                request.getCc(), request.getBcc(), content);
+    }
 
-            // All failed
-            log.error("All attempts to send email failed for template: {}", templateId);
+    /**
+     * Fallback config, then privacy fallback; logs to FailedEmailLog and throws if both fail.
+     */
+    private void sendWithFallbacks(PreparedEmail email) {
+        NotificationConfig mainConfig = email.getConfig();
 
-            failedEmailLogService.save(FailedEmailLog.builder()
-                    .toEmail(toEmail)
-                    .cc(cc)
-                    .bcc(bcc)
-                    .subject(resolvedSubject)
-                    .htmlContent(htmlContent)
-                    .templateId(templateId)
-                    .notificationConfigId(notificationConfigId)
-                    .errorMessage("All fallback and privacy fallback config attempts failed.")
-                    .timestamp(System.currentTimeMillis())
-                    .build());
+        // Fallback
+        if (StringUtils.isNotBlank(mainConfig.getFallbackConfigId())) {
+            NotificationConfig fallbackConfig = notificationConfigRepository
+                    .findById(mainConfig.getFallbackConfigId())
+                    .orElse(null);
 
-            throw new RuntimeException("Failed to send email after all fallback attempts.");
+            if (fallbackConfig != null && trySend(fallbackConfig, email)) return;
+        }
 
-        } catch (Exception e) {
-            log.error("Exception occurred while sending email: {}", e.getMessage(), e);
-            throw e;
-        } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            log.info("⏱️ Email sending process completed in {} ms", duration);
+        // Privacy fallback
+        if (mainConfig.getPrivacyFallbackConfig() != null && !mainConfig.getPrivacyFallbackConfig().isEmpty()) {
+            NotificationConfig dynamicConfig = new NotificationConfig();
+            dynamicConfig.setConfig(mainConfig.getPrivacyFallbackConfig());
+            dynamicConfig.setClientName(mainConfig.getClientName());
+            dynamicConfig.setChannel(mainConfig.getChannel());
+            dynamicConfig.setProvider(mainConfig.getProvider());
+            dynamicConfig.setActive(true);
+
+            if (trySend(dynamicConfig, email)) return;
         }
+
+        // All failed
+        log.error("All attempts to send email failed for template: {}", email.getTemplateId());
+
+        failedEmailLogService.save(FailedEmailLog.builder()
+                .toEmail(email.getTo())
+                .cc(email.getCc())
+                .bcc(email.getBcc())
+                .subject(email.getContent().getFinalSubject())
+                .htmlContent(email.getContent().getHtmlBody())
+                .templateId(email.getTemplateId())
+                .notificationConfigId(mainConfig.getId())
+                .errorMessage("All fallback and privacy fallback config attempts failed.")
+                .timestamp(System.currentTimeMillis())
+                .build());
+
+        throw new RuntimeException("Failed to send email after all fallback attempts.");
     }
 
 
-    private boolean trySend(NotificationConfig config, String toEmail, List<String> cc, List<String> bcc,
-                            PreparedEmailContent content) {
+    private boolean trySend(NotificationConfig config, PreparedEmail email) {
         try {
             JavaMailSender sender = emailConnectionPoolManager.getMailSender(config);
-            MimeMessage message = sender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+            sender.send(buildMessage(sender, email));
+            log.info("Email sent to {} using config {}", email.getTo(), config.getClientName());
+            return true;
 
-            helper.setTo(toEmail);
-            if (cc != null && !cc.isEmpty()) helper.setCc(cc.toArray(new String[0]));
-            if (bcc != null && !bcc.isEmpty()) helper.setBcc(bcc.toArray(new String[0]));
+        } catch (Exception e) {
+            log.warn("Attempt failed with config [{}]: {}", config.getClientName(), e.getMessage());
+            return false;
+        }
+    }
 
-            helper.setSubject(content.getFinalSubject());
-            helper.setText(content.getHtmlBody(), true);
+    /**
+     * @return the emails that were not accepted and still need the fallback chain
+     */
+    private List<PreparedEmail> trySendBatch(NotificationConfig config, List<PreparedEmail> emails) {
+        List<PreparedEmail> failed = new ArrayList<>();
+        Map<MimeMessage, PreparedEmail> byMessage = new LinkedHashMap<>();
 
-            for (File attachment : content.getAttachmentFiles()) {
-                helper.addAttachment(attachment.getName(), attachment);
-            }
+        JavaMailSender sender;
+        try {
+            sender = emailConnectionPoolManager.getMailSender(config);
+        } catch (Exception e) {
+            log.warn("Attempt failed with config [{}]: {}", config.getClientName(), e.getMessage());
+            return emails;
+        }
 
-            sender.send(message);
-            log.info("Email sent to {} using config {}", toEmail, config.getClientName());
-            return true;
+        for (PreparedEmail email : emails) {
+            try {
+                byMessage.put(buildMessage(sender, email), email);
+            } catch (Exception e) {
+                log.warn("Failed to build email for {}: {}", email.getTo(), e.getMessage());
+                failed.add(email);
+            }
+        }
+        if (byMessage.isEmpty()) return failed;
 
+        try {
+            sender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                failed.addAll(byMessage.values());
+            }
+            e.getFailedMessages().forEach((message, ex) -> {
+                PreparedEmail email = byMessage.get(message);
+                if (email != null) {
+                    log.warn("Attempt failed for {} with config [{}]: {}", email.getTo(), config.getClientName(), ex.getMessage());
+                    failed.add(email);
+                }
+            });
         } catch (Exception e) {
-            log.warn("Attempt failed with config [{}]: {}", config.getClientName(), e.getMessage());
-            return false;
+            log.warn("Batch attempt failed with config [{}]: {}", config.getClientName(), e.getMessage());
+            failed.addAll(byMessage.values());
         }
+
+        log.info("📨 Sent {}/{} emails in one session using config {}",
+                emails.size() - failed.size(), emails.size(), config.getClientName());
+        return failed;
+    }
+
+    private MimeMessage buildMessage(JavaMailSender sender, PreparedEmail email) throws MessagingException {
+        PreparedEmailContent content = email.getContent();
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+
+        helper.setTo(email.getTo());
+        if (email.getCc() != null && !email.getCc().isEmpty()) helper.setCc(email.getCc().toArray(new String[0]));
+        if (email.getBcc() != null && !email.getBcc().isEmpty()) helper.setBcc(email.getBcc().toArray(new String[0]));
+
+        helper.setSubject(content.getFinalSubject());
+        helper.setText(content.getHtmlBody(), true);
+
+        for (File attachment : content.getAttachmentFiles()) {
+            helper.addAttachment(attachment.getName(), attachment);
+        }
+        return message;
     }
 
     private List<File> prepareAttachments(TemplateEntity template) throws IOException {
@@ -197,22 +297,22 @@ public class EmailSendService {
         return attachmentFiles;
     }
 
-    private String mergeTemplateWithParams(String htmlContent, Map<String, Object> params) {
-        if (params == null || params.isEmpty()) return htmlContent;
-
-        String result = htmlContent;
-        for (Map.Entry<String, Object> entry : params.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            result = result.replace(placeholder, String.valueOf(entry.getValue()));
-        }
-        return result;
-    }
-
     private String extractKey(String fileUrl) {
         if (fileUrl == null || !fileUrl.contains("/")) return fileUrl;
         return fileUrl.substring(fileUrl.lastIndexOf('/') + 1);
     }
 
+    @Data
+    @AllArgsConstructor
+    private static class PreparedEmail {
+        private NotificationConfig config;
+        private String templateId;
+        private String to;
+        private List<String> cc;
+        private List<String> bcc;
+        private PreparedEmailContent content;
+    }
+
     @Data
     @AllArgsConstructor
     private static class PreparedEmailContent {
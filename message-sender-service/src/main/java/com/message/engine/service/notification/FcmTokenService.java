@@ -1,30 +1,124 @@
 package com.message.engine.service.notification;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.notification.common.model.FcmTokenEntity;
 import com.notification.common.repository.FcmTokenRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Read side of the FCM token directory. Tokens are cached per phone (including "no tokens", so
+ * unknown recipients don't hit Mongo on every send) and dropped when the executor publishes an
+ * {@code fcmTokenPhone} eviction after a registration change.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class FcmTokenService {
 
     private final FcmTokenRepository tokenRepository;
+    private final MongoTemplate mongoTemplate;
 
-    public String resolveFcmToken(String phone) {
-       if (StringUtils.isNotBlank(phone)) {
-            return tokenRepository.findByPhone(phone)
-                    .map(FcmTokenEntity::getFcmToken)
-                    .orElse(null);
+    private final Cache<String, List<String>> tokenCache;
+
+    public FcmTokenService(FcmTokenRepository tokenRepository,
+                           MongoTemplate mongoTemplate,
+                           @Value("${fcm.token.cache.max-size:100000}") long maxSize,
+                           @Value("${fcm.token.cache.ttl-minutes:10}") long ttlMinutes) {
+        this.tokenRepository = tokenRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.tokenCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * @return the phone's device tokens, newest first; empty if none are registered
+     */
+    public List<String> resolveFcmTokens(String phone) {
+        if (StringUtils.isBlank(phone)) return List.of();
+        return resolveFcmTokens(List.of(phone)).getOrDefault(phone, List.of());
+    }
+
+    /**
+     * Resolves tokens for many phones, querying Mongo once for all cache misses. Phones without
+     * a token are absent from the result.
+     */
+    public Map<String, List<String>> resolveFcmTokens(Collection<String> phones) {
+        Set<String> lookup = new LinkedHashSet<>();
+        for (String phone : phones) {
+            if (StringUtils.isNotBlank(phone)) lookup.add(phone);
+        }
+
+        Map<String, List<String>> tokens = new HashMap<>(tokenCache.getAllPresent(lookup));
+        List<String> misses = lookup.stream().filter(phone -> !tokens.containsKey(phone)).toList();
+        if (!misses.isEmpty()) {
+            Map<String, List<String>> loaded = new HashMap<>();
+            for (FcmTokenEntity entity : tokenRepository.findByPhoneIn(misses)) {
+                loaded.computeIfAbsent(entity.getPhone(), phone -> new ArrayList<>()).addAll(entity.activeTokens());
+            }
+            for (String phone : misses) {
+                List<String> found = List.copyOf(loaded.getOrDefault(phone, List.of()));
+                tokenCache.put(phone, found);
+                tokens.put(phone, found);
+            }
         }
-        return null;
+
+        tokens.values().removeIf(List::isEmpty);
+        return tokens;
+    }
+
+    /**
+     * Removes tokens FCM reported as unregistered or invalid from their directory entries, so
+     * later sends stop targeting them.
+     */
+    public void pruneTokens(Collection<String> fcmTokens) {
+        if (fcmTokens.isEmpty()) return;
+        Set<String> stale = Set.copyOf(fcmTokens);
+
+        // only the phones are read; the removal itself is atomic, so a registration racing the
+        // prune keeps its device
+        Query affected = new Query(new Criteria().orOperator(
+                Criteria.where("devices.fcmToken").in(stale), Criteria.where("fcmToken").in(stale)));
+        affected.fields().include("phone");
+        List<String> phones = mongoTemplate.find(affected, FcmTokenEntity.class).stream()
+                .map(FcmTokenEntity::getPhone)
+                .toList();
+        if (phones.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        mongoTemplate.updateMulti(Query.query(Criteria.where("devices.fcmToken").in(stale)),
+                new Update().pull("devices", new Document("fcmToken", new Document("$in", List.copyOf(stale))))
+                        .set("updatedAt", now),
+                FcmTokenEntity.class);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("fcmToken").in(stale)),
+                new Update().unset("fcmToken").set("updatedAt", now),
+                FcmTokenEntity.class);
+
+        tokenCache.invalidateAll(phones);
+        log.info("🧹 Pruned {} stale FCM token(s) from {} phone(s)", stale.size(), phones.size());
     }
 
-    public FcmTokenEntity registerToken(FcmTokenEntity tokenEntity) {
-        return tokenRepository.save(tokenEntity);
+    public void evict(String phone) {
+        tokenCache.invalidate(phone);
     }
 
     public Optional<FcmTokenEntity> findByPhone(String phone) {
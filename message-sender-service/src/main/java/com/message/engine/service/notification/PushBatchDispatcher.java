@@ -0,0 +1,101 @@
+package com.message.engine.service.notification;
+
+import com.message.engine.service.MicroBatcher;
+import com.message.engine.service.NotificationPayloadReader;
+import com.notification.common.dto.NotificationPayloadDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects push payloads for the same config and template for up to {@code push.batch.linger-ms}
+ * or {@code push.batch.max-size} messages and hands them to
+ * {@link PushNotificationSendService#sendPushBatch} so they go out as FCM multicasts.
+ */
+@Service
+public class PushBatchDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PushBatchDispatcher.class);
+
+    private final AsyncTaskExecutor pushTaskExecutor;
+    private final PushNotificationSendService pushNotificationSendService;
+    private final NotificationPayloadReader payloadReader;
+
+    private MicroBatcher<NotificationPayloadDTO> batcher;
+
+    @Value("${push.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${push.batch.linger-ms:100}")
+    private long lingerMs;
+
+    @Value("${push.batch.max-size:500}")
+    private int maxBatchSize;
+
+    public PushBatchDispatcher(@Qualifier("pushTaskExecutor") AsyncTaskExecutor pushTaskExecutor,
+                               PushNotificationSendService pushNotificationSendService,
+                               NotificationPayloadReader payloadReader) {
+        this.pushTaskExecutor = pushTaskExecutor;
+        this.pushNotificationSendService = pushNotificationSendService;
+        this.payloadReader = payloadReader;
+    }
+
+    @PostConstruct
+    public void init() {
+        batcher = new MicroBatcher<>("push", pushTaskExecutor, lingerMs, batchEnabled ? maxBatchSize : 1, this::sendBatch);
+    }
+
+    /**
+     * Accepts a decoded (not yet resolved) payload.
+     *
+     * @return completes once the send outcome is final (sent, or recorded as failed)
+     */
+    public CompletableFuture<Void> dispatch(NotificationPayloadDTO payload) {
+        return batcher.add(batchKey(payload), payload);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.shutdown();
+    }
+
+    private void sendBatch(List<NotificationPayloadDTO> batch) {
+        if (batch.size() == 1) {
+            try {
+                pushNotificationSendService.sendPush(payloadReader.resolve(batch.get(0)));
+            } catch (Exception e) {
+                log.error("❌ Failed to process push message", e);
+            }
+            return;
+        }
+
+        List<NotificationPayloadDTO> resolved = new ArrayList<>(batch.size());
+        for (NotificationPayloadDTO payload : batch) {
+            try {
+                resolved.add(payloadReader.resolve(payload));
+            } catch (Exception e) {
+                log.error("❌ Failed to process push message", e);
+            }
+        }
+
+        pushNotificationSendService.sendPushBatch(resolved);
+    }
+
+    private String batchKey(NotificationPayloadDTO payload) {
+        if (payload.isReference()) {
+            return payload.getConfigId() + ":" + payload.getTemplateId();
+        }
+        if (payload.getSnapshotConfig() == null || payload.getSnapshotConfig().getId() == null
+                || payload.getSnapshotTemplate() == null) return null;
+        return payload.getSnapshotConfig().getId() + ":" + payload.getSnapshotTemplate().getId();
+    }
+}
@@ -1,10 +1,7 @@
 package com.message.engine.service.notification;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.FirebaseOptions;
+import com.message.engine.manager.FirebaseClientPool;
+import com.message.engine.manager.ProviderConcurrencyLimiter;
 import com.google.firebase.messaging.*;
 import com.message.engine.service.FailedPushLogService;
 import com.notification.common.dto.NotificationPayloadDTO;
@@ -17,19 +14,28 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PushNotificationSendService {
 
+    // FCM rejects multicasts with more tokens than this
+    private static final int MAX_MULTICAST_TOKENS = 500;
+
     private final NotificationConfigRepository configRepository;
     private final FailedPushLogService failedPushLogService;
     private final FcmTokenService fcmTokenService;
+    private final ProviderConcurrencyLimiter providerLimiter;
+    private final FirebaseClientPool firebaseClientPool;
 
     @Value("${notification.push.enabled:true}")
     private boolean isPushEnabled;
@@ -49,73 +55,171 @@ public class PushNotificationSendService {
         }
 
         try {
-            String fcmToken = fcmTokenService.resolveFcmToken(emailOrPhone); // <- Your logic here
-            if (StringUtils.isBlank(fcmToken)) {
+            List<String> fcmTokens = fcmTokenService.resolveFcmTokens(emailOrPhone);
+            if (fcmTokens.isEmpty()) {
                 throw new IllegalStateException("FCM token not found for user: " + emailOrPhone);
             }
 
-            if (trySend(mainConfig, fcmToken, title, messageBody)) return;
+            // every registered device gets the notification; each one fails over on its own
+            for (String fcmToken : fcmTokens) {
+                if (trySend(mainConfig, fcmToken, title, messageBody)) continue;
+                if (trySendFallbacks(mainConfig, fcmToken, title, messageBody)) continue;
 
-            if (StringUtils.isNotBlank(mainConfig.getFallbackConfigId())) {
-                NotificationConfig fallback = configRepository.findById(mainConfig.getFallbackConfigId()).orElse(null);
-                if (fallback != null && trySend(fallback, fcmToken, title, messageBody)) return;
+                log.error("❌ Push notification failed for all fallback attempts.");
+                saveFailed(fcmToken, messageBody, configId, templateId, "All fallback attempts failed");
             }
 
-            if (mainConfig.getPrivacyFallbackConfig() != null && !mainConfig.getPrivacyFallbackConfig().isEmpty()) {
-                NotificationConfig fallback = new NotificationConfig();
-                fallback.setConfig(mainConfig.getPrivacyFallbackConfig());
-                fallback.setClientName(mainConfig.getClientName());
-                fallback.setChannel(mainConfig.getChannel());
-                fallback.setProvider(mainConfig.getProvider());
-                fallback.setActive(true);
+        } catch (Exception e) {
+            log.error("❌ Exception occurred while sending push notification", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sends a batch of resolved push payloads with as few FCM calls as possible: payloads that
+     * share a config, template and rendered body go out as one multicast per
+     * {@value #MAX_MULTICAST_TOKENS} tokens. Per-token results are mapped back individually;
+     * unregistered tokens are pruned from fcm_tokens, other failures go through the fallback
+     * configs and end up in their own FailedPushLog, as do recipients with no registered tokens.
+     */
+    public void sendPushBatch(List<NotificationPayloadDTO> requests) {
+        if (requests.isEmpty()) return;
+
+        if (!isPushEnabled) {
+            log.info("[PUSH-SIMULATION] Push sending is DISABLED via config");
+            return;
+        }
 
-                if (trySend(fallback, fcmToken, title, messageBody)) return;
+        Map<String, List<String>> tokens = fcmTokenService.resolveFcmTokens(
+                requests.stream().map(NotificationPayloadDTO::getTo).toList());
+
+        Map<MulticastKey, MulticastGroup> groups = new LinkedHashMap<>();
+        for (NotificationPayloadDTO request : requests) {
+            List<String> fcmTokens = request.getTo() != null ? tokens.get(request.getTo()) : null;
+            NotificationConfig config = request.getSnapshotConfig();
+            String templateId = request.getSnapshotTemplate().getId();
+            String body = request.getSnapshotTemplate().getContent();
+            if (fcmTokens == null || fcmTokens.isEmpty()) {
+                log.error("❌ FCM token not found for user: {}", request.getTo());
+                saveFailed(null, body, config.getId(), templateId, "no tokens registered for " + request.getTo());
+                continue;
             }
+            groups.computeIfAbsent(new MulticastKey(config.getId(), templateId, body),
+                            key -> new MulticastGroup(config, new LinkedHashSet<>()))
+                    .tokens().addAll(fcmTokens);
+        }
 
-            log.error("❌ Push notification failed for all fallback attempts.");
-            failedPushLogService.save(FailedPushLog.builder()
-                    .fcmToken(fcmToken)
-                    .message(messageBody)
-                    .notificationConfigId(configId)
-                    .templateId(templateId)
-                    .errorMessage("All fallback attempts failed")
-                    .timestamp(System.currentTimeMillis())
-                    .build());
+        groups.forEach((key, group) -> {
+            List<String> groupTokens = new ArrayList<>(group.tokens());
+            for (int from = 0; from < groupTokens.size(); from += MAX_MULTICAST_TOKENS) {
+                List<String> chunk = groupTokens.subList(from, Math.min(from + MAX_MULTICAST_TOKENS, groupTokens.size()));
+                sendChunk(group.config(), key.templateId(), key.body(), chunk);
+            }
+        });
+    }
+
+    private void sendChunk(NotificationConfig config, String templateId, String body, List<String> chunk) {
+        String title = "📢 Notification";
+        Map<String, String> retry = new LinkedHashMap<>();
+        List<String> stale = new ArrayList<>();
 
+        try {
+            BatchResponse response = sendMulticast(config, chunk, title, body);
+            List<SendResponse> responses = response.getResponses();
+
+            List<String> invalidArgument = new ArrayList<>();
+            for (int i = 0; i < responses.size(); i++) {
+                SendResponse result = responses.get(i);
+                if (result.isSuccessful()) continue;
+
+                String fcmToken = chunk.get(i);
+                FirebaseMessagingException error = result.getException();
+                MessagingErrorCode code = error != null ? error.getMessagingErrorCode() : null;
+                if (code == MessagingErrorCode.UNREGISTERED) {
+                    stale.add(fcmToken);
+                    saveFailed(fcmToken, body, config.getId(), templateId, error.getMessage());
+                } else if (code == MessagingErrorCode.INVALID_ARGUMENT) {
+                    invalidArgument.add(fcmToken);
+                    saveFailed(fcmToken, body, config.getId(), templateId, error.getMessage());
+                } else {
+                    retry.put(fcmToken, error != null ? error.getMessage() : "Unknown FCM error");
+                }
+            }
+            // INVALID_ARGUMENT is also what a malformed message gets; only blame the tokens if
+            // the same message went through for others
+            if (response.getSuccessCount() > 0) {
+                stale.addAll(invalidArgument);
+            }
+
+            log.info("✅ Push multicast via [{}]: {} sent, {} failed of {}",
+                    config.getClientName(), response.getSuccessCount(), response.getFailureCount(), chunk.size());
         } catch (Exception e) {
-            log.error("❌ Exception occurred while sending push notification", e);
-            throw new RuntimeException(e);
+            log.warn("⚠️ Failed to send push multicast using config [{}]: {}", config.getClientName(), e.getMessage(), e);
+            chunk.forEach(fcmToken -> retry.put(fcmToken, e.getMessage()));
         }
-    }
 
-    private boolean trySend(NotificationConfig config, String fcmToken, String title, String body) {
         try {
-            Map<String, Object> configMap = config.getConfig();
+            fcmTokenService.pruneTokens(stale);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to prune {} stale FCM token(s): {}", stale.size(), e.getMessage());
+        }
 
-            Object firebaseJsonRaw = configMap.get("firebaseJson");
-            if (firebaseJsonRaw == null) {
-                log.warn("❌ Missing firebaseJson in config: {}", config.getId());
-                return false;
-            }
+        retry.forEach((fcmToken, error) -> {
+            if (trySendFallbacks(config, fcmToken, title, body)) return;
+            log.error("❌ Push notification failed for all fallback attempts.");
+            saveFailed(fcmToken, body, config.getId(), templateId, error);
+        });
+    }
 
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> firebaseJson = mapper.convertValue(firebaseJsonRaw, new TypeReference<>() {
-            });
+    private BatchResponse sendMulticast(NotificationConfig config, List<String> fcmTokens, String title, String body) throws Exception {
+        FirebaseMessaging messaging = firebaseClientPool.getMessaging(config);
 
-            String json = mapper.writeValueAsString(firebaseJson);
-            InputStream stream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        MulticastMessage message = MulticastMessage.builder()
+                .addAllTokens(fcmTokens)
+                .setNotification(Notification.builder()
+                        .setTitle(title)
+                        .setBody(body)
+                        .build())
+                .build();
 
-            String appName = config.getClientName();
+        AtomicReference<BatchResponse> response = new AtomicReference<>();
+        providerLimiter.run("push", "fcm", () -> response.set(messaging.sendEachForMulticast(message)));
+        return response.get();
+    }
 
-            Map<String, Object> projectInfo = mapper.convertValue(firebaseJson.get("project_info"), new TypeReference<>() {
-            });
+    private boolean trySendFallbacks(NotificationConfig mainConfig, String fcmToken, String title, String body) {
+        if (StringUtils.isNotBlank(mainConfig.getFallbackConfigId())) {
+            NotificationConfig fallback = configRepository.findById(mainConfig.getFallbackConfigId()).orElse(null);
+            if (fallback != null && trySend(fallback, fcmToken, title, body)) return true;
+        }
 
-            FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(stream))
-                    .setProjectId((String) projectInfo.get("project_id"))
-                    .build();
+        if (mainConfig.getPrivacyFallbackConfig() != null && !mainConfig.getPrivacyFallbackConfig().isEmpty()) {
+            NotificationConfig fallback = new NotificationConfig();
+            fallback.setConfig(mainConfig.getPrivacyFallbackConfig());
+            fallback.setClientName(mainConfig.getClientName());
+            fallback.setChannel(mainConfig.getChannel());
+            fallback.setProvider(mainConfig.getProvider());
+            fallback.setActive(true);
 
-            FirebaseApp firebaseApp = FirebaseApp.initializeApp(options, appName);
+            return trySend(fallback, fcmToken, title, body);
+        }
+        return false;
+    }
+
+    private void saveFailed(String fcmToken, String body, String configId, String templateId, String errorMessage) {
+        failedPushLogService.save(FailedPushLog.builder()
+                .fcmToken(fcmToken)
+                .message(body)
+                .notificationConfigId(configId)
+                .templateId(templateId)
+                .errorMessage(errorMessage)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    private boolean trySend(NotificationConfig config, String fcmToken, String title, String body) {
+        try {
+            FirebaseMessaging messaging = firebaseClientPool.getMessaging(config);
 
             Notification notification = Notification.builder()
                     .setTitle(title)
@@ -127,8 +231,10 @@ public class PushNotificationSendService {
                     .setNotification(notification)
                     .build();
 
-            String response = FirebaseMessaging.getInstance(firebaseApp).send(message);
-            log.info("✅ Push notification sent to [{}], response: {}", fcmToken, response);
+            providerLimiter.run("push", "fcm", () -> {
+                String response = messaging.send(message);
+                log.info("✅ Push notification sent to [{}], response: {}", fcmToken, response);
+            });
             return true;
 
         } catch (Exception e) {
@@ -136,4 +242,10 @@ public class PushNotificationSendService {
             return false;
         }
     }
+
+    private record MulticastKey(String configId, String templateId, String body) {
+    }
+
+    private record MulticastGroup(NotificationConfig config, Set<String> tokens) {
+    }
 }
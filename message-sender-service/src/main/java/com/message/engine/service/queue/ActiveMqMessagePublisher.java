@@ -1,45 +1,50 @@
 package com.message.engine.service.queue;
 
+import com.message.engine.manager.ActiveMqConnectionPool;
+import com.notification.common.model.NotificationConfig;
 import jakarta.jms.*;
-import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component("activemq")
 public class ActiveMqMessagePublisher implements MessagePublisher {
 
+    private final ActiveMqConnectionPool connectionPool;
+
+    public ActiveMqMessagePublisher(ActiveMqConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
     @Override
     public void publish(Map<String, Object> config, String destinationName, String payloadJson) {
-        String brokerUrl = config.get("brokerUrl").toString();
-        String username = config.getOrDefault("username", "").toString();
-        String password = config.getOrDefault("password", "").toString();
+        send(null, config, destinationName, payloadJson);
+    }
 
+    @Override
+    public CompletableFuture<Void> publishAsync(NotificationConfig config, String destinationName, String payloadJson) {
+        try {
+            send(config.getId(), config.getConfig(), destinationName, payloadJson);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void send(String configId, Map<String, Object> config, String destinationName, String payloadJson) {
         boolean isTopic = Boolean.parseBoolean(config.getOrDefault("isTopic", "false").toString());
         String deliveryModeStr = config.getOrDefault("deliveryMode", "PERSISTENT").toString().toUpperCase();
         int deliveryMode = "NON_PERSISTENT".equals(deliveryModeStr) ? DeliveryMode.NON_PERSISTENT : DeliveryMode.PERSISTENT;
 
-        String clientId = config.getOrDefault("clientId", "").toString();
-
-        ActiveMQConnectionFactory factory = new ActiveMQConnectionFactory(brokerUrl);
-
-        try (Connection connection = factory.createConnection(username, password)) {
-            if (!clientId.isBlank()) {
-                connection.setClientID(clientId);
-            }
-            connection.start();
-
-            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-
-            Destination destination = isTopic
-                    ? session.createTopic(destinationName)
-                    : session.createQueue(destinationName);
-
-            MessageProducer producer = session.createProducer(destination);
-            producer.setDeliveryMode(deliveryMode);
-
-            TextMessage message = session.createTextMessage(payloadJson);
-            producer.send(message);
+        try {
+            // the template is cheap; the connection, sessions and producers behind it are pooled
+            JmsTemplate template = new JmsTemplate(connectionPool.getConnectionFactory(configId, config));
+            template.setPubSubDomain(isTopic);
+            template.setExplicitQosEnabled(true);
+            template.setDeliveryMode(deliveryMode);
+            template.send(destinationName, session -> session.createTextMessage(payloadJson));
 
         } catch (Exception e) {
             throw new RuntimeException("❌ Failed to send message to ActiveMQ destination [" + destinationName + "]", e);
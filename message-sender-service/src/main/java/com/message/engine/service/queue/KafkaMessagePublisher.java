@@ -1,36 +1,50 @@
 package com.message.engine.service.queue;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
+import com.message.engine.manager.KafkaProducerPool;
+import com.notification.common.model.NotificationConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 @Component("kafka")
 public class KafkaMessagePublisher implements MessagePublisher {
 
-    @Override
-    public void publish(Map<String, Object> config, String topic, String payloadJson) {
-        Properties props = new Properties();
-
-
-        props.put("bootstrap.servers", config.get("bootstrapServers"));
-        props.put("client.id", config.getOrDefault("clientId", "default-client"));
-        props.put("acks", config.getOrDefault("acks", "all"));
+    private final KafkaProducerPool producerPool;
 
-        String keySerializer = (String) config.getOrDefault(
-                "key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-        String valueSerializer = (String) config.getOrDefault(
-                "value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-
-        props.put("key.serializer", keySerializer);
-        props.put("value.serializer", valueSerializer);
+    public KafkaMessagePublisher(KafkaProducerPool producerPool) {
+        this.producerPool = producerPool;
+    }
 
-        try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
-            producer.send(new ProducerRecord<>(topic, payloadJson));
+    @Override
+    public void publish(Map<String, Object> config, String topic, String payloadJson) {
+        try {
+            producerPool.getProducer(null, config).send(new ProducerRecord<>(topic, payloadJson)).get();
         } catch (Exception e) {
             throw new RuntimeException("❌ Kafka publish failed: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Hands the record to the pooled producer and completes from the send callback, so the
+     * caller never waits for the broker acknowledgement.
+     */
+    @Override
+    public CompletableFuture<Void> publishAsync(NotificationConfig config, String topic, String payloadJson) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            producerPool.getProducer(config.getId(), config.getConfig())
+                    .send(new ProducerRecord<>(topic, payloadJson), (metadata, exception) -> {
+                        if (exception != null) {
+                            result.completeExceptionally(new RuntimeException("❌ Kafka publish failed: " + exception.getMessage(), exception));
+                        } else {
+                            result.complete(null);
+                        }
+                    });
+        } catch (Exception e) {
+            result.completeExceptionally(new RuntimeException("❌ Kafka publish failed: " + e.getMessage(), e));
+        }
+        return result;
+    }
 }
@@ -1,7 +1,24 @@
 package com.message.engine.service.queue;
 
+import com.notification.common.model.NotificationConfig;
+
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface MessagePublisher {
     void publish(Map<String, Object> config, String destination, String payloadJson);
+
+    /**
+     * Publishes without waiting for the broker where the client supports it; the future
+     * completes once the broker has accepted (or rejected) the message. The default just
+     * publishes synchronously.
+     */
+    default CompletableFuture<Void> publishAsync(NotificationConfig config, String destination, String payloadJson) {
+        try {
+            publish(config.getConfig(), destination, payloadJson);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -1,93 +1,133 @@
 package com.message.engine.service.queue;
 
+import com.message.engine.manager.ProviderConcurrencyLimiter;
 import com.message.engine.service.FailedQueueLogService;
 import com.notification.common.dto.NotificationPayloadDTO;
 import com.notification.common.model.FailedQueueLog;
 import com.notification.common.model.NotificationConfig;
 import com.notification.common.repository.NotificationConfigRepository;
-import com.notification.common.utils.JsonUtil;
-import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class NotificationRouterService {
 
     private final MessagePublisherFactory publisherFactory;
     private final FailedQueueLogService failedQueueLogService;
     private final NotificationConfigRepository configRepository;
+    private final ProviderConcurrencyLimiter providerLimiter;
+    private final AsyncTaskExecutor queueTaskExecutor;
 
     @Value("${notification.queue.enabled:true}")
     private boolean isQueuePublishingEnabled;
 
-    public void route(NotificationPayloadDTO request) {
+    public NotificationRouterService(MessagePublisherFactory publisherFactory,
+                                     FailedQueueLogService failedQueueLogService,
+                                     NotificationConfigRepository configRepository,
+                                     ProviderConcurrencyLimiter providerLimiter,
+                                     @Qualifier("queueTaskExecutor") AsyncTaskExecutor queueTaskExecutor) {
+        this.publisherFactory = publisherFactory;
+        this.failedQueueLogService = failedQueueLogService;
+        this.configRepository = configRepository;
+        this.providerLimiter = providerLimiter;
+        this.queueTaskExecutor = queueTaskExecutor;
+    }
+
+    /**
+     * Publishes with the main config and, if the broker rejects it, the fallback and privacy
+     * fallback configs. Fallbacks run on the queue executor, never on a client callback thread.
+     *
+     * @return completes once the message is published, or fails after it has been recorded in
+     * FailedQueueLog
+     */
+    public CompletableFuture<Void> routeAsync(NotificationPayloadDTO request) {
         long startTime = System.currentTimeMillis();
         NotificationConfig config = request.getSnapshotConfig();
         String to = request.getTo();
         String jsonPayload =request.getSnapshotTemplate().getContent();
 
-        try {
-            if (!isQueuePublishingEnabled) {
-                log.info("[QUEUE-SIMULATION] Queue publishing is DISABLED via configuration.");
-                return;
-            }
-
-            if (tryPublish(config, to, jsonPayload)) return;
-
-            if (StringUtils.isNotBlank(config.getFallbackConfigId())) {
-                NotificationConfig fallback = configRepository.findById(config.getFallbackConfigId()).orElse(null);
-                if (fallback != null && tryPublish(fallback, to, jsonPayload)) return;
-            }
-
-            if (config.getPrivacyFallbackConfig() != null && !config.getPrivacyFallbackConfig().isEmpty()) {
-                NotificationConfig dynamic = new NotificationConfig();
-                dynamic.setConfig(config.getPrivacyFallbackConfig());
-                dynamic.setClientName(config.getClientName());
-                dynamic.setProvider((String) config.getPrivacyFallbackConfig().get("provider"));
-                dynamic.setChannel(config.getChannel());
-                dynamic.setActive(true);
-
-                if (tryPublish(dynamic, to, jsonPayload)) return;
-            }
-
-            failedQueueLogService.save(FailedQueueLog.builder()
-                    .notificationConfigId(config.getId())
-                    .templateId(request.getSnapshotTemplate().getId())
-                    .queueName(to)
-                    .message(jsonPayload)
-                    .timestamp(System.currentTimeMillis())
-                    .errorMessage("All fallback attempts failed.")
-                    .build());
-
-            log.error("❌ Failed to publish message to [{}]. All fallback options exhausted.", to);
-            throw new RuntimeException("Queue publishing failed after all fallback attempts.");
+        if (!isQueuePublishingEnabled) {
+            log.info("[QUEUE-SIMULATION] Queue publishing is DISABLED via configuration.");
+            return CompletableFuture.completedFuture(null);
+        }
 
-        } catch (Exception e) {
-            log.error("🚨 Exception occurred while publishing to queue [{}]: {}", to, e.getMessage(), e);
-            throw e;
-        } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            log.info("⏱️ Queue publish process completed in {} ms", duration);
+        return tryPublish(config, to, jsonPayload)
+                .thenCompose(sent -> sent ? done() : onExecutor(() -> tryFallback(config, to, jsonPayload)))
+                .thenCompose(sent -> sent ? done() : onExecutor(() -> tryPrivacyFallback(config, to, jsonPayload)))
+                .thenAccept(sent -> {
+                    if (sent) return;
+
+                    failedQueueLogService.save(FailedQueueLog.builder()
+                            .notificationConfigId(config.getId())
+                            .templateId(request.getSnapshotTemplate().getId())
+                            .queueName(to)
+                            .message(jsonPayload)
+                            .timestamp(System.currentTimeMillis())
+                            .errorMessage("All fallback attempts failed.")
+                            .build());
+
+                    log.error("❌ Failed to publish message to [{}]. All fallback options exhausted.", to);
+                    throw new RuntimeException("Queue publishing failed after all fallback attempts.");
+                })
+                .whenComplete((ignored, error) -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    log.info("⏱️ Queue publish process completed in {} ms", duration);
+                });
+    }
+
+    private CompletableFuture<Boolean> tryFallback(NotificationConfig config, String to, String jsonPayload) {
+        if (StringUtils.isNotBlank(config.getFallbackConfigId())) {
+            NotificationConfig fallback = configRepository.findById(config.getFallbackConfigId()).orElse(null);
+            if (fallback != null) return tryPublish(fallback, to, jsonPayload);
         }
+        return CompletableFuture.completedFuture(false);
     }
 
-    private boolean tryPublish(NotificationConfig config, String destination, String jsonPayload) {
-        try {
-            Map<String, Object> resolvedConfig = config.getConfig();
-            publisherFactory.getPublisher(config.getProvider().toLowerCase())
-                    .publish(resolvedConfig, destination, jsonPayload);
+    private CompletableFuture<Boolean> tryPrivacyFallback(NotificationConfig config, String to, String jsonPayload) {
+        if (config.getPrivacyFallbackConfig() != null && !config.getPrivacyFallbackConfig().isEmpty()) {
+            NotificationConfig dynamic = new NotificationConfig();
+            dynamic.setConfig(config.getPrivacyFallbackConfig());
+            dynamic.setClientName(config.getClientName());
+            dynamic.setProvider((String) config.getPrivacyFallbackConfig().get("provider"));
+            dynamic.setChannel(config.getChannel());
+            dynamic.setActive(true);
 
-            log.info("✅ Message published to [{}] using provider [{}]", destination, config.getProvider());
-            return true;
+            return tryPublish(dynamic, to, jsonPayload);
+        }
+        return CompletableFuture.completedFuture(false);
+    }
+
+    private CompletableFuture<Boolean> tryPublish(NotificationConfig config, String destination, String jsonPayload) {
+        try {
+            MessagePublisher publisher = publisherFactory.getPublisher(config.getProvider().toLowerCase());
+            return providerLimiter.runAsync("queue", config.getProvider(), () -> publisher.publishAsync(config, destination, jsonPayload))
+                    .handle((ignored, error) -> {
+                        if (error != null) {
+                            log.warn("⚠️ Queue publish attempt failed with [{}]: {}", config.getProvider(), error.getMessage());
+                            return false;
+                        }
+                        log.info("✅ Message published to [{}] using provider [{}]", destination, config.getProvider());
+                        return true;
+                    });
         } catch (Exception e) {
             log.warn("⚠️ Queue publish attempt failed with [{}]: {}", config.getProvider(), e.getMessage());
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
     }
+
+    private CompletableFuture<Boolean> onExecutor(Supplier<CompletableFuture<Boolean>> attempt) {
+        return CompletableFuture.supplyAsync(attempt, queueTaskExecutor).thenCompose(result -> result);
+    }
+
+    private static CompletableFuture<Boolean> done() {
+        return CompletableFuture.completedFuture(true);
+    }
 }
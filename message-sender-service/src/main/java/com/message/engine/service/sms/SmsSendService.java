@@ -1,5 +1,6 @@
 package com.message.engine.service.sms;
 
+import com.message.engine.manager.ProviderConcurrencyLimiter;
 import com.message.engine.manager.SmsConnectionPoolManager;
 import com.message.engine.service.FailedSmsLogService;
 import com.notification.common.dto.NotificationPayloadDTO;
@@ -25,6 +26,7 @@ public class SmsSendService {
     private final FailedSmsLogService failedSmsLogService;
     private final SmsSenderFactory smsSenderFactory;
     private final SmsConnectionPoolManager smsConnectionPoolManager;
+    private final ProviderConcurrencyLimiter providerLimiter;
 
     @Value("${notification.sms.enabled:true}")
     private boolean isSmsSendingEnabled;
@@ -88,7 +90,7 @@ public class SmsSendService {
         try {
             Map<String, Object> resolvedConfig = config.getConfig();
             SmsSender sender = smsSenderFactory.getSender(config.getProvider().toLowerCase());
-            sender.sendSms(resolvedConfig, to, text);
+            providerLimiter.run("sms", config.getProvider(), () -> sender.sendSms(resolvedConfig, to, text));
             log.info("✅ SMS sent to {} using provider {}", to, config.getProvider());
             return true;
         } catch (Exception e) {
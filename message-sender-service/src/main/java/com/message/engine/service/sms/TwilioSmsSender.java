@@ -1,6 +1,6 @@
 package com.message.engine.service.sms;
 
-import com.twilio.Twilio;
+import com.message.engine.manager.SmsConnectionPoolManager;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import org.springframework.stereotype.Component;
@@ -10,13 +10,17 @@ import java.util.Map;
 @Component("twilio")
 public class TwilioSmsSender implements SmsSender {
 
+    private final SmsConnectionPoolManager smsConnectionPoolManager;
+
+    public TwilioSmsSender(SmsConnectionPoolManager smsConnectionPoolManager) {
+        this.smsConnectionPoolManager = smsConnectionPoolManager;
+    }
+
     @Override
     public void sendSms(Map<String, Object> config, String to, String message) {
-        String sid = config.get("accountSid").toString();
-        String token = config.get("authToken").toString();
         String from = config.get("from").toString();
 
-        Twilio.init(sid, token);
-        Message.creator(new PhoneNumber(to), new PhoneNumber(from), message).create();
+        Message.creator(new PhoneNumber(to), new PhoneNumber(from), message)
+                .create(smsConnectionPoolManager.getTwilioClient(config));
     }
 }
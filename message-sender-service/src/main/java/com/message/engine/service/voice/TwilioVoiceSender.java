@@ -1,6 +1,6 @@
 package com.message.engine.service.voice;
 
-import com.twilio.Twilio;
+import com.message.engine.manager.SmsConnectionPoolManager;
 import com.twilio.rest.api.v2010.account.Call;
 import com.twilio.type.PhoneNumber;
 import org.springframework.stereotype.Component;
@@ -11,18 +11,20 @@ import java.util.Map;
 @Component("twilio-voice")
 public class TwilioVoiceSender implements VoiceSender {
 
+    private final SmsConnectionPoolManager smsConnectionPoolManager;
+
+    public TwilioVoiceSender(SmsConnectionPoolManager smsConnectionPoolManager) {
+        this.smsConnectionPoolManager = smsConnectionPoolManager;
+    }
+
     @Override
     public void sendVoice(Map<String, Object> config, String to, String twiml) {
-        String sid = config.get("accountSid").toString();
-        String token = config.get("authToken").toString();
         String from = config.get("from").toString();
 
-        Twilio.init(sid, token);
-
         Call.creator(
                 new PhoneNumber(to),
                 new PhoneNumber(from),
                 URI.create("http://twimlets.com/echo?Twiml=" + URI.create(twiml).toString())
-        ).create();
+        ).create(smsConnectionPoolManager.getTwilioClient(config));
     }
 }
@@ -1,5 +1,6 @@
 package com.message.engine.service.voice;
 
+import com.message.engine.manager.ProviderConcurrencyLimiter;
 import com.message.engine.service.FailedVoiceLogService;
 import com.notification.common.dto.NotificationPayloadDTO;
 import com.notification.common.model.FailedVoiceLog;
@@ -23,6 +24,7 @@ public class VoiceSendService {
     private final VoiceSenderFactory voiceSenderFactory;
     private final NotificationConfigRepository configRepository;
     private final FailedVoiceLogService failedVoiceLogService;
+    private final ProviderConcurrencyLimiter providerLimiter;
 
     @Value("${notification.voice.enabled:true}")
     private boolean isVoiceSendingEnabled;
@@ -84,7 +86,7 @@ public class VoiceSendService {
     private boolean trySend(NotificationConfig config, String to, String xml) {
         try {
             VoiceSender sender = voiceSenderFactory.getSender(config.getProvider().toLowerCase()+"-voice");
-            sender.sendVoice(config.getConfig(), to, xml);
+            providerLimiter.run("voice", config.getProvider(), () -> sender.sendVoice(config.getConfig(), to, xml));
             log.info("✅ Voice call placed to {} using provider {}", to, config.getProvider());
             return true;
         } catch (Exception e) {
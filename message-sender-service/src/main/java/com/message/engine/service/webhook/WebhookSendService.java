@@ -1,5 +1,6 @@
 package com.message.engine.service.webhook;
 
+import com.message.engine.manager.ProviderConcurrencyLimiter;
 import com.message.engine.service.FailedWebhookLogService;
 import com.notification.common.dto.NotificationPayloadDTO;
 import com.notification.common.model.FailedWebhookLog;
@@ -21,6 +22,7 @@ public class WebhookSendService {
     private final NotificationConfigRepository configRepository;
     private final FailedWebhookLogService failedWebhookLogService;
     private final WebhookSenderFactory senderFactory;
+    private final ProviderConcurrencyLimiter providerLimiter;
 
     @Value("${notification.webhook.enabled:true}")
     private boolean isWebhookEnabled;
@@ -76,7 +78,7 @@ public class WebhookSendService {
     private boolean trySend(NotificationConfig config, String to, String message) {
         try {
             WebhookSender sender = senderFactory.getSender(config.getProvider().toLowerCase());
-            sender.sendWebhook(config.getConfig(), to, message);
+            providerLimiter.run("webhook", config.getProvider(), () -> sender.sendWebhook(config.getConfig(), to, message));
             log.info("✅ Webhook sent to {} using {}", to, config.getProvider());
             return true;
         } catch (Exception e) {
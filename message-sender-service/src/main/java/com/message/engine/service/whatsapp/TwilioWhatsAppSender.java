@@ -1,6 +1,7 @@
 package com.message.engine.service.whatsapp;
 
-import com.twilio.Twilio;
+import com.message.engine.manager.SmsConnectionPoolManager;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import org.springframework.stereotype.Component;
@@ -13,9 +14,15 @@ import java.util.Map;
 @Component("twilio-whatsapp")
 public class TwilioWhatsAppSender implements WhatsAppSender {
 
+    private final SmsConnectionPoolManager smsConnectionPoolManager;
+
+    public TwilioWhatsAppSender(SmsConnectionPoolManager smsConnectionPoolManager) {
+        this.smsConnectionPoolManager = smsConnectionPoolManager;
+    }
+
     @Override
     public void sendWhatsApp(Map<String, Object> config, String to, String message, List<File> attachments) {
-        Twilio.init(config.get("accountSid").toString(), config.get("authToken").toString());
+        TwilioRestClient client = smsConnectionPoolManager.getTwilioClient(config);
 
         String from = "whatsapp:" + config.get("from");
         String toNumber = "whatsapp:" + to;
@@ -26,7 +33,7 @@ public class TwilioWhatsAppSender implements WhatsAppSender {
                         new PhoneNumber(toNumber),
                         new PhoneNumber(from),
                         message
-                ).create();
+                ).create(client);
             } else {
                 for (File file : attachments) {
                     URI mediaUri = file.toURI().toURL().toURI();
@@ -34,7 +41,7 @@ public class TwilioWhatsAppSender implements WhatsAppSender {
                             new PhoneNumber(toNumber),
                             new PhoneNumber(from),
                             message
-                    ).setMediaUrl(List.of(mediaUri)).create();
+                    ).setMediaUrl(List.of(mediaUri)).create(client);
                 }
             }
         } catch (Exception e) {
@@ -1,5 +1,6 @@
 package com.message.engine.service.whatsapp;
 
+import com.message.engine.manager.ProviderConcurrencyLimiter;
 import com.message.engine.manager.FileStorageConnectionPoolManager;
 import com.message.engine.service.FailedWhatsappLogService;
 import com.message.engine.service.FileStorageConfigService;
@@ -35,6 +36,7 @@ public class WhatsAppSendService {
     private final FileStorageConnectionPoolManager fileStorageConnectionPoolManager;
     private final WhatsAppSenderFactory senderFactory;
     private final FailedWhatsappLogService failedLogService;
+    private final ProviderConcurrencyLimiter providerLimiter;
 
     @Value("${notification.whatsapp.enabled:true}")
     private boolean isWhatsAppEnabled;
@@ -95,7 +97,7 @@ public class WhatsAppSendService {
         try {
             Map<String, Object> resolvedConfig = config.getConfig();
             WhatsAppSender sender = senderFactory.getSender(config.getProvider()+"-whatsapp");
-            sender.sendWhatsApp(resolvedConfig, to, message, attachments);
+            providerLimiter.run("whatsapp", config.getProvider(), () -> sender.sendWhatsApp(resolvedConfig, to, message, attachments));
             log.info("✅ WhatsApp sent to {} using {}", to, config.getProvider());
             return true;
         } catch (Exception e) {
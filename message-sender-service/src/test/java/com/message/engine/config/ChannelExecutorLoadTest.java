@@ -0,0 +1,127 @@
+package com.message.engine.config;
+
+import com.message.engine.manager.ListenerBackpressureManager;
+import com.message.engine.manager.ProviderConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Load harness for {@code executor.mode}: pushes a burst of sends through the sms executor built
+ * by {@link ExecutorConfig}, each holding a {@link ProviderConcurrencyLimiter} permit for a
+ * simulated provider round trip, and logs throughput and submit-to-done latency percentiles for
+ * the platform pool and for virtual threads. Not part of the default build:
+ * <pre>
+ * mvn test -Dtest=ChannelExecutorLoadTest -Dloadtest=true [-Dloadtest.messages=5000]
+ *          [-Dloadtest.latency-ms=50] [-Dloadtest.provider-limit=200]
+ * </pre>
+ * The virtual run is skipped on JVMs older than 21.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ChannelExecutorLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelExecutorLoadTest.class);
+
+    private final int messages = Integer.getInteger("loadtest.messages", 5000);
+    private final long latencyMs = Long.getLong("loadtest.latency-ms", 50);
+    private final int providerLimit = Integer.getInteger("loadtest.provider-limit", 200);
+
+    @Test
+    void platformPool() throws Exception {
+        run("platform");
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        run("virtual");
+    }
+
+    private void run(String mode) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                // no listeners to pause here; measure the executor alone
+                .withProperty("executor.backpressure.enabled", "false")
+                .withProperty("provider.concurrency.sms.loadtest", String.valueOf(providerLimit));
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        ListenerBackpressureManager backpressure = new ListenerBackpressureManager(
+                beans.getBeanProvider(KafkaListenerEndpointRegistry.class),
+                beans.getBeanProvider(JmsListenerEndpointRegistry.class),
+                environment, meterRegistry);
+
+        // application.properties defaults
+        ExecutorConfig config = new ExecutorConfig(environment, backpressure, meterRegistry);
+        ReflectionTestUtils.setField(config, "corePoolSize", 10);
+        ReflectionTestUtils.setField(config, "maxPoolSize", 20);
+        ReflectionTestUtils.setField(config, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(config, "rejectionPolicy", "caller-runs");
+        ReflectionTestUtils.setField(config, "executorMode", mode);
+
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(environment, meterRegistry);
+        ReflectionTestUtils.setField(limiter, "defaultLimit", 50);
+        ReflectionTestUtils.setField(limiter, "acquireTimeoutMs", 60_000L);
+
+        AsyncTaskExecutor executor = config.smsTaskExecutor("sms-loadtest");
+        boolean virtual = !(executor instanceof ThreadPoolTaskExecutor);
+        assumeTrue(virtual == "virtual".equals(mode), "virtual threads need JDK 21+");
+
+        long[] latencies = new long[messages];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(messages);
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < messages; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                executor.execute(() -> {
+                    try {
+                        limiter.run("sms", "loadtest", () -> Thread.sleep(latencyMs));
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - submitted;
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.MINUTES), "load run did not finish");
+        } finally {
+            if (executor instanceof ThreadPoolTaskExecutor pool) {
+                pool.shutdown();
+            }
+            config.shutdownVirtualExecutors();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        log.info("📊 {} executor: {} sends, {} ms provider latency, provider limit {} -> {} msg/s, p50 {} ms, p99 {} ms, max {} ms",
+                mode, messages, latencyMs, providerLimit,
+                String.format("%.0f", messages / (elapsed / 1e9)),
+                percentileMs(latencies, 0.50), percentileMs(latencies, 0.99), latencies[messages - 1] / 1_000_000);
+        assertEquals(0, failures.get(), "sends timed out waiting for a provider permit");
+    }
+
+    private static long percentileMs(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000;
+    }
+}
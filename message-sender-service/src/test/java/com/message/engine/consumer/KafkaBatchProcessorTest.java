@@ -0,0 +1,203 @@
+package com.message.engine.consumer;
+
+import com.message.engine.service.NotificationPayloadReader;
+import com.notification.common.dto.NotificationPayloadDTO;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KafkaBatchProcessorTest {
+
+    private static final String TOPIC = "sms-queue";
+
+    private final NotificationPayloadReader payloadReader = mock(NotificationPayloadReader.class);
+    private final Acknowledgment ack = mock(Acknowledgment.class);
+    private final ThreadPoolTaskExecutor smsTaskExecutor = new ThreadPoolTaskExecutor();
+    private KafkaBatchProcessor processor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        smsTaskExecutor.setCorePoolSize(4);
+        smsTaskExecutor.initialize();
+        processor = new KafkaBatchProcessor(Map.of("smsTaskExecutor", smsTaskExecutor), payloadReader);
+
+        when(payloadReader.read(any(ConsumerRecord.class))).thenAnswer(invocation -> payload(invocation.getArgument(0)));
+        when(payloadReader.decode(any(ConsumerRecord.class))).thenAnswer(invocation -> payload(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        smsTaskExecutor.shutdown();
+    }
+
+    @Test
+    void acknowledgesOnlyAfterEveryRecordHasBeenSent() throws Exception {
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                record(0, "a", "a-0"), record(1, null, "x-1"), record(2, "b", "b-2"), record(3, "a", "a-3"));
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> listener = CompletableFuture.runAsync(() -> processor.process("sms", records, ack, payload -> {
+            if (payload.getTo().equals("a-3")) await(release);
+            sent.add(payload.getTo());
+        }));
+
+        verify(ack, after(200).never()).acknowledge();
+        assertEquals(3, waitForSize(sent, 3).size(), "the other records should not wait for the slow one");
+
+        release.countDown();
+        listener.get(2, TimeUnit.SECONDS);
+        verify(ack).acknowledge();
+        assertEquals(4, sent.size());
+    }
+
+    @Test
+    void sameKeyRecordsAreSentInOffsetOrder() throws Exception {
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (int offset = 0; offset < 40; offset++) {
+            String key = "user-" + offset % 4;
+            records.add(record(offset, key, key + "#" + offset));
+        }
+        Map<String, List<Integer>> sentPerKey = new ConcurrentHashMap<>();
+
+        processor.process("sms", records, ack, payload -> {
+            String[] parts = payload.getTo().split("#");
+            sleep(1);
+            sentPerKey.computeIfAbsent(parts[0], k -> new CopyOnWriteArrayList<>()).add(Integer.parseInt(parts[1]));
+        });
+
+        verify(ack).acknowledge();
+        assertEquals(4, sentPerKey.size());
+        sentPerKey.values().forEach(offsets -> {
+            List<Integer> sorted = new ArrayList<>(offsets);
+            sorted.sort(null);
+            assertEquals(sorted, offsets);
+            assertEquals(10, offsets.size());
+        });
+    }
+
+    @Test
+    void failedRecordDoesNotStopTheRestOfItsKeyOrTheCommit() {
+        List<ConsumerRecord<String, byte[]>> records = List.of(record(0, "a", "a-0"), record(1, "a", "a-1"));
+        List<String> sent = new CopyOnWriteArrayList<>();
+
+        processor.process("sms", records, ack, payload -> {
+            if (payload.getTo().equals("a-0")) throw new IllegalStateException("provider down");
+            sent.add(payload.getTo());
+        });
+
+        verify(ack).acknowledge();
+        assertEquals(List.of("a-1"), sent);
+    }
+
+    @Test
+    void saturatedExecutorRunsTheGroupOnTheListenerThread() {
+        AsyncTaskExecutor saturated = mock(AsyncTaskExecutor.class);
+        doThrow(new TaskRejectedException("queue full")).when(saturated).execute(any(Runnable.class));
+        processor = new KafkaBatchProcessor(Map.of("smsTaskExecutor", saturated), payloadReader);
+        Thread listenerThread = Thread.currentThread();
+        List<Thread> senders = new CopyOnWriteArrayList<>();
+
+        processor.process("sms", List.of(record(0, "a", "a-0"), record(1, null, "x-1")), ack,
+                payload -> senders.add(Thread.currentThread()));
+
+        verify(ack).acknowledge();
+        assertEquals(List.of(listenerThread, listenerThread), senders);
+    }
+
+    @Test
+    void asyncBatchIsAcknowledgedOnceEveryFutureHasCompleted() throws Exception {
+        List<ConsumerRecord<String, byte[]>> records = List.of(record(0, "a", "a-0"), record(1, "b", "b-1"));
+        List<CompletableFuture<Void>> pending = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> listener = CompletableFuture.runAsync(() -> processor.processAsync("email", records, ack, payload -> {
+            CompletableFuture<Void> outcome = new CompletableFuture<>();
+            pending.add(outcome);
+            return outcome;
+        }));
+
+        waitForSize(pending, 2);
+        pending.get(0).complete(null);
+        verify(ack, after(200).never()).acknowledge();
+
+        pending.get(1).completeExceptionally(new IllegalStateException("smtp down"));
+        listener.get(2, TimeUnit.SECONDS);
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void undecodableRecordIsSkippedInTheAsyncPath() {
+        ConsumerRecord<String, byte[]> broken = record(0, "a", "broken");
+        when(payloadReader.decode(broken)).thenThrow(new IllegalArgumentException("Unsupported payload version"));
+        List<String> sent = new CopyOnWriteArrayList<>();
+
+        processor.processAsync("email", List.of(broken, record(1, "a", "a-1")), ack, payload -> {
+            sent.add(payload.getTo());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        verify(ack).acknowledge();
+        verify(payloadReader, never()).read(any(ConsumerRecord.class));
+        assertEquals(List.of("a-1"), sent);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String key, String to) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, key, to.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static NotificationPayloadDTO payload(ConsumerRecord<String, byte[]> record) {
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setTo(new String(record.value(), StandardCharsets.UTF_8));
+        return payload;
+    }
+
+    private static <T> List<T> waitForSize(List<T> list, int size) throws InterruptedException {
+        for (int i = 0; i < 200 && list.size() < size; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(list.size() >= size, "expected " + size + " entries, got " + list.size());
+        return list;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
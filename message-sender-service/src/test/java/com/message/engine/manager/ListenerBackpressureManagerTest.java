@@ -0,0 +1,161 @@
+package com.message.engine.manager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ListenerBackpressureManagerTest {
+
+    private static final String QUEUE = "sms-queue";
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final MessageListenerContainer kafkaContainer = kafkaContainer(QUEUE);
+    private final MessageListenerContainer otherKafkaContainer = kafkaContainer("email-queue");
+    private final DefaultMessageListenerContainer jmsContainer = mock(DefaultMessageListenerContainer.class);
+    private ListenerBackpressureManager manager;
+
+    @BeforeEach
+    void setUp() {
+        when(jmsContainer.getDestinationName()).thenReturn(QUEUE);
+
+        KafkaListenerEndpointRegistry kafkaRegistry = mock(KafkaListenerEndpointRegistry.class);
+        when(kafkaRegistry.getListenerContainers()).thenReturn(List.of(kafkaContainer, otherKafkaContainer));
+        JmsListenerEndpointRegistry jmsRegistry = mock(JmsListenerEndpointRegistry.class);
+        when(jmsRegistry.getListenerContainers()).thenReturn(List.of(jmsContainer));
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("kafkaListenerEndpointRegistry", kafkaRegistry);
+        beans.addBean("jmsListenerEndpointRegistry", jmsRegistry);
+        manager = new ListenerBackpressureManager(
+                beans.getBeanProvider(KafkaListenerEndpointRegistry.class),
+                beans.getBeanProvider(JmsListenerEndpointRegistry.class),
+                environment, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void pausesAtTheHighWatermarkAndResumesAtTheLowOne() {
+        environment.setProperty("executor.sms.backpressure.high-watermark", "3");
+        environment.setProperty("executor.sms.backpressure.low-watermark", "1");
+        TaskDecorator credits = manager.forChannel("sms", QUEUE, () -> 10);
+
+        List<Runnable> tasks = decorate(credits, 2);
+        verify(kafkaContainer, never()).pause();
+
+        tasks.addAll(decorate(credits, 1));
+        verify(kafkaContainer).pause();
+        verify(jmsContainer).stop();
+        verify(otherKafkaContainer, never()).pause();
+
+        tasks.get(0).run();
+        verify(kafkaContainer, never()).resume();
+
+        tasks.get(1).run();
+        verify(kafkaContainer).resume();
+        verify(jmsContainer).start();
+    }
+
+    @Test
+    void pausesOnlyOnceWhileAboveTheHighWatermark() {
+        environment.setProperty("executor.backpressure.high-watermark", "2");
+        environment.setProperty("executor.backpressure.low-watermark", "0");
+        TaskDecorator credits = manager.forChannel("sms", QUEUE, () -> 10);
+
+        decorate(credits, 5);
+
+        verify(kafkaContainer, times(1)).pause();
+    }
+
+    @Test
+    void watermarksFollowTheExecutorSizeWhenNotConfigured() {
+        AtomicInteger workers = new AtomicInteger(2);
+        TaskDecorator credits = manager.forChannel("sms", QUEUE, workers::get);
+
+        List<Runnable> tasks = decorate(credits, 3);
+        verify(kafkaContainer, never()).pause();
+        tasks.addAll(decorate(credits, 1));
+        verify(kafkaContainer).pause();
+
+        // 4 in flight against a low watermark of 2: resumes once two of them have finished
+        tasks.get(0).run();
+        verify(kafkaContainer, never()).resume();
+        tasks.get(1).run();
+        verify(kafkaContainer).resume();
+    }
+
+    @Test
+    void resizedExecutorMovesTheWatermarks() {
+        AtomicInteger workers = new AtomicInteger(2);
+        TaskDecorator credits = manager.forChannel("sms", QUEUE, workers::get);
+
+        workers.set(5);
+        decorate(credits, 9);
+        verify(kafkaContainer, never()).pause();
+        decorate(credits, 1);
+        verify(kafkaContainer).pause();
+    }
+
+    @Test
+    void rejectedTaskGivesItsCreditBack() {
+        environment.setProperty("executor.sms.backpressure.high-watermark", "2");
+        environment.setProperty("executor.sms.backpressure.low-watermark", "1");
+        TaskDecorator credits = manager.forChannel("sms", QUEUE, () -> 10);
+        ThreadPoolExecutor executor = mock(ThreadPoolExecutor.class);
+
+        List<Runnable> tasks = decorate(credits, 2);
+        verify(kafkaContainer).pause();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> manager.releasingCredits(new ThreadPoolExecutor.AbortPolicy()).rejectedExecution(tasks.get(1), executor));
+        verify(kafkaContainer).resume();
+
+        // the rejected task's credit is gone for good; running it anyway must not release twice
+        tasks.get(0).run();
+        tasks.get(1).run();
+        decorate(credits, 1);
+        verify(kafkaContainer, times(1)).pause();
+    }
+
+    @Test
+    void disabledBackpressureLeavesTasksUndecorated() {
+        environment.setProperty("executor.backpressure.enabled", "false");
+        Runnable task = () -> { };
+
+        assertSame(task, manager.forChannel("sms", QUEUE, () -> 1).decorate(task));
+    }
+
+    private static List<Runnable> decorate(TaskDecorator credits, int count) {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(credits.decorate(() -> { }));
+        }
+        return tasks;
+    }
+
+    private static MessageListenerContainer kafkaContainer(String topic) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(topic));
+        return container;
+    }
+}
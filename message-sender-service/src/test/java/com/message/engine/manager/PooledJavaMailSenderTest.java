@@ -0,0 +1,153 @@
+package com.message.engine.manager;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PooledJavaMailSenderTest {
+
+    private final Session session = Session.getInstance(new Properties());
+    private final List<Transport> opened = new ArrayList<>();
+
+    @Test
+    void returnedTransportIsReusedByTheNextSend() throws Exception {
+        Semaphore permits = new Semaphore(2);
+        PooledJavaMailSender sender = sender(permits, 100);
+
+        sender.send(message("a@example.com"));
+        sender.send(message("b@example.com"));
+
+        assertEquals(1, opened.size());
+        verify(opened.get(0), times(2)).sendMessage(any(), any());
+        verify(opened.get(0), never()).close();
+        assertEquals(2, permits.availablePermits(), "host permit must be returned after each send");
+    }
+
+    @Test
+    void transportIsRecycledAfterMaxMessages() throws Exception {
+        PooledJavaMailSender sender = sender(new Semaphore(1), 2);
+
+        sender.send(message("a@example.com"), message("b@example.com"));
+        sender.send(message("c@example.com"));
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0)).close();
+        verify(opened.get(1)).sendMessage(any(), any());
+    }
+
+    @Test
+    void brokenTransportIsClosedAndTheRestOfTheBatchRetriedOnAFreshOne() throws Exception {
+        Semaphore permits = new Semaphore(1);
+        List<Integer> failOnConnection = List.of(0);
+        PooledJavaMailSender sender = sender(permits, 100, failOnConnection);
+
+        sender.send(message("a@example.com"), message("b@example.com"));
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0)).close();
+        verify(opened.get(1), times(2)).sendMessage(any(), any());
+        assertEquals(1, permits.availablePermits());
+    }
+
+    @Test
+    void secondConnectionFailureFailsTheRestWithoutLeakingPermits() throws Exception {
+        Semaphore permits = new Semaphore(1);
+        PooledJavaMailSender sender = sender(permits, 100, List.of(0, 1));
+
+        MailSendException failure = assertThrows(MailSendException.class,
+                () -> sender.send(message("a@example.com"), message("b@example.com")));
+
+        assertEquals(2, failure.getFailedMessages().size());
+        assertEquals(2, opened.size());
+        assertEquals(1, permits.availablePermits());
+    }
+
+    @Test
+    void borrowTimesOutWhenTheHostHasNoFreePermit() {
+        PooledJavaMailSender sender = sender(new Semaphore(0), 100);
+
+        MailSendException failure = assertThrows(MailSendException.class, () -> sender.send(message("a@example.com")));
+
+        assertEquals(1, failure.getFailedMessages().size());
+        assertEquals(0, opened.size());
+    }
+
+    @Test
+    void evictIdleClosesTransportsIdleLongerThanTheTimeout() throws Exception {
+        PooledJavaMailSender sender = sender(new Semaphore(1), 100, List.of(), 0);
+        sender.send(message("a@example.com"));
+        Thread.sleep(5);
+
+        sender.evictIdle();
+        sender.send(message("b@example.com"));
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0)).close();
+    }
+
+    @Test
+    void closedPoolClosesIdleTransportsAndRefusesSends() throws Exception {
+        PooledJavaMailSender sender = sender(new Semaphore(1), 100);
+        sender.send(message("a@example.com"));
+
+        sender.close();
+
+        verify(opened.get(0)).close();
+        assertThrows(MailSendException.class, () -> sender.send(message("b@example.com")));
+    }
+
+    private PooledJavaMailSender sender(Semaphore permits, int maxMessagesPerConnection) {
+        return sender(permits, maxMessagesPerConnection, List.of());
+    }
+
+    private PooledJavaMailSender sender(Semaphore permits, int maxMessagesPerConnection, List<Integer> brokenConnections) {
+        return sender(permits, maxMessagesPerConnection, brokenConnections, 60_000);
+    }
+
+    /**
+     * @param brokenConnections indexes (in opening order) of transports whose sends fail at connection level
+     */
+    private PooledJavaMailSender sender(Semaphore permits, int maxMessagesPerConnection,
+                                        List<Integer> brokenConnections, long idleTimeoutMs) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(permits, 2, maxMessagesPerConnection, 50, idleTimeoutMs, 60_000) {
+            @Override
+            protected Transport connectTransport() throws MessagingException {
+                Transport transport = mock(Transport.class);
+                when(transport.isConnected()).thenReturn(true);
+                if (brokenConnections.contains(opened.size())) {
+                    doThrow(new MessagingException("connection reset")).when(transport).sendMessage(any(), any());
+                }
+                opened.add(transport);
+                return transport;
+            }
+        };
+        sender.setHost("smtp.example.com");
+        return sender;
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(to));
+        message.setText("hello");
+        return message;
+    }
+}
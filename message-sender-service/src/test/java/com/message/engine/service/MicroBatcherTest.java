@@ -0,0 +1,115 @@
+package com.message.engine.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatcherTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private MicroBatcher<String> batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void flushesAsSoonAsTheBatchIsFull() throws Exception {
+        // a linger far beyond the test timeout: only the size can trigger the flush
+        batcher = new MicroBatcher<>("test", Runnable::run, 60_000, 3, batches::add);
+
+        CompletableFuture<Void> first = batcher.add("config-1", "a");
+        batcher.add("config-1", "b");
+        assertFalse(first.isDone());
+
+        CompletableFuture<Void> last = batcher.add("config-1", "c");
+
+        last.get(1, TimeUnit.SECONDS);
+        assertTrue(first.isDone());
+        assertEquals(List.of(List.of("a", "b", "c")), batches);
+    }
+
+    @Test
+    void flushesAPartialBatchOnceTheLingerExpires() throws Exception {
+        batcher = new MicroBatcher<>("test", Runnable::run, 50, 100, batches::add);
+
+        CompletableFuture<Void> first = batcher.add("config-1", "a");
+        CompletableFuture<Void> second = batcher.add("config-1", "b");
+        assertFalse(first.isDone());
+
+        CompletableFuture.allOf(first, second).get(2, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("a", "b")), batches);
+    }
+
+    @Test
+    void keysAreBatchedSeparately() throws Exception {
+        batcher = new MicroBatcher<>("test", Runnable::run, 50, 2, batches::add);
+
+        CompletableFuture<Void> a = batcher.add("config-1", "a");
+        CompletableFuture<Void> x = batcher.add("config-2", "x");
+        CompletableFuture<Void> b = batcher.add("config-1", "b");
+
+        b.get(1, TimeUnit.SECONDS);
+        assertTrue(a.isDone());
+        x.get(2, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("a", "b"), List.of("x")), batches);
+    }
+
+    @Test
+    void sizeFlushDoesNotLetTheOldLingerTimerFlushTheNextBatch() throws Exception {
+        batcher = new MicroBatcher<>("test", Runnable::run, 200, 2, batches::add);
+
+        batcher.add("config-1", "a");                   // timer for the first batch fires at ~200 ms
+        Thread.sleep(100);
+        batcher.add("config-1", "b").get(1, TimeUnit.SECONDS);
+        CompletableFuture<Void> c = batcher.add("config-1", "c"); // second batch, its timer at ~300 ms
+        Thread.sleep(150);
+        assertFalse(c.isDone(), "the first batch's timer flushed the second batch");
+        CompletableFuture<Void> d = batcher.add("config-1", "d");
+
+        CompletableFuture.allOf(c, d).get(1, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), batches);
+    }
+
+    @Test
+    void unkeyedItemsGoOutAlone() throws Exception {
+        batcher = new MicroBatcher<>("test", Runnable::run, 60_000, 10, batches::add);
+
+        batcher.add(null, "a").get(1, TimeUnit.SECONDS);
+
+        assertEquals(List.of(List.of("a")), batches);
+    }
+
+    @Test
+    void futuresCompleteEvenWhenTheHandlerFails() throws Exception {
+        batcher = new MicroBatcher<>("test", Runnable::run, 60_000, 2, items -> {
+            throw new IllegalStateException("smtp down");
+        });
+
+        CompletableFuture<Void> a = batcher.add("config-1", "a");
+        CompletableFuture<Void> b = batcher.add("config-1", "b");
+
+        CompletableFuture.allOf(a, b).get(1, TimeUnit.SECONDS);
+        assertFalse(a.isCompletedExceptionally());
+    }
+
+    @Test
+    void shutdownSubmitsWhatIsStillCollecting() throws Exception {
+        batcher = new MicroBatcher<>("test", Runnable::run, 60_000, 10, batches::add);
+        CompletableFuture<Void> a = batcher.add("config-1", "a");
+
+        batcher.shutdown();
+
+        a.get(1, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("a")), batches);
+    }
+}
@@ -0,0 +1,153 @@
+package com.message.engine.service;
+
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.enums.PayloadMode;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.repository.NotificationConfigRepository;
+import com.notification.common.repository.TemplateRepository;
+import com.notification.common.service.template.TemplateRenderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationPayloadReaderTest {
+
+    private final NotificationConfigRepository configRepository = mock(NotificationConfigRepository.class);
+    private final TemplateRepository templateRepository = mock(TemplateRepository.class);
+    private final TemplateRenderService templateRenderService = spy(new TemplateRenderService());
+    private NotificationPayloadReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new NotificationPayloadReader(configRepository, templateRepository, templateRenderService);
+        when(configRepository.findById("config-1")).thenAnswer(invocation -> Optional.of(config()));
+        when(templateRepository.findById("template-1")).thenAnswer(invocation -> Optional.of(template(3L)));
+    }
+
+    @Test
+    void snapshotPayloadIsReturnedUntouched() {
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setPayloadMode(PayloadMode.SNAPSHOT);
+
+        assertSame(payload, reader.resolve(payload));
+        verify(configRepository, never()).findById(any());
+        verify(templateRepository, never()).findById(any());
+    }
+
+    @Test
+    void referencePayloadIsResolvedIntoASnapshot() {
+        NotificationPayloadDTO payload = reader.resolve(reference(3L, "h1", "1234"));
+
+        assertEquals("config-1", payload.getSnapshotConfig().getId());
+        assertEquals("Your code is 1234", payload.getSnapshotTemplate().getContent());
+        assertEquals("Code 1234", payload.getSubject());
+    }
+
+    @Test
+    void configAndTemplateAreLoadedOncePerIdAndVersion() {
+        reader.resolve(reference(3L, "h1", "1"));
+        reader.resolve(reference(3L, "h2", "2"));
+
+        verify(configRepository, times(1)).findById("config-1");
+        verify(templateRepository, times(1)).findById("template-1");
+    }
+
+    @Test
+    void newTemplateVersionIsANewCacheKey() {
+        reader.resolve(reference(3L, "h1", "1"));
+        when(templateRepository.findById("template-1")).thenAnswer(invocation -> Optional.of(template(4L)));
+
+        reader.resolve(reference(4L, "h1", "1"));
+
+        verify(templateRepository, times(2)).findById("template-1");
+    }
+
+    @Test
+    void staleReplicaIsNotCachedUnderTheNewerVersion() {
+        assertThrows(IllegalStateException.class, () -> reader.resolve(reference(4L, "h1", "1")));
+        when(templateRepository.findById("template-1")).thenAnswer(invocation -> Optional.of(template(4L)));
+
+        reader.resolve(reference(4L, "h1", "1"));
+
+        verify(templateRepository, times(2)).findById("template-1");
+    }
+
+    @Test
+    void evictedConfigIsLoadedAgain() {
+        reader.resolve(reference(3L, "h1", "1"));
+
+        reader.evictConfig("config-1");
+        reader.resolve(reference(3L, "h1", "1"));
+
+        verify(configRepository, times(2)).findById("config-1");
+    }
+
+    @Test
+    void renderedBodyIsSharedByRecipientsWithTheSameParamsHash() {
+        NotificationPayloadDTO first = reader.resolve(reference(3L, "h1", "1234"));
+        NotificationPayloadDTO second = reader.resolve(reference(3L, "h1", "1234"));
+        NotificationPayloadDTO other = reader.resolve(reference(3L, "h2", "9999"));
+
+        verify(templateRenderService, times(2)).renderContent(any(), any());
+        assertEquals(first.getSnapshotTemplate().getContent(), second.getSnapshotTemplate().getContent());
+        assertEquals("Your code is 9999", other.getSnapshotTemplate().getContent());
+    }
+
+    @Test
+    void payloadsWithoutAParamsHashAreRenderedEachTime() {
+        reader.resolve(reference(3L, null, "1"));
+        reader.resolve(reference(3L, null, "2"));
+
+        verify(templateRenderService, times(2)).renderContent(any(), any());
+    }
+
+    @Test
+    void resolvingDoesNotChangeTheCachedTemplate() {
+        // the rendered body goes into a copy; rendering into the cached entry would freeze the first recipient's code
+        reader.resolve(reference(3L, "h1", "1234"));
+        NotificationPayloadDTO payload = reader.resolve(reference(3L, "h2", "5678"));
+
+        assertEquals("Your code is 5678", payload.getSnapshotTemplate().getContent());
+    }
+
+    private static NotificationPayloadDTO reference(Long templateVersion, String paramsHash, String code) {
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setPayloadMode(PayloadMode.REFERENCE);
+        payload.setConfigId("config-1");
+        payload.setTemplateId("template-1");
+        payload.setTemplateVersion(templateVersion);
+        payload.setParamsHash(paramsHash);
+        payload.setCustomParams(Map.of("code", code));
+        return payload;
+    }
+
+    private static NotificationConfig config() {
+        NotificationConfig config = new NotificationConfig();
+        config.setId("config-1");
+        config.setConfig(Map.of("host", "smtp.example.com"));
+        return config;
+    }
+
+    private static TemplateEntity template(Long version) {
+        TemplateEntity template = new TemplateEntity();
+        template.setId("template-1");
+        template.setVersion(version);
+        template.setEmailSubject("Code {{code}}");
+        template.setContent("Your code is {{code}}");
+        return template;
+    }
+}
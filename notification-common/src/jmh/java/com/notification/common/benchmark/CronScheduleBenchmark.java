@@ -0,0 +1,75 @@
+package com.notification.common.benchmark;
+
+import com.notification.common.utils.CronScheduleUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One scheduler tick over 100k schedules that share a handful of expressions and zones: the
+ * cached evaluation in {@link CronScheduleUtil} against parsing the expression and zone for every
+ * schedule, as the scheduler did before. Reported time is per 100k evaluations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CronScheduleBenchmark {
+
+    private static final int SCHEDULES = 100_000;
+
+    private static final String[] CRONS = {
+            "0 0 9 * * *", "0 */15 * * * *", "0 0 */2 * * *", "0 30 8 * * MON-FRI",
+            "*/30 * * * * *", "0 0 0 1 * *", "0 45 17 * * FRI", "0 0 12 * * SUN"
+    };
+
+    private static final String[] ZONES = {"UTC", "Asia/Kolkata", "America/New_York", "Europe/Berlin"};
+
+    private String[] crons;
+    private String[] zones;
+    private Instant tick;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        crons = new String[SCHEDULES];
+        zones = new String[SCHEDULES];
+        for (int i = 0; i < SCHEDULES; i++) {
+            crons[i] = CRONS[random.nextInt(CRONS.length)];
+            zones[i] = ZONES[random.nextInt(ZONES.length)];
+        }
+        tick = Instant.parse("2024-05-01T09:00:07Z");
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        for (int i = 0; i < SCHEDULES; i++) {
+            blackhole.consume(CronScheduleUtil.nextFireAt(crons[i], zones[i], tick));
+        }
+    }
+
+    @Benchmark
+    public void parsePerEvaluation(Blackhole blackhole) {
+        for (int i = 0; i < SCHEDULES; i++) {
+            ZonedDateTime next = CronExpression.parse(crons[i]).next(tick.atZone(ZoneId.of(zones[i])));
+            blackhole.consume(next != null ? next.toInstant().toEpochMilli() : null);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.notification.common.benchmark;
+
+import com.notification.common.codec.PayloadCodec;
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.TemplateEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode / decode time of typical email and SMS payloads per codec. Bytes on the wire are
+ * printed once per trial from setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadCodecBenchmark {
+
+    @Param({PayloadCodecs.JSON, PayloadCodecs.SMILE})
+    public String codecName;
+
+    @Param({"email", "sms"})
+    public String channel;
+
+    private PayloadCodec codec;
+    private NotificationPayloadDTO payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        codec = PayloadCodecs.get(codecName);
+        payload = "email".equals(channel) ? emailPayload() : smsPayload();
+        encoded = codec.encode(payload);
+        System.out.printf("%s %s payload: %d bytes%n", codecName, channel, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(payload);
+    }
+
+    @Benchmark
+    public NotificationPayloadDTO decode() {
+        return codec.decode(encoded);
+    }
+
+    private static NotificationPayloadDTO emailPayload() {
+        NotificationConfig config = config("email", "smtp", Map.of(
+                "host", "smtp.example.com", "port", 587, "username", "notifications@example.com",
+                "password", "secret", "from", "Example <notifications@example.com>"));
+
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            html.append("<tr><td>Order line ").append(i).append("</td><td>Lorem ipsum dolor sit amet</td></tr>\n");
+        }
+        TemplateEntity template = new TemplateEntity();
+        template.setId("6650a1f2c3d4e5f6a7b8c9d0");
+        template.setTemplateName("order-confirmation");
+        template.setEmailSubject("Your order has shipped");
+        template.setContent("<html><body><table>" + html + "</table></body></html>");
+        template.setVersion(3L);
+
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setTo("customer@example.com");
+        payload.setCc(List.of("support@example.com"));
+        payload.setSubject("Your order has shipped");
+        payload.setSnapshotConfig(config);
+        payload.setSnapshotTemplate(template);
+        payload.setMessageId("6650a1f2c3d4e5f6a7b8c9d1@1714554000000");
+        return payload;
+    }
+
+    private static NotificationPayloadDTO smsPayload() {
+        NotificationConfig config = config("sms", "twilio", Map.of(
+                "accountSid", "AC00000000000000000000000000000000", "authToken", "secret", "fromNumber", "+15005550006"));
+
+        TemplateEntity template = new TemplateEntity();
+        template.setId("6650a1f2c3d4e5f6a7b8c9d2");
+        template.setTemplateName("otp");
+        template.setContent("Your verification code is 482913. It expires in 10 minutes.");
+
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setTo("+919800000000");
+        payload.setSubject(template.getContent());
+        payload.setSnapshotConfig(config);
+        payload.setSnapshotTemplate(template);
+        return payload;
+    }
+
+    private static NotificationConfig config(String channel, String provider, Map<String, Object> values) {
+        NotificationConfig config = new NotificationConfig();
+        config.setId("6650a1f2c3d4e5f6a7b8c9d3");
+        config.setClientName("bench");
+        config.setChannel(channel);
+        config.setProvider(provider);
+        config.setConfig(values);
+        config.setActive(true);
+        return config;
+    }
+}
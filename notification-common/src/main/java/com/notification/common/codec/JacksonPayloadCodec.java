@@ -0,0 +1,54 @@
+package com.notification.common.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.notification.common.dto.NotificationPayloadDTO;
+
+import java.io.IOException;
+
+/**
+ * Jackson-backed codec. Reader and writer are bound to the DTO type once, so the
+ * per-message cost is the encode itself rather than type introspection.
+ */
+class JacksonPayloadCodec implements PayloadCodec {
+
+    private final String name;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    JacksonPayloadCodec(String name, ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.name = name;
+        this.reader = mapper.readerFor(NotificationPayloadDTO.class);
+        this.writer = mapper.writerFor(NotificationPayloadDTO.class);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(NotificationPayloadDTO payload) {
+        try {
+            return writer.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new RuntimeException("Error encoding payload with codec " + name, e);
+        }
+    }
+
+    @Override
+    public NotificationPayloadDTO decode(byte[] data) {
+        try {
+            return reader.readValue(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Error decoding payload with codec " + name, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.notification.common.codec;
+
+import com.notification.common.dto.NotificationPayloadDTO;
+
+/**
+ * Wire encoding for {@link NotificationPayloadDTO} on the channel queues. The codec name travels
+ * with each message (Kafka header / JMS property) so consumers decode per message.
+ */
+public interface PayloadCodec {
+
+    String name();
+
+    byte[] encode(NotificationPayloadDTO payload);
+
+    NotificationPayloadDTO decode(byte[] data);
+}
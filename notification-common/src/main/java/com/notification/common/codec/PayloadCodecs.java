@@ -0,0 +1,61 @@
+package com.notification.common.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.util.Map;
+
+/**
+ * Registry of the payload codecs understood by producers and listeners.
+ * Messages without a codec header are treated as JSON, which is what every
+ * producer wrote before codecs existed (and what the unsent-message store keeps).
+ */
+public final class PayloadCodecs {
+
+    public static final String HEADER_CODEC = "payload-codec";
+    public static final String HEADER_VERSION = "payload-version";
+
+    /** Bumped when the envelope layout changes in a way old consumers can't read. */
+    public static final int WIRE_VERSION = 1;
+
+    public static final String JSON = "json";
+    public static final String SMILE = "smile";
+
+    private static final PayloadCodec JSON_CODEC = new JacksonPayloadCodec(JSON, new ObjectMapper());
+
+    private static final PayloadCodec SMILE_CODEC = new JacksonPayloadCodec(SMILE, new ObjectMapper(
+            SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build()));
+
+    private static final Map<String, PayloadCodec> CODECS = Map.of(
+            JSON, JSON_CODEC,
+            SMILE, SMILE_CODEC);
+
+    private PayloadCodecs() {
+    }
+
+    public static PayloadCodec json() {
+        return JSON_CODEC;
+    }
+
+    /**
+     * Codec for the given name; a missing name means JSON.
+     */
+    public static PayloadCodec get(String name) {
+        if (name == null || name.isBlank()) return JSON_CODEC;
+        PayloadCodec codec = CODECS.get(name.toLowerCase());
+        if (codec == null) {
+            throw new IllegalArgumentException("Unsupported payload codec: " + name);
+        }
+        return codec;
+    }
+
+    public static void checkVersion(Integer version) {
+        if (version != null && version > WIRE_VERSION) {
+            throw new IllegalArgumentException("Unsupported payload version " + version
+                    + " (this service understands up to " + WIRE_VERSION + ")");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.notification.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchJobStatusDTO {
+    private String jobId;
+    private String channel;
+    private String status;      // RUNNING | COMPLETED
+    private long accepted;      // recipients read from the request
+    private long published;     // payloads the broker accepted
+    private long unsent;        // payloads parked in the unsent store after retries; replayed later
+    private long failed;        // recipients that could not be rendered, got no rate-limit permit, or could not be published
+    private String error;       // why intake stopped early; the recipients counted above are still sent
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
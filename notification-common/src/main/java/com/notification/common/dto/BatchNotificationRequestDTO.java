@@ -0,0 +1,29 @@
+package com.notification.common.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class BatchNotificationRequestDTO {
+
+    @NotBlank(message = "NotificationConfigId must not be blank")
+    private String notificationConfigId;
+
+    @NotBlank(message = "TemplateId must not be blank")
+    private String templateId;
+
+    private String emailSubject;
+
+    /** Params shared by every recipient in the batch. */
+    private Map<String, Object> customParams;
+
+    @NotEmpty(message = "Recipients must not be empty")
+    private List<@Valid BatchRecipientDTO> recipients;
+}
@@ -0,0 +1,23 @@
+package com.notification.common.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class BatchRecipientDTO {
+
+    @NotBlank(message = "Recipient 'to' must not be blank")
+    private String to;
+
+    private List<@Email String> cc;
+    private List<@Email String> bcc;
+
+    /** Per-recipient params, layered over the batch-level customParams. */
+    private Map<String, Object> customParams;
+}
@@ -0,0 +1,19 @@
+package com.notification.common.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class FcmTokenRequestDTO {
+
+    @NotBlank(message = "phone must not be blank")
+    private String phone;
+
+    @NotBlank(message = "fcmToken must not be blank")
+    private String fcmToken;
+
+    /** Identifies the device across token refreshes; defaults to the token itself. */
+    private String deviceId;
+}
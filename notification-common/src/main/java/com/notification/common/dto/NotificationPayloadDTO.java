@@ -1,5 +1,8 @@
 package com.notification.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.notification.common.enums.PayloadMode;
 import com.notification.common.model.NotificationConfig;
 import com.notification.common.model.TemplateEntity;
 import lombok.Getter;
@@ -10,6 +13,7 @@ import java.util.Map;
 
 @Getter
 @Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class NotificationPayloadDTO {
     private String to;
     private List<String> cc;
@@ -19,4 +23,19 @@ public class NotificationPayloadDTO {
 
     private NotificationConfig snapshotConfig;
     private TemplateEntity snapshotTemplate;
-}
\ No newline at end of file
+
+    // Reference mode: snapshots are left out and resolved by the sender from these
+    private PayloadMode payloadMode;
+    private String configId;
+    private String templateId;
+    private Long templateVersion;
+    private String paramsHash;
+
+    // Stable id assigned when the send is accepted (outbox id); identical on every redelivery
+    private String messageId;
+
+    @JsonIgnore
+    public boolean isReference() {
+        return payloadMode == PayloadMode.REFERENCE;
+    }
+}
@@ -0,0 +1,18 @@
+package com.notification.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipientListDTO {
+    private String listId;
+    private long added;     // recipients stored by this request
+    private long skipped;   // entries without a 'to'
+    private long total;     // recipients now in the list
+    private String error;   // why the upload stopped early; the recipients counted above are stored
+}
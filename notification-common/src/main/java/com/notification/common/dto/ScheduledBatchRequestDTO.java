@@ -0,0 +1,35 @@
+package com.notification.common.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * Recurring send to a stored recipient list: the list is expanded, rendered and published
+ * each time the cron fires, so list and template edits apply to later runs.
+ */
+@Getter
+@Setter
+public class ScheduledBatchRequestDTO {
+
+    @NotBlank(message = "NotificationConfigId must not be blank")
+    private String notificationConfigId;
+
+    @NotBlank(message = "TemplateId must not be blank")
+    private String templateId;
+
+    @NotBlank(message = "RecipientListId must not be blank")
+    private String recipientListId;
+
+    @NotBlank(message = "ScheduleCron must not be blank")
+    private String scheduleCron;
+
+    private String timeZone;
+
+    private String emailSubject;
+
+    /** Params shared by every recipient; each entry's own params are layered over them. */
+    private Map<String, Object> customParams;
+}
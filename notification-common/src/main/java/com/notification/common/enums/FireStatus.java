@@ -0,0 +1,10 @@
+package com.notification.common.enums;
+
+/**
+ * Lifecycle of a scheduled run's fire record. CLAIMED runs are being published by the instance
+ * holding the claim until {@code claimedUntil}; an expired claim is taken over and the run
+ * published again. ABANDONED runs gave up after too many takeovers.
+ */
+public enum FireStatus {
+    CLAIMED, PUBLISHED, ABANDONED
+}
@@ -0,0 +1,9 @@
+package com.notification.common.enums;
+
+/**
+ * PENDING entries wait for the relay; IN_FLIGHT ones are claimed by a relay instance until its
+ * lease runs out. Sent entries are deleted, so there is no terminal state.
+ */
+public enum OutboxStatus {
+    PENDING, IN_FLIGHT
+}
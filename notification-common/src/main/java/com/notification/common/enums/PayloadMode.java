@@ -0,0 +1,10 @@
+package com.notification.common.enums;
+
+/**
+ * How a queued NotificationPayloadDTO carries its config and template.
+ * SNAPSHOT embeds both objects (legacy); REFERENCE only carries ids + template version
+ * and the sender resolves them from its local cache.
+ */
+public enum PayloadMode {
+    SNAPSHOT, REFERENCE
+}
@@ -0,0 +1,32 @@
+package com.notification.common.enums;
+
+import com.notification.common.dto.NotificationPayloadDTO;
+
+/**
+ * Which payload field becomes the Kafka record key (and JMS message group), i.e. what is kept
+ * in order. RECIPIENT orders per recipient and spreads load best; CLIENT and CONFIG keep a
+ * whole tenant or config on one partition, at the cost of skew for large tenants.
+ */
+public enum RoutingKeyStrategy {
+    RECIPIENT, CLIENT, CONFIG, NONE;
+
+    /**
+     * @return the routing key, or null to let the producer spread records freely
+     */
+    public String keyFor(NotificationPayloadDTO payload) {
+        return switch (this) {
+            case RECIPIENT -> payload.getTo();
+            // reference payloads only carry the config id, which is per tenant as well
+            case CLIENT -> payload.getSnapshotConfig() != null && payload.getSnapshotConfig().getClientName() != null
+                    ? payload.getSnapshotConfig().getClientName()
+                    : configId(payload);
+            case CONFIG -> configId(payload);
+            case NONE -> null;
+        };
+    }
+
+    private static String configId(NotificationPayloadDTO payload) {
+        if (payload.isReference()) return payload.getConfigId();
+        return payload.getSnapshotConfig() != null ? payload.getSnapshotConfig().getId() : null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.notification.common.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One registered device of a {@link FcmTokenEntity}. A device that refreshes its token
+ * re-registers with the same deviceId and replaces the old token.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FcmDevice {
+    private String deviceId;
+    private String fcmToken;
+    private long updatedAt = System.currentTimeMillis();
+}
@@ -3,9 +3,20 @@ package com.notification.common.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Token directory entry: one document per phone (unique index on {@code phone}) holding every
+ * registered device. Documents written before multi-device support only carry {@code fcmToken};
+ * the executor folds those into {@code devices} on startup.
+ */
 @Document(collection = "fcm_tokens")
 @Data
 @AllArgsConstructor
@@ -15,5 +26,25 @@ public class FcmTokenEntity {
     private String id;
     private String phone;
     private String fcmToken;
+    private List<FcmDevice> devices = new ArrayList<>();
     private long createdAt = System.currentTimeMillis();
+    private long updatedAt = System.currentTimeMillis();
+
+    /**
+     * All tokens to deliver to, newest device first, including a not yet migrated legacy token.
+     */
+    public List<String> activeTokens() {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (devices != null) {
+            devices.stream()
+                    .sorted((a, b) -> Long.compare(b.getUpdatedAt(), a.getUpdatedAt()))
+                    .map(FcmDevice::getFcmToken)
+                    .filter(StringUtils::isNotBlank)
+                    .forEach(tokens::add);
+        }
+        if (StringUtils.isNotBlank(fcmToken)) {
+            tokens.add(fcmToken);
+        }
+        return new ArrayList<>(tokens);
+    }
 }
@@ -0,0 +1,45 @@
+package com.notification.common.model;
+
+import com.notification.common.enums.OutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A send accepted by the executor but not yet handed to the broker. {@code body} is either a
+ * NotificationPayloadDTO as JSON ({@code payload=true}) or a plain text message (cache
+ * evictions). The id doubles as the payload's messageId, so consumers can drop redeliveries.
+ */
+@Document(collection = "notification_outbox")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    private String id;
+
+    private String queueName;
+    private String routingKey;
+    // queueName|routingKey for keyed sends, which are relayed strictly in creation order
+    private String orderKey;
+    private String body;
+    private boolean payload;
+    private boolean pubSub;
+
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+    private String claimedBy;
+    private long claimedUntil;
+
+    private int attempts;
+    private long nextAttemptAt;
+    private String lastError;
+    private long createdAt;
+}
@@ -0,0 +1,32 @@
+package com.notification.common.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One recipient of a stored recipient list (segment). Lists live outside the scheduled job so
+ * they can be of any size and shared by several jobs; the scheduler streams them in
+ * {@code _id} order when a job that targets the list fires.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "recipient_list_entries")
+public class RecipientListEntry {
+
+    @Id
+    private String id;
+
+    private String listId;
+    private String to;
+    private List<String> cc;
+    private List<String> bcc;
+
+    // layered over the job's customParams
+    private Map<String, Object> customParams;
+}
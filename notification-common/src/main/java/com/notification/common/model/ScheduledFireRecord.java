@@ -0,0 +1,42 @@
+package com.notification.common.model;
+
+import com.notification.common.enums.FireStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One row per run of a scheduled notification. The id is {@code <scheduledId>@<fireAt>}, so a
+ * run can only be claimed once; the row stays CLAIMED until every payload of the run has been
+ * handed to the producer, and an instance that finds an expired claim publishes the run again.
+ * Rows expire after {@code notification.scheduler.fire-log-ttl-hours}.
+ */
+@Document("scheduled_fire_log")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledFireRecord {
+
+    @Id
+    private String id;
+
+    private String scheduledId;
+    private long fireAt;
+    private String firedBy;
+
+    private FireStatus status;
+    // unique per claim, so a takeover is detected by the instance that lost it
+    private String claimToken;
+    private long claimedUntil;
+    private int attempts;
+    // recipient list runs: _id of the last entry published, where a takeover resumes
+    private String cursor;
+
+    private Date createdAt;
+}
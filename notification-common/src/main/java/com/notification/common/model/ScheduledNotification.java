@@ -14,18 +14,41 @@ import java.util.Map;
 @Document(collection = "scheduled_notifications")
 public class ScheduledNotification {
 
+    // shardKey range; scheduler instances own contiguous slices of it
+    private static final int SHARD_KEY_BITS = 10;
+    public static final int SHARD_KEY_SPACE = 1 << SHARD_KEY_BITS;
+
     @Id
     private String id;
 
+    // config and template are resolved by id when the job fires, so edits apply to later runs
+    private String configId;
+    private String templateId;
+
+    // embedded copies on jobs saved before configId/templateId; only read when those are unset
     private NotificationConfig notificationConfig;
     private TemplateEntity template;
+
+    // single recipient, or a stored list (see RecipientListEntry) expanded at fire time
     private String to;
     private List<String> cc;
     private List<String> bcc;
+    private String recipientListId;
     private String emailSubject;
     private Map<String, Object> customParams;
     private String queueName;
     private String scheduleCron;
     private String timeZone;
     private boolean active;
+
+    // epoch millis of the next run, kept current by the scheduler; due jobs are found by range on it
+    private Long nextFireAt;
+
+    // hash of the id in [0, SHARD_KEY_SPACE); decides which scheduler instance evaluates the job
+    private Integer shardKey;
+
+    public static int shardKeyFor(String id) {
+        // top bits of a Fibonacci hash, so sequential ObjectIds still spread evenly
+        return (id.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - SHARD_KEY_BITS);
+    }
 }
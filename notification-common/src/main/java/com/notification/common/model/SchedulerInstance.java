@@ -0,0 +1,22 @@
+package com.notification.common.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Heartbeat of a running scheduler-service instance; live instances split the shards evenly.
+ */
+@Document("scheduler_instances")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerInstance {
+
+    @Id
+    private String id;
+
+    private long heartbeatAt;
+}
@@ -0,0 +1,24 @@
+package com.notification.common.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ownership of one scheduler shard (a slice of the ScheduledNotification shardKey space).
+ * The owner renews {@code expiresAt} on every heartbeat; an expired lease is free to claim.
+ */
+@Document("scheduler_shard_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerShardLease {
+
+    @Id
+    private Integer shard;
+
+    private String owner;
+    private long expiresAt;
+}
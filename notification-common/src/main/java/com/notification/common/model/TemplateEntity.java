@@ -27,4 +27,25 @@ public class TemplateEntity {
     private String createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /** Bumped on every update so cached copies keyed by (id, version) never go stale. */
+    private Long version;
+
+    /**
+     * Shallow copy, used when one loaded template is rendered into per-recipient snapshots.
+     */
+    public TemplateEntity copy() {
+        TemplateEntity copy = new TemplateEntity();
+        copy.setId(id);
+        copy.setTemplateName(templateName);
+        copy.setEmailSubject(emailSubject);
+        copy.setContent(content);
+        copy.setCdnUrl(cdnUrl);
+        copy.setAttachments(attachments);
+        copy.setCreatedBy(createdBy);
+        copy.setCreatedAt(createdAt);
+        copy.setUpdatedAt(updatedAt);
+        copy.setVersion(version);
+        return copy;
+    }
 }
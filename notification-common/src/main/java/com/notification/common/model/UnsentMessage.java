@@ -24,6 +24,13 @@ public class UnsentMessage {
 
     private LocalDateTime timestamp = LocalDateTime.now();
 
+    // replay bookkeeping: absent on fresh entries, which are due immediately
+    private int attempts;
+    private Long nextAttemptAt;
+    private String lastError;
+    private String claimedBy;
+    private Long claimedUntil;
+
     public UnsentMessage(String queueName, String message, MessagingMode messagingType) {
         this.queueName = queueName;
         this.message = message;
@@ -0,0 +1,12 @@
+package com.notification.common.repository;
+
+import com.notification.common.model.OutboxMessage;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxMessageRepository extends MongoRepository<OutboxMessage, String> {
+
+    List<OutboxMessage> findByIdInAndClaimedByOrderByCreatedAtAsc(Collection<String> ids, String claimedBy);
+}
@@ -0,0 +1,11 @@
+package com.notification.common.repository;
+
+import com.notification.common.model.RecipientListEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RecipientListEntryRepository extends MongoRepository<RecipientListEntry, String> {
+
+    long countByListId(String listId);
+
+    void deleteByListId(String listId);
+}
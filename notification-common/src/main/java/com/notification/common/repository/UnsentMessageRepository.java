@@ -3,5 +3,9 @@ package com.notification.common.repository;
 import com.notification.common.model.UnsentMessage;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.List;
+
 public interface UnsentMessageRepository extends MongoRepository<UnsentMessage, String> {
-}
\ No newline at end of file
+
+    List<UnsentMessage> findByClaimedByOrderByIdAsc(String claimedBy);
+}
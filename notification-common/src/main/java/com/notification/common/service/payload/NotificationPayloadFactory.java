@@ -0,0 +1,140 @@
+package com.notification.common.service.payload;
+
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.enums.PayloadMode;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.service.upload.HtmlCdnUploader;
+import com.notification.common.utils.CompiledTemplate;
+import com.notification.common.utils.JsonUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the payloads that go on the channel queues. In reference mode only config id,
+ * template id + version and the raw params travel, and message-sender-service resolves and
+ * renders the snapshots itself; otherwise the rendered snapshot is embedded, with large bodies
+ * offloaded to the CDN. Which mode is used is controlled by {@code notification.payload.mode}.
+ */
+@Service
+public class NotificationPayloadFactory {
+
+    private final HtmlCdnUploader htmlCdnUploader;
+
+    @Value("${notification.payload.mode:SNAPSHOT}")
+    private PayloadMode payloadMode;
+
+    @Value("${email.template.max.inline.kb:100}")
+    private int maxInlineKb;
+
+    public NotificationPayloadFactory(HtmlCdnUploader htmlCdnUploader) {
+        this.htmlCdnUploader = htmlCdnUploader;
+    }
+
+    public boolean isReferenceMode() {
+        return payloadMode == PayloadMode.REFERENCE;
+    }
+
+    /**
+     * Only email and generic queue payloads carry cc, bcc and a subject override.
+     */
+    public static boolean hasEnvelope(String channel) {
+        return "email".equals(channel) || "queue".equals(channel);
+    }
+
+    /**
+     * One recipient's payload for the given channel, from a template compiled once by the caller
+     * and shared by all of its recipients.
+     *
+     * @param channel email, sms, whatsapp, push, voice, webhook or queue; anything else just gets
+     *                its content rendered
+     */
+    public NotificationPayloadDTO build(String channel,
+                                        NotificationConfig config,
+                                        TemplateEntity template,
+                                        CompiledTemplate content,
+                                        CompiledTemplate subject,
+                                        String subjectOverride,
+                                        String to,
+                                        List<String> cc,
+                                        List<String> bcc,
+                                        Map<String, Object> params) throws IOException {
+        boolean withEnvelope = hasEnvelope(channel);
+        if (isReferenceMode()) {
+            return reference(config, template, to,
+                    withEnvelope ? cc : null,
+                    withEnvelope ? bcc : null,
+                    withEnvelope ? subjectOverride : null,
+                    params);
+        }
+
+        TemplateEntity snapshot = template.copy();
+
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setTo(to);
+        payload.setSnapshotConfig(config);
+        payload.setSnapshotTemplate(snapshot);
+
+        switch (channel == null ? "" : channel) {
+            case "email", "queue" -> {
+                applyContent(snapshot, content, params);
+                payload.setCc(cc);
+                payload.setBcc(bcc);
+                payload.setSubject(subject.render(params));
+            }
+            case "voice" -> applyContent(snapshot, content, params);
+            case "sms", "whatsapp", "push" -> {
+                String resolvedMessage = content.render(params);
+                snapshot.setContent(resolvedMessage);
+                payload.setSubject(resolvedMessage);
+            }
+            default -> snapshot.setContent(content.render(params));
+        }
+        return payload;
+    }
+
+    public NotificationPayloadDTO reference(NotificationConfig config,
+                                            TemplateEntity template,
+                                            String to,
+                                            List<String> cc,
+                                            List<String> bcc,
+                                            String subjectOverride,
+                                            Map<String, Object> params) {
+        NotificationPayloadDTO payload = new NotificationPayloadDTO();
+        payload.setPayloadMode(PayloadMode.REFERENCE);
+        payload.setTo(to);
+        payload.setCc(cc);
+        payload.setBcc(bcc);
+        payload.setSubject(subjectOverride);
+        payload.setCustomParams(params);
+        payload.setConfigId(config.getId());
+        payload.setTemplateId(template.getId());
+        payload.setTemplateVersion(template.getVersion());
+        payload.setParamsHash(paramsHash(params));
+        return payload;
+    }
+
+    /**
+     * Order-independent hash of the params, lets the sender reuse a rendered body across
+     * recipients that share the same params.
+     */
+    public static String paramsHash(Map<String, Object> params) {
+        if (params == null || params.isEmpty()) return null;
+        return DigestUtils.sha256Hex(JsonUtil.toJson(new TreeMap<>(params)));
+    }
+
+    private void applyContent(TemplateEntity template, CompiledTemplate content, Map<String, Object> params) throws IOException {
+        if (content.renderedLength(params) > maxInlineKb * 1024) {
+            template.setCdnUrl(htmlCdnUploader.uploadHtmlAsFile(content, params));
+            template.setContent(null);
+        } else {
+            template.setContent(content.render(params));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.notification.common.service.routing;
+
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.enums.RoutingKeyStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the routing key for a payload from the strategy configured for its destination:
+ * {@code messaging.routing.<queue name>.key-strategy}, falling back to
+ * {@code messaging.routing.key-strategy} (recipient|client|config|none).
+ */
+@Component
+public class RoutingKeyResolver {
+
+    private final Environment environment;
+    private final RoutingKeyStrategy defaultStrategy;
+    private final Map<String, RoutingKeyStrategy> strategies = new ConcurrentHashMap<>();
+
+    public RoutingKeyResolver(Environment environment,
+                              @Value("${messaging.routing.key-strategy:recipient}") String defaultStrategy) {
+        this.environment = environment;
+        this.defaultStrategy = RoutingKeyStrategy.valueOf(defaultStrategy.toUpperCase());
+    }
+
+    public String keyFor(String queueName, NotificationPayloadDTO payload) {
+        return strategies.computeIfAbsent(queueName, this::strategyFor).keyFor(payload);
+    }
+
+    private RoutingKeyStrategy strategyFor(String queueName) {
+        String configured = environment.getProperty("messaging.routing." + queueName + ".key-strategy");
+        return configured != null ? RoutingKeyStrategy.valueOf(configured.toUpperCase()) : defaultStrategy;
+    }
+}
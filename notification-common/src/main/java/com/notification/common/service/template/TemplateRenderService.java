@@ -0,0 +1,79 @@
+package com.notification.common.service.template;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.utils.CompiledTemplate;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders templates through a cache of parsed {@link CompiledTemplate}s.
+ * Entries are keyed by template id + version (or last modification time), so an updated template
+ * is simply parsed again under a new key and the stale entry ages out.
+ */
+@Service
+public class TemplateRenderService {
+
+    private final Cache<String, CompiledTemplate> cache = Caffeine.newBuilder()
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .maximumSize(500)
+            .build();
+
+    public CompiledTemplate compileContent(TemplateEntity template) {
+        return compile(template, "content", template.getContent());
+    }
+
+    public String renderContent(TemplateEntity template, Map<String, Object> params) {
+        return compileContent(template).render(params);
+    }
+
+    /**
+     * Resolves the subject, preferring the per-request override over the template's own subject.
+     * Only the template subject is cached; overrides are one-off strings.
+     */
+    public String renderSubject(TemplateEntity template, String subjectOverride, Map<String, Object> params) {
+        if (StringUtils.isNotBlank(subjectOverride)) {
+            return render(subjectOverride, params);
+        }
+        return compileSubject(template, null).render(params);
+    }
+
+    /**
+     * Compiled subject for callers that render it many times, e.g. one batch for thousands of recipients.
+     */
+    public CompiledTemplate compileSubject(TemplateEntity template, String subjectOverride) {
+        if (StringUtils.isNotBlank(subjectOverride)) {
+            return CompiledTemplate.compile(subjectOverride);
+        }
+        return compile(template, "subject", template.getEmailSubject());
+    }
+
+    /**
+     * Single-pass render of an ad-hoc string that is not tied to a stored template.
+     */
+    public String render(String text, Map<String, Object> params) {
+        if (text == null || params == null || params.isEmpty()) return text;
+        return CompiledTemplate.compile(text).render(params);
+    }
+
+    public void evict(String templateId) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(templateId + ":"));
+    }
+
+    private CompiledTemplate compile(TemplateEntity template, String part, String text) {
+        if (template.getId() == null || text == null) {
+            return CompiledTemplate.compile(text);
+        }
+        return cache.get(cacheKey(template, part), key -> CompiledTemplate.compile(text));
+    }
+
+    private String cacheKey(TemplateEntity template, String part) {
+        Object version = template.getVersion() != null ? template.getVersion()
+                : template.getUpdatedAt() != null ? template.getUpdatedAt() : template.getCreatedAt();
+        return template.getId() + ":" + version + ":" + part;
+    }
+}
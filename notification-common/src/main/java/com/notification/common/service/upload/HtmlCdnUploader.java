@@ -1,5 +1,6 @@
 package com.notification.common.service.upload;
 
+import com.notification.common.utils.CompiledTemplate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -8,10 +9,13 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +35,23 @@ public class HtmlCdnUploader {
             writer.write(htmlContent);
         }
 
+        return uploadFile(tempFile);
+    }
+
+    /**
+     * Renders the compiled template straight into the temporary file and uploads it to CDN,
+     * so large resolved HTML never has to be held in memory as a single String.
+     */
+    public String uploadHtmlAsFile(CompiledTemplate template, Map<String, Object> params) throws IOException {
+        File tempFile = File.createTempFile("template", ".html");
+        try (Writer writer = new BufferedWriter(new FileWriter(tempFile))) {
+            template.renderTo(writer, params);
+        }
+
+        return uploadFile(tempFile);
+    }
+
+    private String uploadFile(File tempFile) {
         org.springframework.core.io.FileSystemResource resource = new org.springframework.core.io.FileSystemResource(tempFile);
         MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
         body.add("files", resource);
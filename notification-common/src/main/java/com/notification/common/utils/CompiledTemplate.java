@@ -0,0 +1,123 @@
+package com.notification.common.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into alternating literal and {{placeholder}} segments.
+ * Rendering is a single pass over the segments, so the cost no longer grows with
+ * (template size x number of params) like the old String.replace loop did.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private static final CompiledTemplate NULL_TEMPLATE = new CompiledTemplate(null, new String[0], new String[0], 0);
+
+    private final String source;
+    private final String[] literals;     // always placeholders.length + 1 entries
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private CompiledTemplate(String source, String[] literals, String[] placeholders, int literalLength) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.literalLength = literalLength;
+    }
+
+    public static CompiledTemplate compile(String text) {
+        if (text == null) return NULL_TEMPLATE;
+
+        List<String> literalList = new ArrayList<>();
+        List<String> placeholderList = new ArrayList<>();
+        int literalLength = 0;
+        int cursor = 0;
+
+        while (true) {
+            int open = text.indexOf(OPEN, cursor);
+            int close = open < 0 ? -1 : text.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) break;
+
+            // "{{{name}}}" resolves "{{name}}" and keeps the extra braces, as the replace loop did
+            int start = text.lastIndexOf(OPEN, close - 1);
+
+            String literal = text.substring(cursor, start);
+            literalList.add(literal);
+            literalLength += literal.length();
+            placeholderList.add(text.substring(start + OPEN.length(), close));
+            cursor = close + CLOSE.length();
+        }
+
+        String tail = text.substring(cursor);
+        literalList.add(tail);
+        literalLength += tail.length();
+
+        return new CompiledTemplate(text,
+                literalList.toArray(new String[0]),
+                placeholderList.toArray(new String[0]),
+                literalLength);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean hasPlaceholders() {
+        return placeholders.length > 0;
+    }
+
+    /**
+     * Length of the rendered output, computed without building it. Lets callers decide
+     * between inline content and a CDN upload before materialising a large string.
+     */
+    public int renderedLength(Map<String, Object> params) {
+        if (source == null) return 0;
+        int length = literalLength;
+        for (String name : placeholders) {
+            length += resolve(name, params).length();
+        }
+        return length;
+    }
+
+    public String render(Map<String, Object> params) {
+        if (source == null || !hasPlaceholders() || params == null || params.isEmpty()) return source;
+
+        String[] values = new String[placeholders.length];
+        int length = literalLength;
+        for (int i = 0; i < placeholders.length; i++) {
+            values[i] = resolve(placeholders[i], params);
+            length += values[i].length();
+        }
+
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]).append(values[i]);
+        }
+        out.append(literals[placeholders.length]);
+        return out.toString();
+    }
+
+    /**
+     * Streams the rendered output to the writer without materialising it as a String.
+     */
+    public void renderTo(Writer writer, Map<String, Object> params) throws IOException {
+        if (source == null) return;
+        for (int i = 0; i < placeholders.length; i++) {
+            writer.write(literals[i]);
+            writer.write(resolve(placeholders[i], params));
+        }
+        writer.write(literals[placeholders.length]);
+    }
+
+    private static String resolve(String name, Map<String, Object> params) {
+        if (params != null && params.containsKey(name)) {
+            return String.valueOf(params.get(name));
+        }
+        return OPEN + name + CLOSE; // unknown placeholders are left untouched
+    }
+}
@@ -0,0 +1,86 @@
+package com.notification.common.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.notification.common.model.ScheduledNotification;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cron evaluation for scheduled notifications. Most schedules share a handful of expressions,
+ * so parsed expressions and zones are cached, and so are the fire times of each
+ * (expression, zone, minute): every schedule evaluated against the same minute reuses one
+ * computation instead of walking the cron fields again.
+ */
+public class CronScheduleUtil {
+
+    private static final long MINUTE_MS = 60_000L;
+
+    private static final Cache<String, CronExpression> expressions = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .build();
+
+    private static final Cache<String, ZoneId> zones = Caffeine.newBuilder()
+            .maximumSize(500)
+            .build();
+
+    private static final Cache<MinuteKey, MinuteFires> minutes = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * Next fire time strictly after {@code after}, as epoch millis, evaluated in the schedule's
+     * time zone (system default when unset). Null once the cron has no further runs.
+     *
+     * @throws IllegalArgumentException if the cron can't be parsed
+     * @throws java.time.DateTimeException if the zone can't be parsed
+     */
+    public static Long nextFireAt(String cron, String timeZone, Instant after) {
+        CronExpression expression = expressions.get(cron, CronExpression::parse);
+        ZoneId zoneId = timeZone != null ? zones.get(timeZone, ZoneId::of) : ZoneId.systemDefault();
+
+        long afterMs = after.toEpochMilli();
+        long minuteStart = Math.floorDiv(afterMs, MINUTE_MS) * MINUTE_MS;
+        MinuteFires fires = minutes.get(new MinuteKey(cron, zoneId, minuteStart),
+                key -> computeMinute(expression, zoneId, minuteStart));
+        return fires.firstAfter(afterMs);
+    }
+
+    public static Long nextFireAt(ScheduledNotification scheduled, Instant after) {
+        return nextFireAt(scheduled.getScheduleCron(), scheduled.getTimeZone(), after);
+    }
+
+    // fire times inside [minuteStart, minuteStart + 1 min), plus the first one after that minute
+    private static MinuteFires computeMinute(CronExpression expression, ZoneId zoneId, long minuteStart) {
+        long minuteEnd = minuteStart + MINUTE_MS;
+        List<Long> within = new ArrayList<>(1);
+
+        ZonedDateTime next = expression.next(Instant.ofEpochMilli(minuteStart - 1).atZone(zoneId));
+        while (next != null && next.toInstant().toEpochMilli() < minuteEnd) {
+            within.add(next.toInstant().toEpochMilli());
+            next = expression.next(next);
+        }
+        return new MinuteFires(within.stream().mapToLong(Long::longValue).toArray(),
+                next != null ? next.toInstant().toEpochMilli() : null);
+    }
+
+    private record MinuteKey(String cron, ZoneId zone, long minuteStart) {
+    }
+
+    private record MinuteFires(long[] within, Long afterMinute) {
+
+        Long firstAfter(long afterMs) {
+            for (long fire : within) {
+                if (fire > afterMs) return fire;
+            }
+            return afterMinute;
+        }
+    }
+}
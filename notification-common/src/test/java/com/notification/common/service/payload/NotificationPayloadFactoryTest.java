@@ -0,0 +1,104 @@
+package com.notification.common.service.payload;
+
+import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.enums.PayloadMode;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.service.upload.HtmlCdnUploader;
+import com.notification.common.utils.CompiledTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationPayloadFactoryTest {
+
+    private static final Map<String, Object> PARAMS = Map.of("name", "Ada");
+    private static final CompiledTemplate CONTENT = CompiledTemplate.compile("Hi {{name}}");
+    private static final CompiledTemplate SUBJECT = CompiledTemplate.compile("Subject for {{name}}");
+
+    private final HtmlCdnUploader htmlCdnUploader = mock(HtmlCdnUploader.class);
+    private final NotificationPayloadFactory factory = new NotificationPayloadFactory(htmlCdnUploader);
+    private final NotificationConfig config = new NotificationConfig();
+    private final TemplateEntity template = new TemplateEntity();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(factory, "payloadMode", PayloadMode.SNAPSHOT);
+        ReflectionTestUtils.setField(factory, "maxInlineKb", 100);
+        config.setId("config-1");
+        template.setId("template-1");
+        template.setVersion(3L);
+        template.setContent("Hi {{name}}");
+    }
+
+    @Test
+    void emailSnapshotCarriesTheEnvelopeAndRenderedSubject() throws Exception {
+        NotificationPayloadDTO payload = build("email");
+
+        assertSame(config, payload.getSnapshotConfig());
+        assertEquals("Hi Ada", payload.getSnapshotTemplate().getContent());
+        assertEquals("Subject for Ada", payload.getSubject());
+        assertEquals(List.of("cc@x.io"), payload.getCc());
+        assertEquals("Hi {{name}}", template.getContent());
+    }
+
+    @Test
+    void messagingChannelsUseTheRenderedMessageAsSubject() throws Exception {
+        for (String channel : List.of("sms", "whatsapp", "push")) {
+            NotificationPayloadDTO payload = build(channel);
+
+            assertEquals("Hi Ada", payload.getSubject(), channel);
+            assertEquals("Hi Ada", payload.getSnapshotTemplate().getContent(), channel);
+            assertNull(payload.getCc(), channel);
+        }
+    }
+
+    @Test
+    void largeBodyIsOffloadedToTheCdn() throws Exception {
+        ReflectionTestUtils.setField(factory, "maxInlineKb", 0);
+        when(htmlCdnUploader.uploadHtmlAsFile(eq(CONTENT), any())).thenReturn("http://cdn/body.html");
+
+        NotificationPayloadDTO payload = build("email");
+
+        assertEquals("http://cdn/body.html", payload.getSnapshotTemplate().getCdnUrl());
+        assertNull(payload.getSnapshotTemplate().getContent());
+    }
+
+    @Test
+    void referenceModeSendsIdsAndParamsOnly() throws Exception {
+        ReflectionTestUtils.setField(factory, "payloadMode", PayloadMode.REFERENCE);
+
+        NotificationPayloadDTO email = build("email");
+        assertEquals(PayloadMode.REFERENCE, email.getPayloadMode());
+        assertEquals("config-1", email.getConfigId());
+        assertEquals("template-1", email.getTemplateId());
+        assertEquals(3L, email.getTemplateVersion());
+        assertEquals(NotificationPayloadFactory.paramsHash(PARAMS), email.getParamsHash());
+        assertNull(email.getSnapshotConfig());
+        assertNull(email.getSnapshotTemplate());
+        assertEquals("Override", email.getSubject());
+
+        NotificationPayloadDTO sms = build("sms");
+        assertNull(sms.getCc());
+        assertNull(sms.getSubject());
+        verify(htmlCdnUploader, never()).uploadHtmlAsFile(any(CompiledTemplate.class), any());
+    }
+
+    private NotificationPayloadDTO build(String channel) throws Exception {
+        return factory.build(channel, config, template, CONTENT, SUBJECT, "Override", "ada@x.io",
+                List.of("cc@x.io"), null, PARAMS);
+    }
+}
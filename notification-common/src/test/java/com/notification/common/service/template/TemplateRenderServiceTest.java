@@ -0,0 +1,78 @@
+package com.notification.common.service.template;
+
+import com.notification.common.model.TemplateEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TemplateRenderServiceTest {
+
+    private static final Map<String, Object> PARAMS = Map.of("name", "Ada");
+
+    private final TemplateRenderService service = new TemplateRenderService();
+
+    @Test
+    void compiledTemplateIsReusedForTheSameVersion() {
+        TemplateEntity template = template(1L, null, "Hi {{name}}");
+
+        assertSame(service.compileContent(template), service.compileContent(template));
+    }
+
+    @Test
+    void newVersionIsCompiledAgain() {
+        assertEquals("Hi Ada", service.renderContent(template(1L, null, "Hi {{name}}"), PARAMS));
+
+        assertEquals("Hello Ada", service.renderContent(template(2L, null, "Hello {{name}}"), PARAMS));
+    }
+
+    @Test
+    void updatedAtIsTheKeyWhenThereIsNoVersion() {
+        LocalDateTime created = LocalDateTime.of(2024, 5, 1, 12, 0);
+        assertEquals("Hi Ada", service.renderContent(template(null, created, "Hi {{name}}"), PARAMS));
+
+        assertEquals("Hello Ada", service.renderContent(template(null, created.plusMinutes(1), "Hello {{name}}"), PARAMS));
+    }
+
+    @Test
+    void contentChangeWithoutANewVersionIsServedFromTheCacheUntilEvicted() {
+        service.renderContent(template(1L, null, "Hi {{name}}"), PARAMS);
+        TemplateEntity edited = template(1L, null, "Hello {{name}}");
+
+        assertEquals("Hi Ada", service.renderContent(edited, PARAMS));
+
+        service.evict("template-1");
+        assertEquals("Hello Ada", service.renderContent(edited, PARAMS));
+    }
+
+    @Test
+    void subjectAndContentAreCachedSeparately() {
+        TemplateEntity template = template(1L, null, "Body for {{name}}");
+        template.setEmailSubject("Subject for {{name}}");
+
+        assertEquals("Body for Ada", service.renderContent(template, PARAMS));
+        assertEquals("Subject for Ada", service.renderSubject(template, null, PARAMS));
+    }
+
+    @Test
+    void subjectOverrideWinsOverTheTemplateSubject() {
+        TemplateEntity template = template(1L, null, "Body");
+        template.setEmailSubject("Subject for {{name}}");
+        service.renderSubject(template, null, PARAMS);
+
+        assertEquals("Override for Ada", service.renderSubject(template, "Override for {{name}}", PARAMS));
+        assertEquals("Subject for Ada", service.renderSubject(template, " ", PARAMS));
+    }
+
+    private static TemplateEntity template(Long version, LocalDateTime updatedAt, String content) {
+        TemplateEntity template = new TemplateEntity();
+        template.setId("template-1");
+        template.setVersion(version);
+        template.setUpdatedAt(updatedAt);
+        template.setContent(content);
+        return template;
+    }
+}
@@ -0,0 +1,115 @@
+package com.notification.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompiledTemplateTest {
+
+    @Test
+    void rendersLikeTheReplaceLoop() {
+        assertMatchesReplaceLoop("Hi {{name}}, your code is {{code}}.", Map.of("name", "Ada", "code", 1234));
+    }
+
+    @Test
+    void repeatedKeysAreAllReplaced() {
+        assertMatchesReplaceLoop("{{name}} / {{name}} / {{name}}", Map.of("name", "Ada"));
+    }
+
+    @Test
+    void missingPlaceholdersAreLeftUntouched() {
+        assertMatchesReplaceLoop("Hi {{name}}, order {{orderId}} ships {{date}}", Map.of("name", "Ada"));
+    }
+
+    @Test
+    void unusedParamsAreIgnored() {
+        assertMatchesReplaceLoop("Hi {{name}}", Map.of("name", "Ada", "extra", "x"));
+    }
+
+    @Test
+    void adjacentPlaceholdersAndEdges() {
+        assertMatchesReplaceLoop("{{a}}{{b}}{{a}}", Map.of("a", "1", "b", "2"));
+        assertMatchesReplaceLoop("{{a}}", Map.of("a", "only"));
+    }
+
+    @Test
+    void extraBracesAreKept() {
+        assertMatchesReplaceLoop("{{{name}}} and {{{{name}}}}", Map.of("name", "Ada"));
+    }
+
+    @Test
+    void unbalancedBracesAreLiteralText() {
+        assertMatchesReplaceLoop("Hi {{name, }} bye {{name}} {{", Map.of("name", "Ada"));
+        assertMatchesReplaceLoop("no placeholders }} here {{", Map.of("name", "Ada"));
+    }
+
+    @Test
+    void nullAndEmptyValues() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", null);
+        params.put("code", "");
+        assertMatchesReplaceLoop("[{{name}}][{{code}}]", params);
+    }
+
+    @Test
+    void noParamsReturnsTheSourceItself() {
+        String text = "Hi {{name}}";
+
+        assertSame(text, CompiledTemplate.compile(text).render(null));
+        assertSame(text, CompiledTemplate.compile(text).render(Map.of()));
+        assertNull(CompiledTemplate.compile(null).render(Map.of("name", "Ada")));
+    }
+
+    @Test
+    void valuesAreNotExpandedAgain() {
+        // the replace loop re-expanded a value that contained another placeholder, depending on map order
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("name", "{{code}}");
+        params.put("code", "1234");
+
+        assertEquals("Hi {{code}}, 1234", CompiledTemplate.compile("Hi {{name}}, {{code}}").render(params));
+    }
+
+    @Test
+    void renderedLengthAndStreamingMatchRender() throws Exception {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{name}}, {{missing}} {{name}}!");
+        Map<String, Object> params = Map.of("name", "Ada");
+        StringWriter writer = new StringWriter();
+
+        template.renderTo(writer, params);
+
+        assertEquals(template.render(params).length(), template.renderedLength(params));
+        assertEquals(template.render(params), writer.toString());
+    }
+
+    @Test
+    void plainTextHasNoPlaceholders() {
+        assertFalse(CompiledTemplate.compile("plain text").hasPlaceholders());
+    }
+
+    private static void assertMatchesReplaceLoop(String text, Map<String, Object> params) {
+        assertEquals(replaceLoop(text, params), CompiledTemplate.compile(text).render(params));
+    }
+
+    /**
+     * The String.replace loop that {@link CompiledTemplate} replaced.
+     */
+    private static String replaceLoop(String text, Map<String, Object> params) {
+        if (text == null || params == null || params.isEmpty()) return text;
+
+        String result = text;
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            String placeholder = "{{" + entry.getKey() + "}}";
+            result = result.replace(placeholder, String.valueOf(entry.getValue()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package com.notification.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CronScheduleUtilTest {
+
+    private static final String UTC = "UTC";
+    private static final String NEW_YORK = "America/New_York";
+
+    @Test
+    void secondLevelCronFiresWithinTheSameMinute() {
+        Instant after = Instant.parse("2024-05-01T12:00:07Z");
+
+        assertEquals(at("2024-05-01T12:00:15Z"), CronScheduleUtil.nextFireAt("*/15 * * * * *", UTC, after));
+        // same minute bucket, later in the minute
+        assertEquals(at("2024-05-01T12:00:45Z"),
+                CronScheduleUtil.nextFireAt("*/15 * * * * *", UTC, Instant.parse("2024-05-01T12:00:31Z")));
+    }
+
+    @Test
+    void secondLevelCronRollsIntoTheNextMinute() {
+        assertEquals(at("2024-05-01T12:01:00Z"),
+                CronScheduleUtil.nextFireAt("*/15 * * * * *", UTC, Instant.parse("2024-05-01T12:00:45Z")));
+    }
+
+    @Test
+    void nextFireIsStrictlyAfter() {
+        assertEquals(at("2024-05-01T12:00:30Z"),
+                CronScheduleUtil.nextFireAt("*/15 * * * * *", UTC, Instant.parse("2024-05-01T12:00:15Z")));
+    }
+
+    @Test
+    void fireExactlyAtMinuteStart() {
+        String cron = "0 30 9 * * *";
+
+        // from the previous minute the fire at 09:30:00.000 is the next one
+        assertEquals(at("2024-05-01T09:30:00Z"),
+                CronScheduleUtil.nextFireAt(cron, UTC, Instant.parse("2024-05-01T09:29:59.999Z")));
+        // from the fire itself it is not, even though it starts this minute's bucket
+        assertEquals(at("2024-05-02T09:30:00Z"),
+                CronScheduleUtil.nextFireAt(cron, UTC, Instant.parse("2024-05-01T09:30:00Z")));
+        assertEquals(at("2024-05-02T09:30:00Z"),
+                CronScheduleUtil.nextFireAt(cron, UTC, Instant.parse("2024-05-01T09:30:00.001Z")));
+    }
+
+    @Test
+    void fireAtMinuteStartAndLaterInTheSameMinute() {
+        String cron = "0,30 30 9 * * *";
+
+        assertEquals(at("2024-05-01T09:30:00Z"),
+                CronScheduleUtil.nextFireAt(cron, UTC, Instant.parse("2024-05-01T09:29:59.999Z")));
+        assertEquals(at("2024-05-01T09:30:30Z"),
+                CronScheduleUtil.nextFireAt(cron, UTC, Instant.parse("2024-05-01T09:30:00Z")));
+        assertEquals(at("2024-05-02T09:30:00Z"),
+                CronScheduleUtil.nextFireAt(cron, UTC, Instant.parse("2024-05-01T09:30:30Z")));
+    }
+
+    @Test
+    void hourlyCronSkipsTheMissingHourOnSpringForward() {
+        // 2024-03-10 02:00 EST jumps to 03:00 EDT; 01:30 EST is 06:30Z, 03:00 EDT is 07:00Z
+        assertEquals(at("2024-03-10T07:00:00Z"),
+                CronScheduleUtil.nextFireAt("0 0 * * * *", NEW_YORK, Instant.parse("2024-03-10T06:30:00Z")));
+    }
+
+    @Test
+    void matchesUncachedEvaluationAcrossSpringForward() {
+        assertMatchesUncached("0 */20 * * * *", NEW_YORK, Instant.parse("2024-03-10T05:00:00Z"), 12);
+        assertMatchesUncached("0 30 2 * * *", NEW_YORK, Instant.parse("2024-03-08T12:00:00Z"), 4);
+    }
+
+    @Test
+    void matchesUncachedEvaluationAcrossFallBack() {
+        // 2024-11-03 02:00 EDT falls back to 01:00 EST, so 01:xx happens twice
+        assertMatchesUncached("0 */20 * * * *", NEW_YORK, Instant.parse("2024-11-03T04:00:00Z"), 12);
+        assertMatchesUncached("0 30 1 * * *", NEW_YORK, Instant.parse("2024-11-01T12:00:00Z"), 4);
+    }
+
+    // walks `steps` consecutive fires through the cache and through a fresh CronExpression
+    private static void assertMatchesUncached(String cron, String zone, Instant from, int steps) {
+        CronExpression expression = CronExpression.parse(cron);
+        ZonedDateTime expected = from.atZone(ZoneId.of(zone));
+        Instant after = from;
+
+        for (int i = 0; i < steps; i++) {
+            expected = expression.next(expected);
+            Long actual = CronScheduleUtil.nextFireAt(cron, zone, after);
+
+            assertEquals(expected.toInstant().toEpochMilli(), actual, "fire " + i + " of " + cron + " after " + after);
+            assertTrue(actual > after.toEpochMilli());
+            after = Instant.ofEpochMilli(actual);
+        }
+    }
+
+    private static Long at(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}
@@ -0,0 +1,146 @@
+package com.message.scheduler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.notification.common.model.NotificationConfig;
+import com.notification.common.model.ScheduledNotification;
+import com.notification.common.model.TemplateEntity;
+import com.notification.common.repository.NotificationConfigRepository;
+import com.notification.common.repository.TemplateRepository;
+import com.notification.common.service.template.TemplateRenderService;
+import com.notification.common.utils.CompiledTemplate;
+import com.notification.common.utils.EncryptionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves what a scheduled job renders with when it fires. Jobs reference config and template
+ * by id; both are cached for {@code notification.scheduler.reference-cache-ms}, so an edit
+ * reaches the next runs within that window without a lookup per job. Templates are compiled
+ * through {@link TemplateRenderService}, whose cache is keyed by template id + version.
+ * Jobs saved with embedded copies are rendered from those. The channel is derived from the job's
+ * queue, so payloads get the same per-channel shape as immediate sends.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduledContentResolver {
+
+    private final NotificationConfigRepository configRepository;
+    private final TemplateRepository templateRepository;
+    private final TemplateRenderService templateRenderService;
+
+    private final Map<String, String> queueChannelMap = new HashMap<>();
+
+    private Cache<String, NotificationConfig> configCache;
+    private Cache<String, TemplateEntity> templateCache;
+
+    @Value("${notification.scheduler.reference-cache-ms:60000}")
+    private long referenceCacheMs;
+
+    @Value("${email.queue.name}")
+    private String emailQueueName;
+
+    @Value("${sms.queue.name}")
+    private String smsQueueName;
+
+    @Value("${whatsapp.queue.name}")
+    private String whatsappQueueName;
+
+    @Value("${push.queue.name}")
+    private String pushQueueName;
+
+    @Value("${voice.queue.name}")
+    private String voiceQueueName;
+
+    @Value("${webhook.queue.name}")
+    private String webhookQueueName;
+
+    @Value("${publish.queue.name}")
+    private String publishQueueName;
+
+    @PostConstruct
+    public void init() {
+        configCache = Caffeine.newBuilder()
+                .expireAfterWrite(referenceCacheMs, TimeUnit.MILLISECONDS)
+                .maximumSize(100)
+                .build();
+        templateCache = Caffeine.newBuilder()
+                .expireAfterWrite(referenceCacheMs, TimeUnit.MILLISECONDS)
+                .maximumSize(500)
+                .build();
+
+        queueChannelMap.put(emailQueueName, "email");
+        queueChannelMap.put(smsQueueName, "sms");
+        queueChannelMap.put(whatsappQueueName, "whatsapp");
+        queueChannelMap.put(pushQueueName, "push");
+        queueChannelMap.put(voiceQueueName, "voice");
+        queueChannelMap.put(webhookQueueName, "webhook");
+        queueChannelMap.put(publishQueueName, "queue");
+    }
+
+    /**
+     * @throws IllegalStateException if the referenced config or template no longer exists
+     */
+    public Content resolve(ScheduledNotification scheduled) {
+        NotificationConfig config = scheduled.getConfigId() != null
+                ? configCache.get(scheduled.getConfigId(), this::loadConfig)
+                : scheduled.getNotificationConfig();
+        TemplateEntity template = scheduled.getTemplateId() != null
+                ? templateCache.get(scheduled.getTemplateId(), this::loadTemplate)
+                : scheduled.getTemplate();
+        String channel = queueChannelMap.get(scheduled.getQueueName());
+
+        if (template == null) {
+            return new Content(channel, config, null, null, CompiledTemplate.compile(scheduled.getEmailSubject()));
+        }
+        return new Content(channel, config, template,
+                templateRenderService.compileContent(template),
+                templateRenderService.compileSubject(template, scheduled.getEmailSubject()));
+    }
+
+    private NotificationConfig loadConfig(String configId) {
+        NotificationConfig config = configRepository.findById(configId)
+                .orElseThrow(() -> new IllegalStateException("No config found for id: " + configId));
+        config.setConfig(decryptSensitiveFields(config.getConfig()));
+        log.info("📥 Loaded config {} for scheduled sends", configId);
+        return config;
+    }
+
+    private TemplateEntity loadTemplate(String templateId) {
+        return templateRepository.findById(templateId)
+                .orElseThrow(() -> new IllegalStateException("No template found for id: " + templateId));
+    }
+
+    private Map<String, Object> decryptSensitiveFields(Map<String, Object> config) {
+        if (config == null) return null;
+        Map<String, Object> decrypted = new HashMap<>(config);
+        if (decrypted.containsKey("password")) {
+            decrypted.put("password", EncryptionUtil.decrypt(decrypted.get("password").toString()));
+        }
+        if (decrypted.containsKey("authToken")) {
+            decrypted.put("authToken", EncryptionUtil.decrypt(decrypted.get("authToken").toString()));
+        }
+        return decrypted;
+    }
+
+    /**
+     * Shared by every recipient of one run; only the rendered strings differ per recipient.
+     *
+     * @param channel email, sms, whatsapp, push, voice, webhook or queue; null if the job's queue
+     *                is not a known channel queue
+     */
+    public record Content(String channel,
+                          NotificationConfig config,
+                          TemplateEntity template,
+                          CompiledTemplate content,
+                          CompiledTemplate subject) {
+    }
+}
@@ -1,121 +1,670 @@
 package com.message.scheduler;
 
 import com.message.scheduler.producer.MessageProducer;
+import com.mongodb.bulk.BulkWriteError;
 import com.notification.common.dto.NotificationPayloadDTO;
+import com.notification.common.enums.FireStatus;
+import com.notification.common.model.RecipientListEntry;
+import com.notification.common.model.ScheduledFireRecord;
 import com.notification.common.model.ScheduledNotification;
 import com.notification.common.repository.ScheduledNotificationRepository;
-import com.notification.common.utils.JsonUtil;
+import com.notification.common.service.payload.NotificationPayloadFactory;
+import com.notification.common.utils.CronScheduleUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
-
-import org.springframework.scheduling.support.CronExpression;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Each tick reads only the jobs in this instance's shards (see {@link ShardLeaseManager}) whose
+ * {@code nextFireAt} falls before the end of the next tick, and queues them on an in-process
+ * delay queue grouped by fire time, so each group fires at its exact time rather than at tick
+ * granularity.
+ * <p>
+ * A group is split into chunks of {@code notification.scheduler.publish-chunk-size} that fire
+ * concurrently on the dispatch pool. Per chunk: one read of the jobs still due at that time, one
+ * unordered insert of CLAIMED records into {@code scheduled_fire_log} keyed {@code <id>@<fireAt>},
+ * then non-blocking publishes capped at {@code notification.scheduler.max-in-flight-publishes}.
+ * Only once a run's sends have completed is its record set to PUBLISHED and its job advanced (one
+ * bulk write that moves recurring jobs on and deletes finished one-time jobs). A claim that is
+ * still CLAIMED after {@code notification.scheduler.publish-lease-ms} (its instance crashed or the
+ * publish failed) is taken over and published again, up to
+ * {@code notification.scheduler.max-publish-attempts} times, so every run is published at least
+ * once; the run key goes out as the payload's messageId so consumers can drop repeats. Runs missed
+ * by more than {@code notification.scheduler.misfire-grace-ms} (scheduler down) are skipped, not
+ * replayed. Recipient lists are expanded on their own pool of
+ * {@code notification.scheduler.expansion-threads}, resuming from the page cursor saved on the
+ * fire record.
+ * Content is resolved at fire time from the referenced config and template (see
+ * {@link ScheduledContentResolver}) and payloads are built by {@link NotificationPayloadFactory},
+ * the same as immediate sends: reference or snapshot per {@code notification.payload.mode}, with
+ * large bodies offloaded to the CDN.
+ * <p>
+ * Every tick logs the fire lag since the previous one: how long after its cron time each run was
+ * handed to the broker.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ScheduledNotificationService {
 
+    private static final int DUPLICATE_KEY = 11000;
+
     private final ScheduledNotificationRepository scheduledRepo;
+    private final MongoTemplate mongoTemplate;
     private final MessageProducer messageProducer;
+    private final ScheduledContentResolver contentResolver;
+    private final ShardLeaseManager leases;
+    private final NotificationPayloadFactory payloadFactory;
+
+    // "<id>@<fireAt>" already on the delay queue
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    // fire time -> jobs waiting for it; guarded by itself
+    private final Map<Long, List<ScheduledNotification>> groups = new HashMap<>();
+
+    private final AtomicLong lagCount = new AtomicLong();
+    private final AtomicLong lagSumMs = new AtomicLong();
+    private final AtomicLong lagMaxMs = new AtomicLong();
+
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService expansion;
+    private Semaphore inFlight;
+
+    @Value("${notification.scheduler.fixedRate.ms}")
+    private long tickMs;
+
+    @Value("${notification.scheduler.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${notification.scheduler.misfire-grace-ms:60000}")
+    private long misfireGraceMs;
+
+    @Value("${notification.scheduler.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    @Value("${notification.scheduler.publish-chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${notification.scheduler.max-in-flight-publishes:2000}")
+    private int maxInFlight;
+
+    @Value("${notification.scheduler.expansion-threads:2}")
+    private int expansionThreads;
+
+    @Value("${notification.scheduler.publish-lease-ms:30000}")
+    private long publishLeaseMs;
+
+    @Value("${notification.scheduler.max-publish-attempts:3}")
+    private int maxPublishAttempts;
+
+    @Value("${notification.scheduler.fire-log-ttl-hours:48}")
+    private long fireLogTtlHours;
+
+    @PostConstruct
+    public void init() {
+        dispatcher = Executors.newScheduledThreadPool(dispatchThreads, r -> {
+            Thread t = new Thread(r, "schedule-dispatch");
+            t.setDaemon(true);
+            return t;
+        });
+        expansion = Executors.newFixedThreadPool(expansionThreads, r -> {
+            Thread t = new Thread(r, "schedule-expansion");
+            t.setDaemon(true);
+            return t;
+        });
+        inFlight = new Semaphore(maxInFlight);
+        try {
+            mongoTemplate.indexOps(ScheduledNotification.class)
+                    .ensureIndex(new Index().on("active", Sort.Direction.ASC).on("nextFireAt", Sort.Direction.ASC)
+                            .on("shardKey", Sort.Direction.ASC).named("active_nextFireAt_shardKey"));
+            mongoTemplate.indexOps(ScheduledFireRecord.class)
+                    .ensureIndex(new Index().on("createdAt", Sort.Direction.ASC)
+                            .expire(Duration.ofHours(fireLogTtlHours)).named("createdAt_ttl"));
+        } catch (Exception e) {
+            log.warn("⚠️ Could not create scheduler indexes: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        expansion.shutdownNow();
+    }
 
     @Scheduled(fixedRateString = "${notification.scheduler.fixedRate.ms}")
     public void processScheduledNotifications() {
-        LocalDateTime now = LocalDateTime.now();
-        log.info("⏰ Scheduler triggered at: {}", now);
+        long now = System.currentTimeMillis();
+        logLag();
+        backfill(now);
 
-        List<ScheduledNotification> dueNotifications = scheduledRepo.findByActiveTrue();
-        log.info("🔍 Found {} active scheduled notifications to evaluate", dueNotifications.size());
+        Criteria ownedShards = leases.ownedShardKeys();
+        if (ownedShards == null) {
+            log.info("⏰ Scheduler tick: no shards owned by this instance");
+            return;
+        }
 
-        for (ScheduledNotification scheduled : dueNotifications) {
-            try {
-                log.debug("🔎 Checking scheduled ID: {}, Cron: {}", scheduled.getId(), scheduled.getScheduleCron());
+        // one second of overlap so tick jitter can't leave a job between two windows
+        long horizon = now + tickMs + 1000;
+        Query due = new Query(new Criteria().andOperator(
+                Criteria.where("active").is(true).and("nextFireAt").lte(horizon), ownedShards))
+                .with(Sort.by(Sort.Direction.ASC, "nextFireAt"))
+                .limit(batchSize);
+        List<ScheduledNotification> upcoming = mongoTemplate.find(due, ScheduledNotification.class);
+
+        int added = 0;
+        for (ScheduledNotification scheduled : upcoming) {
+            if (!queued.add(fireKey(scheduled.getId(), scheduled.getNextFireAt()))) continue;
+            enqueue(scheduled);
+            added++;
+        }
+
+        log.info("⏰ Scheduler tick: {} jobs due before {}, {} newly queued", upcoming.size(), Instant.ofEpochMilli(horizon), added);
+    }
+
+    private void enqueue(ScheduledNotification scheduled) {
+        long fireAt = scheduled.getNextFireAt();
+        boolean firstForTime;
+        synchronized (groups) {
+            List<ScheduledNotification> group = groups.get(fireAt);
+            firstForTime = group == null;
+            if (firstForTime) {
+                group = new ArrayList<>();
+                groups.put(fireAt, group);
+            }
+            group.add(scheduled);
+        }
+
+        if (firstForTime) {
+            dispatcher.schedule(() -> fireGroup(fireAt),
+                    Math.max(0, fireAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
 
-                if (isCronDueNow(scheduled)) {
-                    log.info("✅ Matched cron for scheduled ID: {}, Queue: {}", scheduled.getId(), scheduled.getQueueName());
-                    publishToQueue(scheduled);
+    private void fireGroup(long fireAt) {
+        List<ScheduledNotification> group;
+        synchronized (groups) {
+            group = groups.remove(fireAt);
+        }
+        if (group == null) return;
 
-                    if (isOneTimeJob(scheduled)) {
-                        scheduledRepo.deleteById(scheduled.getId());
-                        log.info("🗑️ One-time scheduled notification deleted: {}", scheduled.getId());
-                    }
+        for (int from = 0; from < group.size(); from += chunkSize) {
+            List<ScheduledNotification> chunk = group.subList(from, Math.min(group.size(), from + chunkSize));
+            dispatcher.execute(() -> fireChunk(fireAt, chunk));
+        }
+    }
+
+    private void fireChunk(long fireAt, List<ScheduledNotification> chunk) {
+        // runs still publishing keep their queued key until they complete
+        Set<String> publishing = new HashSet<>();
+        try {
+            // shards that moved since this was queued are fired by their new owner
+            List<String> ids = chunk.stream()
+                    .filter(scheduled -> leases.owns(scheduled.getShardKey()))
+                    .map(ScheduledNotification::getId)
+                    .toList();
+            if (ids.isEmpty()) return;
+
+            // jobs edited, deactivated or already advanced since queueing drop out here
+            List<ScheduledNotification> current = mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)
+                    .and("active").is(true).and("nextFireAt").is(fireAt)), ScheduledNotification.class);
+            if (current.isEmpty()) return;
+
+            long now = System.currentTimeMillis();
+            Claim claim = claimRuns(fireAt, current, now);
+            advanceAll(fireAt, claim.settled(), now);
+
+            List<Run> single = new ArrayList<>();
+            List<CompletableFuture<Void>> singleSends = new ArrayList<>();
+            for (Run run : claim.won()) {
+                ScheduledNotification scheduled = run.job();
+                publishing.add(scheduled.getId());
+                CompletableFuture<Void> sent = publish(run, fireAt);
+                if (scheduled.getRecipientListId() != null) {
+                    // list runs complete on their own so a long list doesn't hold back the chunk
+                    sent.whenComplete((result, error) -> complete(fireAt, List.of(run), List.of(sent)));
                 } else {
-                    log.debug("⏭️ Not due yet for scheduled ID: {}", scheduled.getId());
+                    single.add(run);
+                    singleSends.add(sent);
                 }
+            }
+            if (!single.isEmpty()) {
+                CompletableFuture.allOf(singleSends.toArray(new CompletableFuture[0]))
+                        .whenComplete((result, error) -> complete(fireAt, single, singleSends));
+            }
+        } catch (Exception e) {
+            log.error("⚠️ Error firing {} scheduled notifications due at {}: {}",
+                    chunk.size(), Instant.ofEpochMilli(fireAt), e.getMessage(), e);
+        } finally {
+            chunk.stream()
+                    .filter(scheduled -> !publishing.contains(scheduled.getId()))
+                    .forEach(scheduled -> queued.remove(fireKey(scheduled.getId(), fireAt)));
+        }
+    }
+
+    /**
+     * Claims each run with one unordered insert of CLAIMED {@code <id>@<fireAt>} fire records.
+     * Runs whose record already exists are looked at instead: PUBLISHED (or ABANDONED) runs only
+     * need their job advanced, a claim still within its lease is left to its holder, and an
+     * expired claim (its holder crashed or failed mid-publish) is taken over and published again.
+     * Runs missed by more than the misfire grace are not claimed, but an expired claim on one is
+     * still resumed. Any other write error leaves the job untouched for the next tick.
+     */
+    private Claim claimRuns(long fireAt, List<ScheduledNotification> jobs, long now) {
+        boolean misfired = now - fireAt > misfireGraceMs;
+        String claimToken = leases.instanceId() + ":" + UUID.randomUUID();
 
-            } catch (Exception e) {
-                log.error("⚠️ Error processing scheduled notification ID {}: {}", scheduled.getId(), e.getMessage(), e);
+        Set<Integer> existing = new HashSet<>();
+        Set<Integer> unsettled = new HashSet<>();
+        if (misfired) {
+            for (int i = 0; i < jobs.size(); i++) existing.add(i);
+        } else {
+            Date recordedAt = new Date();
+            List<ScheduledFireRecord> records = new ArrayList<>(jobs.size());
+            for (ScheduledNotification scheduled : jobs) {
+                records.add(ScheduledFireRecord.builder()
+                        .id(fireKey(scheduled.getId(), fireAt))
+                        .scheduledId(scheduled.getId())
+                        .fireAt(fireAt)
+                        .firedBy(leases.instanceId())
+                        .status(FireStatus.CLAIMED)
+                        .claimToken(claimToken)
+                        .claimedUntil(now + publishLeaseMs)
+                        .attempts(1)
+                        .createdAt(recordedAt)
+                        .build());
+            }
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ScheduledFireRecord.class)
+                        .insert(records)
+                        .execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    (error.getCode() == DUPLICATE_KEY ? existing : unsettled).add(error.getIndex());
+                }
             }
         }
 
-        log.info("✅ Scheduler cycle completed at: {}", LocalDateTime.now());
+        List<Run> won = new ArrayList<>(jobs.size());
+        List<ScheduledNotification> settled = new ArrayList<>();
+        List<ScheduledNotification> recorded = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            if (unsettled.contains(i)) continue;
+            if (existing.contains(i)) {
+                recorded.add(jobs.get(i));
+            } else {
+                won.add(new Run(jobs.get(i), claimToken, null));
+            }
+        }
+        if (!recorded.isEmpty()) {
+            inspectRecorded(fireAt, recorded, now, misfired, won, settled);
+        }
+        return new Claim(won, settled);
     }
 
-    private boolean isOneTimeJob(ScheduledNotification scheduled) {
-        try {
-            CronExpression cron = CronExpression.parse(scheduled.getScheduleCron());
-            String zoneIdStr = Optional.ofNullable(scheduled.getTimeZone()).orElse(ZoneId.systemDefault().getId());
-            ZoneId zoneId = ZoneId.of(zoneIdStr);
-
-            ZonedDateTime now = ZonedDateTime.now(zoneId);
-            ZonedDateTime next = cron.next(now);
-            if (next == null) {
-                return true; // No future runs → one-time cron
+    private void inspectRecorded(long fireAt, List<ScheduledNotification> jobs, long now, boolean misfired,
+                                 List<Run> won, List<ScheduledNotification> settled) {
+        Map<String, ScheduledFireRecord> records = new HashMap<>();
+        List<String> keys = jobs.stream().map(scheduled -> fireKey(scheduled.getId(), fireAt)).toList();
+        mongoTemplate.find(Query.query(Criteria.where("_id").in(keys)), ScheduledFireRecord.class)
+                .forEach(record -> records.put(record.getId(), record));
+
+        int skipped = 0;
+        int done = 0;
+        for (ScheduledNotification scheduled : jobs) {
+            ScheduledFireRecord record = records.get(fireKey(scheduled.getId(), fireAt));
+            if (record == null) {
+                // only reachable for misfired runs, which nobody started
+                skipped++;
+                settled.add(scheduled);
+            } else if (record.getStatus() != FireStatus.CLAIMED) {
+                done++;
+                settled.add(scheduled);
+            } else if (record.getClaimedUntil() < now) {
+                Run takeover = takeOver(record, scheduled, now);
+                if (takeover != null) {
+                    won.add(takeover);
+                } else if (record.getAttempts() >= maxPublishAttempts) {
+                    settled.add(scheduled);
+                }
             }
+        }
+        if (skipped > 0) {
+            log.warn("⚠️ Skipping {} runs missed by {} ms", skipped, now - fireAt);
+        }
+        if (done > 0 && !misfired) {
+            log.warn("⚠️ {} runs due at {} were already published, skipping", done, Instant.ofEpochMilli(fireAt));
+        }
+    }
+
+    /**
+     * Takes over an expired claim with a compare-and-set on its token, or abandons the run once it
+     * has been claimed {@code max-publish-attempts} times. Null when the run is not ours to publish.
+     */
+    private Run takeOver(ScheduledFireRecord record, ScheduledNotification scheduled, long now) {
+        Query expired = Query.query(Criteria.where("_id").is(record.getId())
+                .and("status").is(FireStatus.CLAIMED)
+                .and("claimToken").is(record.getClaimToken()));
 
-            // Optional: Add tolerance if it's near expiration
-            ZonedDateTime nextAfter = cron.next(next);
-            return nextAfter == null;
+        if (record.getAttempts() >= maxPublishAttempts) {
+            mongoTemplate.updateFirst(expired, Update.update("status", FireStatus.ABANDONED), ScheduledFireRecord.class);
+            log.error("❌ Run {} abandoned after {} publish attempts", record.getId(), record.getAttempts());
+            return null;
+        }
+
+        String claimToken = leases.instanceId() + ":" + UUID.randomUUID();
+        long taken = mongoTemplate.updateFirst(expired,
+                new Update().set("claimToken", claimToken)
+                        .set("claimedUntil", now + publishLeaseMs)
+                        .set("firedBy", leases.instanceId())
+                        .inc("attempts", 1),
+                ScheduledFireRecord.class).getModifiedCount();
+        if (taken == 0) return null;
+
+        log.warn("⚠️ Claim on run {} expired unfinished, publishing it again (attempt {})",
+                record.getId(), record.getAttempts() + 1);
+        return new Run(scheduled, claimToken, record.getCursor());
+    }
 
+    /**
+     * Marks the runs whose sends all completed PUBLISHED (as long as they are still ours) and
+     * advances their jobs. A run that failed stays CLAIMED with its job still due, so it is taken
+     * over and published again once its claim expires.
+     */
+    private void complete(long fireAt, List<Run> runs, List<CompletableFuture<Void>> sends) {
+        try {
+            List<Run> published = new ArrayList<>(runs.size());
+            for (int i = 0; i < runs.size(); i++) {
+                String runKey = fireKey(runs.get(i).job().getId(), fireAt);
+                try {
+                    sends.get(i).join();
+                    published.add(runs.get(i));
+                } catch (CompletionException | CancellationException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.error("❌ Run {} not published, retried once its claim expires: {}", runKey, cause.getMessage(), cause);
+                }
+            }
+            if (published.isEmpty()) return;
+
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ScheduledFireRecord.class);
+            for (Run run : published) {
+                ops.updateOne(Query.query(Criteria.where("_id").is(fireKey(run.job().getId(), fireAt))
+                                .and("claimToken").is(run.claimToken())),
+                        Update.update("status", FireStatus.PUBLISHED));
+            }
+            ops.execute();
+            advanceAll(fireAt, published.stream().map(Run::job).toList(), System.currentTimeMillis());
         } catch (Exception e) {
-            log.warn("⚠️ Failed to evaluate if cron is one-time. Treating as recurring. {}", e.getMessage());
-            return false;
+            log.error("⚠️ Could not complete {} runs due at {}: {}", runs.size(), Instant.ofEpochMilli(fireAt), e.getMessage(), e);
+        } finally {
+            runs.forEach(run -> queued.remove(fireKey(run.job().getId(), fireAt)));
+        }
+    }
+
+    /**
+     * One bulk write per chunk: recurring jobs move to their next run, one-time jobs with no
+     * further runs are deleted in a single remove, and jobs whose cron no longer evaluates are
+     * deactivated. Every write only applies if the job is still due at {@code fireAt}.
+     */
+    private void advanceAll(long fireAt, List<ScheduledNotification> jobs, long now) {
+        if (jobs.isEmpty()) return;
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ScheduledNotification.class);
+        List<String> finished = new ArrayList<>();
+        Instant after = Instant.ofEpochMilli(Math.max(fireAt, now));
+
+        for (ScheduledNotification scheduled : jobs) {
+            Query dueAt = Query.query(Criteria.where("_id").is(scheduled.getId()).and("nextFireAt").is(fireAt));
+            try {
+                Long next = CronScheduleUtil.nextFireAt(scheduled, after);
+                if (next == null) {
+                    finished.add(scheduled.getId());
+                } else {
+                    ops.updateOne(dueAt, Update.update("nextFireAt", next));
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                log.error("❌ Invalid cron or zone for scheduled ID {}, deactivating: {}", scheduled.getId(), e.getMessage());
+                ops.updateOne(dueAt, Update.update("active", false));
+            }
+        }
+        if (!finished.isEmpty()) {
+            ops.remove(Query.query(Criteria.where("_id").in(finished).and("nextFireAt").is(fireAt)));
+        }
+
+        ops.execute();
+        if (!finished.isEmpty()) {
+            log.info("🗑️ {} one-time scheduled notifications deleted", finished.size());
+        }
+    }
+
+    /**
+     * Renders the run from the job's current config and template. A job that targets a recipient
+     * list is expanded on the {@code schedule-expansion} pool so a long list never holds up a
+     * dispatch thread (see {@link #expand}).
+     *
+     * @return completes once every payload of the run has been handed to the producer; fails if
+     * the run could not be rendered or published
+     */
+    private CompletableFuture<Void> publish(Run run, long fireAt) {
+        ScheduledNotification scheduled = run.job();
+        try {
+            ScheduledContentResolver.Content content = contentResolver.resolve(scheduled);
+
+            if (scheduled.getRecipientListId() == null) {
+                return send(scheduled.getQueueName(), buildPayload(scheduled, content, scheduled.getTo(), scheduled.getCc(),
+                        scheduled.getBcc(), scheduled.getCustomParams(), fireKey(scheduled.getId(), fireAt)), fireAt);
+            }
+            return CompletableFuture.runAsync(() -> expand(run, content, fireAt), expansion);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
-    private void publishToQueue(ScheduledNotification scheduled) {
-        String queueName = scheduled.getQueueName();
+    /**
+     * Streams the recipient list in {@code _id} order, one page of {@code publish-chunk-size} at a
+     * time, each recipient's params layered over the job's and each with its own messageId
+     * ({@code <runKey>/<entryId>}). After every page the last {@code _id} is saved on the fire
+     * record and the claim extended, so a run that dies mid-list is resumed after that page by
+     * whoever takes it over; a page is at most sent twice. Stops as soon as the claim is no longer
+     * ours.
+     */
+    private void expand(Run run, ScheduledContentResolver.Content content, long fireAt) {
+        ScheduledNotification scheduled = run.job();
+        String runKey = fireKey(scheduled.getId(), fireAt);
+        String cursor = run.cursor();
+        long recipients = 0;
 
+        // it may have waited for a thread; make sure the claim is still ours before sending anything
+        renewClaim(run, runKey, new Update());
+        try {
+            while (true) {
+                Criteria page = Criteria.where("listId").is(scheduled.getRecipientListId());
+                if (cursor != null) {
+                    page = page.and("_id").gt(cursor);
+                }
+                List<RecipientListEntry> entries = mongoTemplate.find(new Query(page)
+                        .with(Sort.by(Sort.Direction.ASC, "_id"))
+                        .limit(chunkSize), RecipientListEntry.class);
+                if (entries.isEmpty()) break;
 
-        NotificationPayloadDTO payload = new NotificationPayloadDTO();
-        payload.setTo(scheduled.getTo());
-        payload.setCc(scheduled.getCc());
-        payload.setBcc(scheduled.getBcc());
-        payload.setSubject(scheduled.getEmailSubject());
-        payload.setSnapshotConfig(scheduled.getNotificationConfig());
-        payload.setSnapshotTemplate(scheduled.getTemplate());
+                List<CompletableFuture<Void>> sends = new ArrayList<>(entries.size());
+                for (RecipientListEntry entry : entries) {
+                    sends.add(send(scheduled.getQueueName(), buildPayload(scheduled, content, entry.getTo(), entry.getCc(), entry.getBcc(),
+                            mergeParams(scheduled.getCustomParams(), entry.getCustomParams()), runKey + "/" + entry.getId()), fireAt));
+                }
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+                recipients += entries.size();
 
-        String jsonPayload = JsonUtil.toJsonWithJavaTime(payload);
-        messageProducer.sendMessage(queueName, jsonPayload, false);
+                cursor = entries.get(entries.size() - 1).getId();
+                renewClaim(run, runKey, Update.update("cursor", cursor));
+                if (entries.size() < chunkSize) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted expanding run " + runKey + " after " + cursor, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build payloads for run " + runKey + " after " + cursor, e);
+        }
+        log.info("📤 Scheduled ID {} expanded recipient list {} to {} recipients{}", scheduled.getId(),
+                scheduled.getRecipientListId(), recipients, run.cursor() != null ? " (resumed)" : "");
+    }
 
-        log.info("📤 Scheduled message sent to queue: {}", queueName);
+    /**
+     * @throws IllegalStateException if the claim was taken over; its new holder finishes the run
+     */
+    private void renewClaim(Run run, String runKey, Update update) {
+        long matched = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(runKey)
+                        .and("status").is(FireStatus.CLAIMED)
+                        .and("claimToken").is(run.claimToken())),
+                update.set("claimedUntil", System.currentTimeMillis() + publishLeaseMs),
+                ScheduledFireRecord.class).getMatchedCount();
+        if (matched == 0) {
+            throw new IllegalStateException("Claim on run " + runKey + " was taken over");
+        }
     }
 
-    private boolean isCronDueNow(ScheduledNotification scheduled) {
+    private CompletableFuture<Void> send(String queueName, NotificationPayloadDTO payload, long fireAt) throws InterruptedException {
+        inFlight.acquire();
         try {
-            CronExpression cron = CronExpression.parse(scheduled.getScheduleCron());
+            return messageProducer.sendPayloadAsync(queueName, payload)
+                    .whenComplete((result, error) -> {
+                        inFlight.release();
+                        recordLag(System.currentTimeMillis() - fireAt);
+                    });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
 
-            String zoneIdStr = Optional.ofNullable(scheduled.getTimeZone()).orElse(ZoneId.systemDefault().getId());
-            ZoneId zoneId = ZoneId.of(zoneIdStr);
+    /**
+     * Jobs saved before nextFireAt and shardKey existed (or with an unparseable cron) get them
+     * computed here, one page per tick. Jobs whose cron can't be evaluated are deactivated rather
+     * than re-checked every tick. Any instance may do this; the values are deterministic.
+     */
+    private void backfill(long now) {
+        Query missing = new Query(new Criteria().andOperator(
+                Criteria.where("active").is(true),
+                new Criteria().orOperator(Criteria.where("nextFireAt").is(null), Criteria.where("shardKey").is(null))))
+                .limit(batchSize);
 
-            ZonedDateTime now = LocalDateTime.now().atZone(zoneId);
-            ZonedDateTime start = now.minusSeconds(30);
-            ZonedDateTime end = now.plusSeconds(30);
+        for (ScheduledNotification scheduled : mongoTemplate.find(missing, ScheduledNotification.class)) {
+            try {
+                Long next = scheduled.getNextFireAt() != null
+                        ? scheduled.getNextFireAt()
+                        : CronScheduleUtil.nextFireAt(scheduled, Instant.ofEpochMilli(now));
+                if (next == null) {
+                    scheduledRepo.deleteById(scheduled.getId());
+                    log.info("🗑️ Scheduled notification {} has no future runs, deleted", scheduled.getId());
+                } else {
+                    mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(scheduled.getId())),
+                            new Update().set("nextFireAt", next)
+                                    .set("shardKey", ScheduledNotification.shardKeyFor(scheduled.getId())),
+                            ScheduledNotification.class);
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                log.error("❌ Invalid cron or zone for scheduled ID {}, deactivating: {}", scheduled.getId(), e.getMessage());
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(scheduled.getId())),
+                        Update.update("active", false), ScheduledNotification.class);
+            }
+        }
+    }
 
-            ZonedDateTime next = cron.next(start);
-            return next != null && !next.isAfter(end);
+    /**
+     * Jobs without a template (saved before templates were attached) only carry the rendered
+     * subject.
+     */
+    private NotificationPayloadDTO buildPayload(ScheduledNotification scheduled,
+                                                ScheduledContentResolver.Content content,
+                                                String to,
+                                                List<String> cc,
+                                                List<String> bcc,
+                                                Map<String, Object> params,
+                                                String messageId) throws IOException {
+        NotificationPayloadDTO payload;
+        if (content.template() == null) {
+            payload = new NotificationPayloadDTO();
+            payload.setTo(to);
+            payload.setCc(cc);
+            payload.setBcc(bcc);
+            payload.setSubject(content.subject().render(params));
+            payload.setSnapshotConfig(content.config());
+        } else {
+            payload = payloadFactory.build(content.channel(), content.config(), content.template(), content.content(),
+                    content.subject(), scheduled.getEmailSubject(), to, cc, bcc, params);
+        }
+        payload.setMessageId(messageId);
+        return payload;
+    }
 
-        } catch (Exception e) {
-            log.error("❌ Error parsing cron or zone for scheduled notification: {}", e.getMessage(), e);
-            return false;
+    private Map<String, Object> mergeParams(Map<String, Object> shared, Map<String, Object> own) {
+        if (own == null || own.isEmpty()) return shared;
+        if (shared == null || shared.isEmpty()) return own;
+        Map<String, Object> merged = new HashMap<>(shared);
+        merged.putAll(own);
+        return merged;
+    }
+
+    private void recordLag(long lagMs) {
+        lagCount.incrementAndGet();
+        lagSumMs.addAndGet(lagMs);
+        lagMaxMs.accumulateAndGet(lagMs, Math::max);
+    }
+
+    private void logLag() {
+        long count = lagCount.getAndSet(0);
+        long sum = lagSumMs.getAndSet(0);
+        long max = lagMaxMs.getAndSet(0);
+        if (count > 0) {
+            log.info("📤 Published {} scheduled notifications since last tick, fire lag avg {} ms, max {} ms",
+                    count, sum / count, max);
         }
     }
 
+    private static String fireKey(String id, long fireAt) {
+        return id + "@" + fireAt;
+    }
+
+    private record Claim(List<Run> won, List<ScheduledNotification> settled) {
+    }
+
+    private record Run(ScheduledNotification job, String claimToken, String cursor) {
+    }
 }
@@ -1,14 +1,18 @@
 package com.message.scheduler;
 
+import com.notification.common.service.upload.HtmlCdnUploader;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableScheduling
 @SpringBootApplication
 @EnableMongoRepositories(basePackages = "com.notification.common.repository")
+@ComponentScan(basePackages = {"com.notification.common.service.template", "com.notification.common.service.routing", "com.notification.common.service.payload", "com.message.scheduler"})
+@Import(HtmlCdnUploader.class)
 public class SchedulerServiceApplication {
 
 	public static void main(String[] args) {
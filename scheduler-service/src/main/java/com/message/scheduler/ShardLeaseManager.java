@@ -0,0 +1,178 @@
+package com.message.scheduler;
+
+import com.notification.common.model.ScheduledNotification;
+import com.notification.common.model.SchedulerInstance;
+import com.notification.common.model.SchedulerShardLease;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Splits the ScheduledNotification shardKey space into {@code notification.scheduler.shards}
+ * contiguous ranges and leases each range to one scheduler instance through
+ * {@code scheduler_shard_leases}.
+ * <p>
+ * Every heartbeat an instance records itself in {@code scheduler_instances}, renews its leases
+ * and works out its fair share (shards / live instances, rounded up). Above it, it releases the
+ * surplus so a newly joined instance can pick it up; below it, it claims free or expired leases.
+ * When an instance stops heartbeating its leases run out after {@code lease-ms} and the others
+ * take them over. Every instance must run with the same shard count.
+ */
+@Slf4j
+@Component
+public class ShardLeaseManager {
+
+    private final MongoTemplate mongoTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile Set<Integer> owned = Set.of();
+    // owned shards are only trusted until the last successful renewal's lease runs out
+    private volatile long ownedUntil;
+    private boolean seeded;
+
+    @Value("${notification.scheduler.shards:16}")
+    private int shards;
+
+    @Value("${notification.scheduler.lease-ms:30000}")
+    private long leaseMs;
+
+    public ShardLeaseManager(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        heartbeat();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.scheduler.heartbeat-ms:10000}")
+    public synchronized void heartbeat() {
+        try {
+            // seeded from the heartbeat so an instance that starts while Mongo is down still gets there
+            if (!seeded) {
+                for (int shard = 0; shard < shards; shard++) {
+                    mongoTemplate.upsert(Query.query(Criteria.where("_id").is(shard)),
+                            new Update().setOnInsert("expiresAt", 0L), SchedulerShardLease.class);
+                }
+                seeded = true;
+            }
+
+            long now = System.currentTimeMillis();
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instanceId)),
+                    Update.update("heartbeatAt", now), SchedulerInstance.class);
+            long live = Math.max(1, mongoTemplate.count(
+                    Query.query(Criteria.where("heartbeatAt").gt(now - leaseMs)), SchedulerInstance.class));
+            int fairShare = (int) ((shards + live - 1) / live);
+
+            // an expired lease of ours that nobody has taken yet is still ours to renew
+            mongoTemplate.updateMulti(Query.query(Criteria.where("owner").is(instanceId)),
+                    Update.update("expiresAt", now + leaseMs), SchedulerShardLease.class);
+            TreeSet<Integer> mine = new TreeSet<>();
+            mongoTemplate.find(Query.query(Criteria.where("owner").is(instanceId)), SchedulerShardLease.class)
+                    .forEach(lease -> mine.add(lease.getShard()));
+
+            while (mine.size() > fairShare) {
+                release(mine.pollLast());
+            }
+            if (mine.size() < fairShare) {
+                claim(mine, fairShare, now);
+            }
+
+            if (!mine.equals(owned)) {
+                log.info("🧭 Scheduler {} owns shards {} of {} ({} live instances)", instanceId, mine, shards, live);
+            }
+            owned = Set.copyOf(mine);
+            ownedUntil = now + leaseMs;
+
+            mongoTemplate.remove(Query.query(Criteria.where("heartbeatAt").lt(now - 2 * leaseMs)), SchedulerInstance.class);
+        } catch (Exception e) {
+            log.error("❌ Shard lease heartbeat failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        owned = Set.of();
+        try {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("owner").is(instanceId)),
+                    new Update().unset("owner").set("expiresAt", 0L), SchedulerShardLease.class);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(instanceId)), SchedulerInstance.class);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not release shard leases on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    public boolean owns(Integer shardKey) {
+        return shardKey != null && currentShards().contains(shardOf(shardKey));
+    }
+
+    /**
+     * Filter on the shardKey ranges this instance owns, or null when it owns none.
+     */
+    public Criteria ownedShardKeys() {
+        Set<Integer> current = currentShards();
+        if (current.isEmpty()) return null;
+
+        List<Criteria> ranges = new ArrayList<>(current.size());
+        for (int shard : current) {
+            ranges.add(Criteria.where("shardKey").gte(rangeStart(shard)).lt(rangeStart(shard + 1)));
+        }
+        return new Criteria().orOperator(ranges);
+    }
+
+    private Set<Integer> currentShards() {
+        return System.currentTimeMillis() < ownedUntil ? owned : Set.of();
+    }
+
+    private int shardOf(int shardKey) {
+        return (int) ((long) shardKey * shards / ScheduledNotification.SHARD_KEY_SPACE);
+    }
+
+    private int rangeStart(int shard) {
+        return (int) ((long) shard * ScheduledNotification.SHARD_KEY_SPACE / shards);
+    }
+
+    private void claim(Set<Integer> mine, int fairShare, long now) {
+        Criteria free = Criteria.where("expiresAt").lt(now);
+        List<Integer> candidates = new ArrayList<>();
+        mongoTemplate.find(Query.query(free), SchedulerShardLease.class)
+                .forEach(lease -> candidates.add(lease.getShard()));
+        // start at a random shard so instances starting together don't all contend for the same ones
+        Collections.shuffle(candidates);
+
+        for (Integer shard : candidates) {
+            if (mine.size() >= fairShare) break;
+            if (shard >= shards) continue;
+            long claimed = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(shard).and("expiresAt").lt(now)),
+                    new Update().set("owner", instanceId).set("expiresAt", now + leaseMs),
+                    SchedulerShardLease.class).getModifiedCount();
+            if (claimed == 1) {
+                mine.add(shard);
+            }
+        }
+    }
+
+    private void release(int shard) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(shard).and("owner").is(instanceId)),
+                new Update().unset("owner").set("expiresAt", 0L), SchedulerShardLease.class);
+    }
+}
@@ -1,22 +1,56 @@
 package com.message.scheduler.producer;
 
+import com.notification.common.codec.PayloadCodec;
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.dto.NotificationPayloadDTO;
 import com.notification.common.enums.MessagingMode;
 import com.notification.common.model.UnsentMessage;
 import com.notification.common.repository.UnsentMessageRepository;
+import com.notification.common.service.routing.RoutingKeyResolver;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ExecutionException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * Sends are non-blocking end to end: retry and circuit breaker wrap the send future rather
+ * than a blocking call, and the unsent-message fallback is written from the completion
+ * callback. At most {@code kafka.producer.max-in-flight} sends are outstanding; beyond that a
+ * caller waits up to {@code kafka.producer.in-flight-timeout-ms} for a slot and then the
+ * message goes straight to the unsent store.
+ * <p>
+ * Retry attempts are scheduled on their own small pool ({@code kafka.producer.retry-threads}),
+ * and unsent-store writes run on a separate bounded pool ({@code kafka.producer.unsent-threads} /
+ * {@code unsent-queue-capacity}), so slow Mongo writes during a broker outage can't delay the
+ * retries. When the unsent queue is full the completing thread does the write itself, which
+ * slows the producer down rather than dropping the message.
+ */
 @Service("kafkaMessageProducer")
 @ConditionalOnExpression("'${messaging.mode}'=='kafka' or '${messaging.mode}'=='both'")
 @ConditionalOnClass(name = "org.springframework.kafka.core.KafkaTemplate")
@@ -29,38 +63,183 @@ public class KafkaMessageProducer implements MessageProducer {
     private final CircuitBreaker circuitBreaker;
     private final UnsentMessageRepository unsentRepo;
 
+    // Payloads are binary-capable, so they go through their own byte[] producer
+    private final DefaultKafkaProducerFactory<String, byte[]> payloadProducerFactory;
+    private final KafkaTemplate<String, byte[]> payloadTemplate;
+    private final PayloadCodec codec;
+    private final RoutingKeyResolver routingKeyResolver;
+
+    private final Semaphore inFlight;
+    private final long inFlightTimeoutMs;
+
+    // only schedules the next attempt; the attempt itself is a non-blocking send
+    private final ScheduledThreadPoolExecutor retryScheduler;
+
+    // blocking unsent-store writes, off the producer I/O and retry threads
+    private final ThreadPoolExecutor unsentWriter;
+
     @Autowired
     public KafkaMessageProducer(KafkaTemplate<String, String> kafkaTemplate,
+                                KafkaProperties kafkaProperties,
                                 RetryRegistry retryRegistry,
                                 CircuitBreakerRegistry circuitBreakerRegistry,
-                                UnsentMessageRepository unsentRepo) {
+                                UnsentMessageRepository unsentRepo,
+                                RoutingKeyResolver routingKeyResolver,
+                                @Value("${notification.payload.codec:json}") String codecName,
+                                @Value("${kafka.producer.max-in-flight:10000}") int maxInFlight,
+                                @Value("${kafka.producer.in-flight-timeout-ms:5000}") long inFlightTimeoutMs,
+                                @Value("${kafka.producer.retry-threads:2}") int retryThreads,
+                                @Value("${kafka.producer.unsent-threads:4}") int unsentThreads,
+                                @Value("${kafka.producer.unsent-queue-capacity:10000}") int unsentQueueCapacity) {
         this.kafkaTemplate = kafkaTemplate;
+        this.payloadProducerFactory = new DefaultKafkaProducerFactory<>(
+                kafkaProperties.buildProducerProperties(null), new StringSerializer(), new ByteArraySerializer());
+        this.payloadTemplate = new KafkaTemplate<>(payloadProducerFactory);
+        this.codec = PayloadCodecs.get(codecName);
         this.retry = retryRegistry.retry("kafka-retry");
         this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("kafka-cb");
         this.unsentRepo = unsentRepo;
+        this.routingKeyResolver = routingKeyResolver;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.inFlightTimeoutMs = inFlightTimeoutMs;
+        this.retryScheduler = new ScheduledThreadPoolExecutor(retryThreads, r -> {
+            Thread t = new Thread(r, "kafka-producer-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        this.unsentWriter = new ThreadPoolExecutor(unsentThreads, unsentThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(unsentQueueCapacity), r -> {
+                    Thread t = new Thread(r, "kafka-producer-unsent");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     @Override
     public void sendMessage(String queueName, String message, boolean isPubSub) {
-        Runnable sendLogic = () -> {
-            try {
-                kafkaTemplate.send(queueName, message).get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Kafka send failed", e);
+        orSaveUnsent(sendAsync(() -> kafkaTemplate.send(queueName, message)),
+                () -> log.info("[Kafka] Sent: " + message),
+                () -> unsentRepo.save(new UnsentMessage(queueName, message, MessagingMode.KAFKA)))
+                .join();
+    }
+
+    @Override
+    public void sendPayload(String queueName, NotificationPayloadDTO payload) {
+        sendPayloadAsync(queueName, payload).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPayloadAsync(String queueName, NotificationPayloadDTO payload) {
+        return sendPayloadAsync(queueName, routingKeyResolver.keyFor(queueName, payload), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendPayloadAsync(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        return publish(queueName, routingKey, payload).thenApply(sent -> (Void) null);
+    }
+
+    /**
+     * Completes with true once the payload is on the broker, or false once it is in the unsent store.
+     */
+    private CompletableFuture<Boolean> publish(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        byte[] data;
+        try {
+            data = codec.encode(payload);
+        } catch (Exception e) {
+            log.error("[Kafka] Failed to encode payload for {}, saving to DB", queueName, e);
+            saveUnsent(queueName, payload);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return orSaveUnsent(sendAsync(() -> payloadTemplate.send(payloadRecord(queueName, routingKey, data))),
+                () -> log.info("[Kafka] Sent {} payload ({} bytes) to {}", codec.name(), data.length, queueName),
+                () -> saveUnsent(queueName, payload));
+    }
+
+    /**
+     * Hands the whole chunk to the producer before waiting, so records are batched on the wire
+     * instead of paying one broker round trip per message. Each record gets the regular
+     * retry / circuit-breaker / unsent fallback of {@link #sendPayloadAsync}.
+     */
+    @Override
+    public List<NotificationPayloadDTO> sendPayloads(String queueName, List<NotificationPayloadDTO> payloads) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(payloads.size());
+        for (NotificationPayloadDTO payload : payloads) {
+            futures.add(publish(queueName, routingKeyResolver.keyFor(queueName, payload), payload));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        List<NotificationPayloadDTO> unsent = new ArrayList<>();
+        for (int i = 0; i < payloads.size(); i++) {
+            if (!futures.get(i).join()) {
+                unsent.add(payloads.get(i));
+            }
+        }
+        log.info("[Kafka] Sent batch of {} to {}, {} saved as unsent", payloads.size(), queueName, unsent.size());
+        return unsent;
+    }
+
+    /**
+     * Takes an in-flight slot and runs the send through the circuit breaker and retry without
+     * blocking; the slot is released when the final attempt completes.
+     */
+    private <T> CompletableFuture<T> sendAsync(Supplier<CompletionStage<T>> send) {
+        try {
+            if (!inFlight.tryAcquire(inFlightTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                        "Kafka producer backlog full: no in-flight slot within " + inFlightTimeoutMs + " ms"));
             }
-        };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
 
+        CompletableFuture<T> result;
         try {
-            Retry.decorateRunnable(retry,
-                    CircuitBreaker.decorateRunnable(circuitBreaker, sendLogic)
-            ).run();
-            log.info("[Kafka] Sent: " + message);
+            result = Retry.decorateCompletionStage(retry, retryScheduler,
+                    CircuitBreaker.decorateCompletionStage(circuitBreaker, send)
+            ).get().toCompletableFuture();
         } catch (Exception e) {
-            log.error("[Kafka] Failed after retries, saving to DB");
-            UnsentMessage fallbackMsg = new UnsentMessage(queueName, message, MessagingMode.KAFKA);
-            unsentRepo.save(fallbackMsg);
+            result = CompletableFuture.failedFuture(e);
         }
+        return result.whenComplete((value, error) -> inFlight.release());
     }
 
+    /**
+     * Completes with true once the send succeeded, or false once its fallback is in the unsent
+     * store. The write goes to {@link #unsentWriter}; the success path stays on the completing thread.
+     */
+    private CompletableFuture<Boolean> orSaveUnsent(CompletableFuture<?> send, Runnable onSent, Runnable saveUnsent) {
+        return send.handle((result, error) -> error).thenCompose(error -> {
+            if (error == null) {
+                onSent.run();
+                return CompletableFuture.completedFuture(true);
+            }
+            log.error("[Kafka] Failed after retries, saving to DB");
+            return CompletableFuture.runAsync(saveUnsent, unsentWriter).thenApply(saved -> false);
+        });
+    }
 
+    private ProducerRecord<String, byte[]> payloadRecord(String queueName, String routingKey, byte[] data) {
+        // a null key lets the partitioner spread records; a key pins them to one partition, in order
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(queueName, routingKey, data);
+        record.headers().add(PayloadCodecs.HEADER_CODEC, codec.name().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(PayloadCodecs.HEADER_VERSION,
+                String.valueOf(PayloadCodecs.WIRE_VERSION).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    // The unsent store and its replay stay on plain JSON text
+    private void saveUnsent(String queueName, NotificationPayloadDTO payload) {
+        String json = new String(PayloadCodecs.json().encode(payload), StandardCharsets.UTF_8);
+        unsentRepo.save(new UnsentMessage(queueName, json, MessagingMode.KAFKA));
+    }
+
+    @PreDestroy
+    public void close() {
+        payloadProducerFactory.destroy();
+        retryScheduler.shutdown();
+        // let queued fallbacks reach the unsent store
+        unsentWriter.shutdown();
+    }
 }
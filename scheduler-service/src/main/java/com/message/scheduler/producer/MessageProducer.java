@@ -1,5 +1,53 @@
 package com.message.scheduler.producer;
 
+import com.notification.common.codec.PayloadCodecs;
+import com.notification.common.dto.NotificationPayloadDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface MessageProducer {
     void sendMessage(String queueName, String message, boolean isPubSub);
+
+    /**
+     * Publishes a notification payload with the configured wire codec; the codec name and
+     * version travel as a Kafka header / JMS property. The default sends plain JSON text.
+     */
+    default void sendPayload(String queueName, NotificationPayloadDTO payload) {
+        sendMessage(queueName, new String(PayloadCodecs.json().encode(payload), StandardCharsets.UTF_8), false);
+    }
+
+    /**
+     * Non-blocking {@link #sendPayload}: returns as soon as the payload is handed off. The future
+     * completes once it is on the broker or, after retries, stored as an unsent message; it
+     * never completes exceptionally. The default sends synchronously.
+     */
+    default CompletableFuture<Void> sendPayloadAsync(String queueName, NotificationPayloadDTO payload) {
+        sendPayload(queueName, payload);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * {@link #sendPayloadAsync} with an explicit routing key: payloads with the same key land on
+     * the same Kafka partition (same JMS message group) and are consumed in order. Without an
+     * override, {@link com.notification.common.service.routing.RoutingKeyResolver} derives the
+     * key from the destination's strategy.
+     */
+    default CompletableFuture<Void> sendPayloadAsync(String queueName, String routingKey, NotificationPayloadDTO payload) {
+        return sendPayloadAsync(queueName, payload);
+    }
+
+    /**
+     * Publishes a chunk of payloads to the same destination and returns the ones that went to
+     * the unsent store instead of the broker (they are replayed later). Implementations that
+     * can pipeline sends (e.g. Kafka) override this; the default just sends one by one and
+     * cannot tell, so it reports none.
+     */
+    default List<NotificationPayloadDTO> sendPayloads(String queueName, List<NotificationPayloadDTO> payloads) {
+        for (NotificationPayloadDTO payload : payloads) {
+            sendPayload(queueName, payload);
+        }
+        return List.of();
+    }
 }
@@ -0,0 +1,312 @@
+package com.message.scheduler;
+
+import com.message.scheduler.producer.MessageProducer;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import com.notification.common.enums.FireStatus;
+import com.notification.common.model.ScheduledFireRecord;
+import com.notification.common.model.ScheduledNotification;
+import com.notification.common.repository.ScheduledNotificationRepository;
+import com.notification.common.service.payload.NotificationPayloadFactory;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduledNotificationServiceTest {
+
+    private static final String INSTANCE = "instance-1";
+    private static final long LEASE_MS = 30_000;
+    private static final long FIRE_AT = 1_714_564_800_000L; // 2024-05-01T12:00:00Z
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    // February 30th: parses, but has no next run
+    private static final String NEVER_AGAIN = "0 0 0 30 2 *";
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ShardLeaseManager leases = mock(ShardLeaseManager.class);
+    private final BulkOperations fireLog = mock(BulkOperations.class);
+    private final BulkOperations jobWrites = mock(BulkOperations.class);
+    private final List<ScheduledFireRecord> recorded = new ArrayList<>();
+    private ScheduledNotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ScheduledNotificationService(mock(ScheduledNotificationRepository.class), mongoTemplate,
+                mock(MessageProducer.class), mock(ScheduledContentResolver.class), leases, mock(NotificationPayloadFactory.class));
+        ReflectionTestUtils.setField(service, "misfireGraceMs", 60_000L);
+        ReflectionTestUtils.setField(service, "publishLeaseMs", LEASE_MS);
+        ReflectionTestUtils.setField(service, "maxPublishAttempts", 3);
+
+        when(leases.instanceId()).thenReturn(INSTANCE);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ScheduledFireRecord.class)).thenReturn(fireLog);
+        when(fireLog.insert(anyList())).thenReturn(fireLog);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ScheduledNotification.class)).thenReturn(jobWrites);
+        when(mongoTemplate.find(any(Query.class), eq(ScheduledFireRecord.class))).thenReturn(recorded);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ScheduledFireRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void freshRunsAreClaimedWithOneInsert() {
+        long now = FIRE_AT + 5;
+
+        Object claim = claimRuns(now, job("a"), job("b"));
+
+        ArgumentCaptor<List<ScheduledFireRecord>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(fireLog).insert(inserted.capture());
+        ScheduledFireRecord record = inserted.getValue().get(0);
+        assertEquals("a@" + FIRE_AT, record.getId());
+        assertEquals(FireStatus.CLAIMED, record.getStatus());
+        assertEquals(now + LEASE_MS, record.getClaimedUntil());
+        assertEquals(1, record.getAttempts());
+        assertTrue(record.getClaimToken().startsWith(INSTANCE + ":"));
+
+        assertEquals(List.of("a", "b"), wonIds(claim));
+        assertEquals(record.getClaimToken(), runField(won(claim).get(0), "claimToken"));
+        assertEquals(List.of(), settledIds(claim));
+    }
+
+    @Test
+    void publishedRunOnlyHasItsJobAdvanced() {
+        duplicateKeysAt(1);
+        recorded.add(record("b", FireStatus.PUBLISHED, FIRE_AT + LEASE_MS, 1));
+
+        Object claim = claimRuns(FIRE_AT + 5, job("a"), job("b"));
+
+        assertEquals(List.of("a"), wonIds(claim));
+        assertEquals(List.of("b"), settledIds(claim));
+    }
+
+    @Test
+    void claimWithinItsLeaseIsLeftToItsHolder() {
+        duplicateKeysAt(0);
+        recorded.add(record("a", FireStatus.CLAIMED, FIRE_AT + LEASE_MS, 1));
+
+        Object claim = claimRuns(FIRE_AT + 5, job("a"));
+
+        assertEquals(List.of(), wonIds(claim));
+        assertEquals(List.of(), settledIds(claim));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(ScheduledFireRecord.class));
+    }
+
+    @Test
+    void expiredClaimIsTakenOverAndResumesFromItsCursor() {
+        duplicateKeysAt(0);
+        ScheduledFireRecord expired = record("a", FireStatus.CLAIMED, FIRE_AT + 1_000, 1);
+        expired.setCursor("entry-42");
+        recorded.add(expired);
+        long now = FIRE_AT + 2_000;
+
+        Object claim = claimRuns(now, job("a"));
+
+        ArgumentCaptor<Query> cas = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> takeover = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(cas.capture(), takeover.capture(), eq(ScheduledFireRecord.class));
+        assertEquals("old-token", cas.getValue().getQueryObject().get("claimToken"));
+        assertEquals(FireStatus.CLAIMED, cas.getValue().getQueryObject().get("status"));
+        Document update = takeover.getValue().getUpdateObject();
+        assertEquals(1, ((Document) update.get("$inc")).get("attempts"));
+        assertEquals(now + LEASE_MS, ((Document) update.get("$set")).get("claimedUntil"));
+
+        assertEquals(List.of("a"), wonIds(claim));
+        Object run = won(claim).get(0);
+        assertEquals("entry-42", runField(run, "cursor"));
+        assertNotEquals("old-token", runField(run, "claimToken"));
+        assertEquals(((Document) update.get("$set")).get("claimToken"), runField(run, "claimToken"));
+    }
+
+    @Test
+    void takeoverLostToAnotherInstanceIsNotPublished() {
+        duplicateKeysAt(0);
+        recorded.add(record("a", FireStatus.CLAIMED, FIRE_AT + 1_000, 1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ScheduledFireRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        Object claim = claimRuns(FIRE_AT + 2_000, job("a"));
+
+        assertEquals(List.of(), wonIds(claim));
+        assertEquals(List.of(), settledIds(claim));
+    }
+
+    @Test
+    void runIsAbandonedOnceItHasUsedItsAttempts() {
+        duplicateKeysAt(0);
+        recorded.add(record("a", FireStatus.CLAIMED, FIRE_AT + 1_000, 3));
+
+        Object claim = claimRuns(FIRE_AT + 2_000, job("a"));
+
+        ArgumentCaptor<Update> abandon = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), abandon.capture(), eq(ScheduledFireRecord.class));
+        assertEquals(FireStatus.ABANDONED, ((Document) abandon.getValue().getUpdateObject().get("$set")).get("status"));
+        assertEquals(List.of(), wonIds(claim));
+        assertEquals(List.of("a"), settledIds(claim));
+    }
+
+    @Test
+    void otherWriteErrorsLeaveTheJobForTheNextTick() {
+        BulkOperationException failure = mock(BulkOperationException.class);
+        when(failure.getErrors()).thenReturn(List.of(new BulkWriteError(91, "shutdown in progress", new BsonDocument(), 0)));
+        when(fireLog.execute()).thenThrow(failure);
+
+        Object claim = claimRuns(FIRE_AT + 5, job("a"), job("b"));
+
+        assertEquals(List.of("b"), wonIds(claim));
+        assertEquals(List.of(), settledIds(claim));
+    }
+
+    @Test
+    void misfiredRunsAreNotClaimedButAnExpiredClaimIsStillResumed() {
+        recorded.add(record("a", FireStatus.CLAIMED, FIRE_AT + 1_000, 1));
+
+        Object claim = claimRuns(FIRE_AT + 120_000, job("a"), job("b"));
+
+        verify(fireLog, never()).insert(anyList());
+        assertEquals(List.of("a"), wonIds(claim));
+        assertEquals(List.of("b"), settledIds(claim));
+        assertNull(runField(won(claim).get(0), "cursor"));
+    }
+
+    @Test
+    void recurringJobMovesToItsNextRunIfStillDue() {
+        advanceAll(FIRE_AT + 5, job("a"));
+
+        ArgumentCaptor<Query> dueAt = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> next = ArgumentCaptor.forClass(Update.class);
+        verify(jobWrites).updateOne(dueAt.capture(), next.capture());
+        assertEquals("a", dueAt.getValue().getQueryObject().get("_id"));
+        assertEquals(FIRE_AT, dueAt.getValue().getQueryObject().get("nextFireAt"));
+        assertEquals(FIRE_AT + DAY_MS, ((Document) next.getValue().getUpdateObject().get("$set")).get("nextFireAt"));
+        verify(jobWrites).execute();
+    }
+
+    @Test
+    void lateCompletionSkipsRunsAlreadyInThePast() {
+        advanceAll(FIRE_AT + 2 * DAY_MS + 5, job("a"));
+
+        ArgumentCaptor<Update> next = ArgumentCaptor.forClass(Update.class);
+        verify(jobWrites).updateOne(any(Query.class), next.capture());
+        assertEquals(FIRE_AT + 3 * DAY_MS, ((Document) next.getValue().getUpdateObject().get("$set")).get("nextFireAt"));
+    }
+
+    @Test
+    void finishedJobsAreDeletedInOneRemove() {
+        ScheduledNotification once = job("once-1");
+        once.setScheduleCron(NEVER_AGAIN);
+        ScheduledNotification other = job("once-2");
+        other.setScheduleCron(NEVER_AGAIN);
+
+        advanceAll(FIRE_AT + 5, once, job("a"), other);
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(jobWrites).remove(removed.capture());
+        Document query = removed.getValue().getQueryObject();
+        assertEquals(List.of("once-1", "once-2"), ((Document) query.get("_id")).get("$in"));
+        assertEquals(FIRE_AT, query.get("nextFireAt"));
+        verify(jobWrites).updateOne(any(Query.class), any(Update.class));
+        verify(jobWrites).execute();
+    }
+
+    @Test
+    void jobWithAnInvalidCronIsDeactivated() {
+        ScheduledNotification broken = job("broken");
+        broken.setScheduleCron("every day at noon");
+
+        advanceAll(FIRE_AT + 5, broken);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(jobWrites).updateOne(any(Query.class), update.capture());
+        assertEquals(false, ((Document) update.getValue().getUpdateObject().get("$set")).get("active"));
+        verify(jobWrites, never()).remove(any(Query.class));
+    }
+
+    @Test
+    void nothingToAdvanceWritesNothing() {
+        advanceAll(FIRE_AT + 5);
+
+        verify(mongoTemplate, never()).bulkOps(BulkOperations.BulkMode.UNORDERED, ScheduledNotification.class);
+    }
+
+    private Object claimRuns(long now, ScheduledNotification... jobs) {
+        return ReflectionTestUtils.invokeMethod(service, "claimRuns", FIRE_AT, Arrays.asList(jobs), now);
+    }
+
+    private void advanceAll(long now, ScheduledNotification... jobs) {
+        ReflectionTestUtils.invokeMethod(service, "advanceAll", FIRE_AT, Arrays.asList(jobs), now);
+    }
+
+    private void duplicateKeysAt(int... indexes) {
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int index : indexes) {
+            errors.add(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), index));
+        }
+        BulkOperationException failure = mock(BulkOperationException.class);
+        when(failure.getErrors()).thenReturn(errors);
+        when(fireLog.execute()).thenThrow(failure);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> won(Object claim) {
+        return (List<Object>) ReflectionTestUtils.invokeMethod(claim, "won");
+    }
+
+    private static List<String> wonIds(Object claim) {
+        return won(claim).stream().map(run -> ((ScheduledNotification) runField(run, "job")).getId()).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> settledIds(Object claim) {
+        List<ScheduledNotification> settled = (List<ScheduledNotification>) ReflectionTestUtils.invokeMethod(claim, "settled");
+        return settled.stream().map(ScheduledNotification::getId).toList();
+    }
+
+    private static Object runField(Object run, String name) {
+        return ReflectionTestUtils.invokeMethod(run, name);
+    }
+
+    private static ScheduledNotification job(String id) {
+        ScheduledNotification scheduled = new ScheduledNotification();
+        scheduled.setId(id);
+        scheduled.setActive(true);
+        scheduled.setScheduleCron("0 0 12 * * *");
+        scheduled.setTimeZone("UTC");
+        scheduled.setNextFireAt(FIRE_AT);
+        return scheduled;
+    }
+
+    private static ScheduledFireRecord record(String id, FireStatus status, long claimedUntil, int attempts) {
+        return ScheduledFireRecord.builder()
+                .id(id + "@" + FIRE_AT)
+                .scheduledId(id)
+                .fireAt(FIRE_AT)
+                .firedBy("instance-0")
+                .status(status)
+                .claimToken("old-token")
+                .claimedUntil(claimedUntil)
+                .attempts(attempts)
+                .build();
+    }
+}
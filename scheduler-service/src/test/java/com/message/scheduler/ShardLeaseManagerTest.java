@@ -0,0 +1,190 @@
+package com.message.scheduler;
+
+import com.mongodb.client.result.UpdateResult;
+import com.notification.common.model.ScheduledNotification;
+import com.notification.common.model.SchedulerInstance;
+import com.notification.common.model.SchedulerShardLease;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardLeaseManagerTest {
+
+    private static final int SHARDS = 4;
+    private static final int SHARD_SPAN = ScheduledNotification.SHARD_KEY_SPACE / SHARDS;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ShardLeaseManager leases = new ShardLeaseManager(mongoTemplate);
+
+    // lease rows as the store holds them
+    private final List<SchedulerShardLease> rows = new ArrayList<>();
+    private final Set<Integer> lostRaces = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(leases, "shards", SHARDS);
+        ReflectionTestUtils.setField(leases, "leaseMs", 30_000L);
+        IntStream.range(0, SHARDS).forEach(shard -> rows.add(new SchedulerShardLease(shard, null, 0L)));
+        liveInstances(1);
+
+        when(mongoTemplate.find(any(Query.class), eq(SchedulerShardLease.class))).thenAnswer(invocation -> {
+            Document query = invocation.<Query>getArgument(0).getQueryObject();
+            if (query.containsKey("owner")) {
+                return rows.stream().filter(row -> query.get("owner").equals(row.getOwner())).toList();
+            }
+            long now = System.currentTimeMillis();
+            return rows.stream().filter(row -> row.getExpiresAt() < now).toList();
+        });
+        // claim and release: a compare-and-set on one row
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SchedulerShardLease.class))).thenAnswer(invocation -> {
+            int shard = (int) invocation.<Query>getArgument(0).getQueryObject().get("_id");
+            Document set = (Document) invocation.<Update>getArgument(1).getUpdateObject().get("$set");
+            if (lostRaces.contains(shard)) {
+                return UpdateResult.acknowledged(0, 0L, null);
+            }
+            SchedulerShardLease row = rows.get(shard);
+            row.setOwner((String) set.get("owner"));
+            row.setExpiresAt((long) set.get("expiresAt"));
+            return UpdateResult.acknowledged(1, 1L, null);
+        });
+    }
+
+    @Test
+    void seedsTheLeaseRowsOnceFromTheHeartbeat() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SchedulerShardLease.class)))
+                .thenThrow(new DataAccessResourceFailureException("mongo down"))
+                .thenReturn(null);
+
+        leases.heartbeat();
+        leases.heartbeat();
+        leases.heartbeat();
+
+        // one failed attempt, then all rows on the next heartbeat and never again
+        verify(mongoTemplate, times(1 + SHARDS)).upsert(any(Query.class), any(Update.class), eq(SchedulerShardLease.class));
+    }
+
+    @Test
+    void singleInstanceClaimsEveryShard() {
+        leases.heartbeat();
+
+        IntStream.range(0, SHARDS).forEach(shard -> assertTrue(leases.owns(shard * SHARD_SPAN)));
+        assertTrue(rows.stream().allMatch(row -> leases.instanceId().equals(row.getOwner())));
+    }
+
+    @Test
+    void claimsOnlyItsFairShare() {
+        liveInstances(2);
+
+        leases.heartbeat();
+
+        assertEquals(2, ownedRows());
+    }
+
+    @Test
+    void leaseHeldByAnotherInstanceIsNotClaimedUntilItExpires() {
+        SchedulerShardLease taken = rows.get(0);
+        taken.setOwner("other");
+        taken.setExpiresAt(System.currentTimeMillis() + 30_000);
+
+        leases.heartbeat();
+        assertFalse(leases.owns(0));
+
+        taken.setExpiresAt(System.currentTimeMillis() - 1);
+        leases.heartbeat();
+        assertTrue(leases.owns(0));
+    }
+
+    @Test
+    void shardLostToAConcurrentClaimIsNotOwned() {
+        lostRaces.add(1);
+
+        leases.heartbeat();
+
+        assertFalse(leases.owns(SHARD_SPAN));
+        assertEquals(SHARDS - 1, ownedRows());
+    }
+
+    @Test
+    void releasesTheSurplusWhenAnotherInstanceJoins() {
+        leases.heartbeat();
+        liveInstances(2);
+
+        leases.heartbeat();
+
+        assertEquals(2, ownedRows());
+        // the highest shards go, so the remaining ones stay put
+        assertTrue(leases.owns(0) && leases.owns(SHARD_SPAN));
+        assertFalse(leases.owns(2 * SHARD_SPAN) || leases.owns(3 * SHARD_SPAN));
+    }
+
+    @Test
+    void renewsItsLeasesOnEveryHeartbeat() {
+        leases.heartbeat();
+        leases.heartbeat();
+
+        ArgumentCaptor<Query> renewals = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateMulti(renewals.capture(), any(Update.class), eq(SchedulerShardLease.class));
+        renewals.getAllValues().forEach(query -> assertEquals(leases.instanceId(), query.getQueryObject().get("owner")));
+    }
+
+    @Test
+    void ownershipLapsesWhenRenewalsStop() throws Exception {
+        ReflectionTestUtils.setField(leases, "leaseMs", 100L);
+        leases.heartbeat();
+        assertTrue(leases.owns(0));
+        assertNotNull(leases.ownedShardKeys());
+
+        when(mongoTemplate.count(any(Query.class), eq(SchedulerInstance.class)))
+                .thenThrow(new DataAccessResourceFailureException("mongo down"));
+        leases.heartbeat();
+        Thread.sleep(150);
+
+        assertFalse(leases.owns(0));
+        assertNull(leases.ownedShardKeys());
+    }
+
+    @Test
+    void ownedShardKeysCoverExactlyTheOwnedRanges() {
+        lostRaces.addAll(Set.of(1, 3));
+
+        leases.heartbeat();
+
+        String ranges = leases.ownedShardKeys().getCriteriaObject().toString();
+        assertTrue(ranges.contains("$gte=0, $lt=" + SHARD_SPAN), ranges);
+        assertTrue(ranges.contains("$gte=" + 2 * SHARD_SPAN + ", $lt=" + 3 * SHARD_SPAN), ranges);
+        assertFalse(ranges.contains("$gte=" + SHARD_SPAN + ","), ranges);
+        assertFalse(leases.owns(null));
+    }
+
+    private void liveInstances(long count) {
+        when(mongoTemplate.count(any(Query.class), eq(SchedulerInstance.class))).thenReturn(count);
+    }
+
+    private long ownedRows() {
+        return rows.stream().filter(row -> leases.instanceId().equals(row.getOwner())).count();
+    }
+}